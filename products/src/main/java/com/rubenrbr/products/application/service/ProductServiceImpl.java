@@ -1,35 +1,232 @@
 package com.rubenrbr.products.application.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.rubenrbr.products.domain.exception.DeadlineExceededException;
 import com.rubenrbr.products.domain.exception.ProductNotFoundException;
+import com.rubenrbr.products.domain.exception.UpstreamUnavailableException;
+import com.rubenrbr.products.domain.model.Deadline;
+import com.rubenrbr.products.domain.model.Degradation;
 import com.rubenrbr.products.domain.model.ProductDetail;
+import com.rubenrbr.products.domain.model.SimilarProductsResult;
 import com.rubenrbr.products.domain.port.in.ProductService;
 import com.rubenrbr.products.domain.port.out.ProductRepository;
 
-import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Service
-@RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
   private final ProductRepository productRepository;
+  private final int fanOutConcurrency;
 
+  /**
+   * @param fanOutConcurrency how many product details of one request are looked up at once
+   */
+  public ProductServiceImpl(
+      ProductRepository productRepository,
+      @Value("${products.similar.fan-out-concurrency:32}") int fanOutConcurrency) {
+    this.productRepository = productRepository;
+    this.fanOutConcurrency = fanOutConcurrency;
+  }
+
+  @Override
+  public Mono<List<ProductDetail>> getSimilarProducts(String productId, Integer limit) {
+    return streamSimilarProducts(productId, limit).collectList();
+  }
+
+  /**
+   * Every lookup is bounded by the {@link Deadline} in the subscriber context, if any. Products
+   * that fail or are not resolved in time are handled according to the {@link Degradation} in the
+   * context; only a failed similar-ids lookup always fails the request.
+   *
+   * <p>Repeated ids are looked up once. At most {@code fanOutConcurrency} lookups run at once, and
+   * a product resolved ahead of a more similar one waits for it, so no more than that many are held
+   * back at a time.
+   *
+   * <p>With a {@code limit}, only the {@code limit} most similar products are looked up at first,
+   * and the next ones in rank order only as many as were missing or dropped among them, until
+   * {@code limit} products are found or the ids run out.
+   */
+  @Override
+  public Flux<ProductDetail> streamSimilarProducts(String productId, Integer limit) {
+    return Flux.deferContextual(
+        context -> {
+          Degradation degradation = Degradation.from(context);
+          return Deadline.bound(productRepository.getSimilarIds(productId))
+              .flatMapMany(
+                  ids ->
+                      topSimilarProducts(
+                          ids.stream().distinct().toList(),
+                          0,
+                          limit != null ? limit : Integer.MAX_VALUE,
+                          degradation));
+        });
+  }
+
+  /**
+   * Looks up the {@code wanted} products ranked from {@code from}, then, once all are resolved, as
+   * many of the following ones as were not found.
+   */
+  private Flux<ProductDetail> topSimilarProducts(
+      List<String> ids, int from, int wanted, Degradation degradation) {
+    if (wanted <= 0 || from >= ids.size()) {
+      return Flux.empty();
+    }
+    int to = from + Math.min(wanted, ids.size() - from);
+    AtomicInteger found = new AtomicInteger();
+    return Flux.fromIterable(ids.subList(from, to))
+        .flatMapSequential(id -> getProductDetail(id, degradation), fanOutConcurrency, 1)
+        .doOnNext(product -> found.incrementAndGet())
+        .concatWith(
+            Flux.defer(() -> topSimilarProducts(ids, to, wanted - found.get(), degradation)));
+  }
+
+  /**
+   * The similar-ids lists are looked up concurrently, then the products of all the lists in a
+   * single fan-out, each looked up once however many lists hold it. The {@link Deadline} and {@link
+   * Degradation} in the context apply as for a single product, except that a failure (a missing or
+   * failing similar-ids list, or a product failing in {@link Degradation.Mode#FAIL} mode) only
+   * fails the results it belongs to.
+   */
   @Override
-  public Mono<Set<ProductDetail>> getSimilarProducts(String productId) {
+  public Mono<Map<String, SimilarProductsResult>> getBulkSimilarProducts(
+      Collection<String> productIds) {
+    return Mono.deferContextual(
+        context -> {
+          Degradation degradation = Degradation.from(context);
+          List<String> ids = productIds.stream().distinct().toList();
+          return Flux.fromIterable(ids)
+              .flatMapSequential(
+                  id ->
+                      Deadline.bound(productRepository.getSimilarIds(id))
+                          .map(SimilarIds::found)
+                          .onErrorResume(e -> Mono.just(SimilarIds.failed(e))),
+                  fanOutConcurrency)
+              .collectList()
+              .flatMap(
+                  similarIds ->
+                      Flux.fromIterable(union(similarIds))
+                          .flatMap(
+                              id ->
+                                  getProductDetail(id, degradation)
+                                      .map(Lookup::found)
+                                      .defaultIfEmpty(Lookup.MISSING)
+                                      .onErrorResume(e -> Mono.just(Lookup.failed(e)))
+                                      .map(lookup -> Map.entry(id, lookup)),
+                              fanOutConcurrency)
+                          .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                          .map(lookups -> results(ids, similarIds, lookups)));
+        });
+  }
+
+  private static Set<String> union(List<SimilarIds> similarIds) {
+    Set<String> union = new LinkedHashSet<>();
+    similarIds.forEach(similar -> union.addAll(similar.ids()));
+    return union;
+  }
+
+  private static Map<String, SimilarProductsResult> results(
+      List<String> ids, List<SimilarIds> similarIds, Map<String, Lookup> lookups) {
+    Map<String, SimilarProductsResult> results = LinkedHashMap.newLinkedHashMap(ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      results.put(ids.get(i), result(similarIds.get(i), lookups));
+    }
+    return results;
+  }
+
+  private static SimilarProductsResult result(SimilarIds similar, Map<String, Lookup> lookups) {
+    if (similar.error() != null) {
+      return SimilarProductsResult.failed(similar.error());
+    }
+    List<ProductDetail> products = new ArrayList<>(similar.ids().size());
+    for (String id : new LinkedHashSet<>(similar.ids())) {
+      Lookup lookup = lookups.get(id);
+      if (lookup.error() != null) {
+        return SimilarProductsResult.failed(lookup.error());
+      }
+      if (lookup.product() != null) {
+        products.add(lookup.product());
+      }
+    }
+    return SimilarProductsResult.found(products);
+  }
+
+  private Mono<ProductDetail> getProductDetail(String id, Degradation degradation) {
+    Mono<ProductDetail> detail = productRepository.getProductDetail(id);
+    if (degradation.itemTimeout() != null) {
+      detail = detail.timeout(degradation.itemTimeout());
+    }
+    return Deadline.bound(detail)
+        .onErrorResume(ProductNotFoundException.class, e -> Mono.empty())
+        .onErrorResume(e -> degrade(id, e, degradation));
+  }
+
+  /**
+   * While the upstream is known to be unavailable (its circuit is open), a cached product is served
+   * whatever the degradation mode, since failing fast is the point of the open circuit.
+   */
+  private Mono<ProductDetail> degrade(String id, Throwable error, Degradation degradation) {
+    if (error instanceof UpstreamUnavailableException
+        && degradation.mode() != Degradation.Mode.STALE) {
+      return productRepository
+          .getCachedProductDetail(id)
+          .doOnNext(stale -> degradation.servedStale(id))
+          .switchIfEmpty(Mono.defer(() -> degradeUncached(id, error, degradation)));
+    }
+    return degradeUncached(id, error, degradation);
+  }
+
+  private Mono<ProductDetail> degradeUncached(String id, Throwable error, Degradation degradation) {
+    boolean outOfTime =
+        error instanceof DeadlineExceededException || error instanceof TimeoutException;
+    if (degradation.mode() == Degradation.Mode.FAIL && !outOfTime) {
+      return Mono.error(error);
+    }
+    if (degradation.mode() != Degradation.Mode.STALE) {
+      degradation.dropped(id);
+      return Mono.empty();
+    }
     return productRepository
-        .getSimilarIds(productId)
-        .flatMapMany(Flux::fromIterable)
-        .flatMap(
-            id ->
-                productRepository
-                    .getProductDetail(id)
-                    .onErrorResume(ProductNotFoundException.class, e -> Mono.empty()))
-        .collect(Collectors.toSet());
+        .getCachedProductDetail(id)
+        .doOnNext(stale -> degradation.servedStale(id))
+        .switchIfEmpty(Mono.fromRunnable(() -> degradation.dropped(id)));
+  }
+
+  private record SimilarIds(List<String> ids, Throwable error) {
+
+    static SimilarIds found(List<String> ids) {
+      return new SimilarIds(ids, null);
+    }
+
+    static SimilarIds failed(Throwable error) {
+      return new SimilarIds(List.of(), error);
+    }
+  }
+
+  /** A product looked up for a bulk request: found, missing (not found or dropped) or failed. */
+  private record Lookup(ProductDetail product, Throwable error) {
+
+    static final Lookup MISSING = new Lookup(null, null);
+
+    static Lookup found(ProductDetail product) {
+      return new Lookup(product, null);
+    }
+
+    static Lookup failed(Throwable error) {
+      return new Lookup(null, error);
+    }
   }
 }
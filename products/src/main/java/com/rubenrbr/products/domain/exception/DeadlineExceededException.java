@@ -0,0 +1,8 @@
+package com.rubenrbr.products.domain.exception;
+
+public class DeadlineExceededException extends RuntimeException {
+
+  public DeadlineExceededException() {
+    super("The request deadline was exceeded.");
+  }
+}
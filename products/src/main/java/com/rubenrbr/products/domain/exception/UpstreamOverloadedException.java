@@ -0,0 +1,8 @@
+package com.rubenrbr.products.domain.exception;
+
+public class UpstreamOverloadedException extends RuntimeException {
+
+  public UpstreamOverloadedException() {
+    super("Too many calls to the external data API are in progress.");
+  }
+}
@@ -0,0 +1,8 @@
+package com.rubenrbr.products.domain.exception;
+
+public class UpstreamUnavailableException extends RuntimeException {
+
+  public UpstreamUnavailableException() {
+    super("The external data API is temporarily unavailable.");
+  }
+}
@@ -0,0 +1,116 @@
+package com.rubenrbr.products.domain.model;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.rubenrbr.products.domain.exception.DeadlineExceededException;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * The time by which a request must be answered, carried in the Reactor context of the calls made on
+ * its behalf.
+ *
+ * <p>{@link #bound} cuts a call to the time remaining: once the deadline has passed it fails with
+ * {@link DeadlineExceededException} and the deadline is marked {@link #exceeded()}, so the caller
+ * can tell that its answer is incomplete. Calls made without a deadline in their context are not
+ * bounded.
+ *
+ * <p>A call made on behalf of several requests runs within a {@link #forSharedCall() shared}
+ * deadline, extended to the deadline of every request that waits for it, so that it lasts as long
+ * as the last of them.
+ */
+public final class Deadline {
+
+  private final AtomicLong expiresAtNanos;
+  private final AtomicBoolean unbounded = new AtomicBoolean();
+  private final AtomicBoolean exceeded = new AtomicBoolean();
+
+  private Deadline(long expiresAtNanos) {
+    this.expiresAtNanos = new AtomicLong(expiresAtNanos);
+  }
+
+  public static Deadline after(Duration budget) {
+    return new Deadline(System.nanoTime() + budget.toNanos());
+  }
+
+  /** A deadline for a call shared by several callers; it has passed until one extends it. */
+  public static Deadline forSharedCall() {
+    return new Deadline(System.nanoTime());
+  }
+
+  /**
+   * Moves this deadline to {@code other} if that is later; a {@code null} one, from a caller
+   * without a deadline, lifts it for good. A call already bounded by this deadline is cut at the
+   * new time.
+   */
+  public void extendTo(Deadline other) {
+    if (other == null || other.unbounded.get()) {
+      unbounded.set(true);
+      return;
+    }
+    long later = other.expiresAtNanos.get();
+    expiresAtNanos.accumulateAndGet(later, (current, next) -> next - current > 0 ? next : current);
+  }
+
+  /** Bounds {@code call} by the deadline in its subscriber context, if any. */
+  public static <T> Mono<T> bound(Mono<T> call) {
+    return Mono.deferContextual(
+        context -> from(context).map(deadline -> deadline.cut(call)).orElse(call));
+  }
+
+  /** The deadline in the context, if any. */
+  public static Optional<Deadline> from(ContextView context) {
+    return context.getOrEmpty(Deadline.class);
+  }
+
+  public Context putIn(Context context) {
+    return context.put(Deadline.class, this);
+  }
+
+  public Duration remaining() {
+    if (unbounded.get()) {
+      return Duration.ofNanos(Long.MAX_VALUE);
+    }
+    return Duration.ofNanos(Math.max(0, expiresAtNanos.get() - System.nanoTime()));
+  }
+
+  /** Whether a call was cut short by this deadline. */
+  public boolean exceeded() {
+    return exceeded.get();
+  }
+
+  private <T> Mono<T> cut(Mono<T> call) {
+    Duration remaining = remaining();
+    Mono<T> expired =
+        Mono.defer(
+            () -> {
+              exceeded.set(true);
+              return Mono.error(new DeadlineExceededException());
+            });
+    if (remaining.isZero()) {
+      return expired;
+    }
+    // A nested deadline, such as a shared call's, may cut the call as this one passes.
+    return call.timeout(expiry(), expired)
+        .doOnError(
+            DeadlineExceededException.class,
+            e -> {
+              if (remaining().isZero()) {
+                exceeded.set(true);
+              }
+            });
+  }
+
+  /** Fires once the deadline has passed, re-armed whenever it was extended in the meantime. */
+  private Mono<Long> expiry() {
+    return Mono.defer(() -> unbounded.get() ? Mono.<Long>never() : Mono.delay(remaining()))
+        .repeat()
+        .filter(tick -> remaining().isZero())
+        .next();
+  }
+}
@@ -0,0 +1,76 @@
+package com.rubenrbr.products.domain.model;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * How a request tolerates products that cannot be looked up, carried in the Reactor context, and
+ * which products were degraded while answering it.
+ *
+ * <p>With {@link Mode#FAIL} any error other than the product not existing fails the request, and
+ * products cut by the deadline are dropped. With {@link Mode#DROP} any failing product is dropped,
+ * and with {@link Mode#STALE} it is replaced by its cached copy, however old, if there is one.
+ * {@code itemTimeout}, when set, is the longest a single product may take before it is degraded.
+ */
+public final class Degradation {
+
+  public enum Mode {
+    FAIL,
+    DROP,
+    STALE
+  }
+
+  private final Mode mode;
+  private final Duration itemTimeout;
+  private final Set<String> dropped = ConcurrentHashMap.newKeySet();
+  private final Set<String> servedStale = ConcurrentHashMap.newKeySet();
+
+  public Degradation(Mode mode, Duration itemTimeout) {
+    this.mode = mode;
+    this.itemTimeout = itemTimeout;
+  }
+
+  /** The degradation in the context, or a {@link Mode#FAIL} one without item timeout. */
+  public static Degradation from(ContextView context) {
+    return context
+        .<Degradation>getOrEmpty(Degradation.class)
+        .orElseGet(() -> new Degradation(Mode.FAIL, null));
+  }
+
+  public Context putIn(Context context) {
+    return context.put(Degradation.class, this);
+  }
+
+  public Mode mode() {
+    return mode;
+  }
+
+  /** The longest a single product may take, or {@code null} for no limit but the deadline. */
+  public Duration itemTimeout() {
+    return itemTimeout;
+  }
+
+  public void dropped(String productId) {
+    dropped.add(productId);
+  }
+
+  public void servedStale(String productId) {
+    servedStale.add(productId);
+  }
+
+  public int droppedCount() {
+    return dropped.size();
+  }
+
+  public int servedStaleCount() {
+    return servedStale.size();
+  }
+
+  public boolean degraded() {
+    return !dropped.isEmpty() || !servedStale.isEmpty();
+  }
+}
@@ -0,0 +1,18 @@
+package com.rubenrbr.products.domain.model;
+
+import java.util.List;
+
+/**
+ * What looking up the products similar to one product of a bulk request gave: the products, most
+ * similar first, or the error that prevented it, in which case there are none.
+ */
+public record SimilarProductsResult(List<ProductDetail> products, Throwable error) {
+
+  public static SimilarProductsResult found(List<ProductDetail> products) {
+    return new SimilarProductsResult(products, null);
+  }
+
+  public static SimilarProductsResult failed(Throwable error) {
+    return new SimilarProductsResult(List.of(), error);
+  }
+}
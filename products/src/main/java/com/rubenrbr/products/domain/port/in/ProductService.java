@@ -1,12 +1,33 @@
 package com.rubenrbr.products.domain.port.in;
 
-import java.util.Set;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 import com.rubenrbr.products.domain.model.ProductDetail;
+import com.rubenrbr.products.domain.model.SimilarProductsResult;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface ProductService {
 
-  Mono<Set<ProductDetail>> getSimilarProducts(String productId);
+  /**
+   * The products similar to a product, most similar first: all of them, or the {@code limit} most
+   * similar ones found when {@code limit} is not null.
+   */
+  Mono<List<ProductDetail>> getSimilarProducts(String productId, Integer limit);
+
+  /**
+   * The products similar to a product, as {@link #getSimilarProducts}, each emitted as soon as it
+   * and every more similar product are resolved.
+   */
+  Flux<ProductDetail> streamSimilarProducts(String productId, Integer limit);
+
+  /**
+   * The products similar to each of the products, keyed by product id in the order of the ids. A
+   * product whose similar products cannot be looked up gets a failed result, without failing the
+   * others.
+   */
+  Mono<Map<String, SimilarProductsResult>> getBulkSimilarProducts(Collection<String> productIds);
 }
@@ -1,14 +1,25 @@
 package com.rubenrbr.products.domain.port.out;
 
+import java.util.Collection;
 import java.util.List;
 
 import com.rubenrbr.products.domain.model.ProductDetail;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface ProductRepository {
 
   Mono<ProductDetail> getProductDetail(String productId);
 
+  /**
+   * The products found among the ids, each looked up once, in the order of the ids; products not
+   * found are left out. Fails if any lookup fails.
+   */
+  Flux<ProductDetail> getProductDetails(Collection<String> productIds);
+
+  /** A cached copy of the product however old, without calling the product API; empty if none. */
+  Mono<ProductDetail> getCachedProductDetail(String productId);
+
   Mono<List<String>> getSimilarIds(String productId);
 }
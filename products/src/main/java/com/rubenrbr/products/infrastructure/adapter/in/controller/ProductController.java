@@ -1,31 +1,255 @@
 package com.rubenrbr.products.infrastructure.adapter.in.controller;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ServerWebExchange;
 
+import com.rubenrbr.products.domain.exception.ProductNotFoundException;
+import com.rubenrbr.products.domain.model.Deadline;
+import com.rubenrbr.products.domain.model.Degradation;
+import com.rubenrbr.products.domain.model.ProductDetail;
+import com.rubenrbr.products.domain.model.SimilarProductsResult;
 import com.rubenrbr.products.domain.port.in.ProductService;
+import com.rubenrbr.products.infrastructure.config.CacheControlProperties;
+import com.rubenrbr.products.infrastructure.config.DeadlineProperties;
+import com.rubenrbr.products.infrastructure.config.DegradationProperties;
 import com.rubenrbr.products.infrastructure.rest.ProductApi;
+import com.rubenrbr.products.infrastructure.rest.ProductsApi;
 import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+import com.rubenrbr.products.infrastructure.rest.dto.SimilarProductsRequestDto;
+import com.rubenrbr.products.infrastructure.rest.dto.SimilarProductsResultDto;
+import com.rubenrbr.products.infrastructure.rest.mapper.ProductResponseFragments;
 import com.rubenrbr.products.infrastructure.rest.mapper.ProductResponseMapper;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
-@RequiredArgsConstructor
-public class ProductController implements ProductApi {
+public class ProductController implements ProductApi, ProductsApi {
+
+  public static final String PARTIAL_RESPONSE = "X-Partial-Response";
+  public static final String DEGRADED_ITEMS = "X-Degraded-Items";
+  public static final String STREAM = "stream";
+  public static final String LIMIT = "limit";
+
+  /** Media types products can be written in besides JSON. */
+  public static final List<MediaType> BINARY_MEDIA_TYPES =
+      List.of(MediaType.APPLICATION_CBOR, ProductDetailProtobufEncoder.PROTOBUF);
 
   private final ProductService productService;
   private final ProductResponseMapper mapper;
+  private final ProductResponseFragments fragments;
+  private final DeadlineProperties deadlineProperties;
+  private final DegradationProperties degradationProperties;
+  private final CacheControl cacheControl;
+  private final Counter dropped;
+  private final Counter servedStale;
 
+  public ProductController(
+      ProductService productService,
+      ProductResponseMapper mapper,
+      ProductResponseFragments fragments,
+      DeadlineProperties deadlineProperties,
+      DegradationProperties degradationProperties,
+      CacheControlProperties cacheControlProperties,
+      MeterRegistry meterRegistry) {
+    this.productService = productService;
+    this.mapper = mapper;
+    this.fragments = fragments;
+    this.deadlineProperties = deadlineProperties;
+    this.degradationProperties = degradationProperties;
+    this.cacheControl = cacheControlProperties.cacheControl();
+    this.dropped = degradedCounter("dropped", meterRegistry);
+    this.servedStale = degradedCounter("stale", meterRegistry);
+  }
+
+  /**
+   * Products are written once all are resolved, with headers telling whether the response is
+   * partial, or streamed in order as they resolve when asked to ({@link #isStreamed}), in which
+   * case those headers cannot be sent.
+   *
+   * <p>Complete responses carry an {@code ETag} made of the cached hashes of their products (and of
+   * the {@code Accept} header when it asks for a {@linkplain #acceptsBinary binary} encoding), so a
+   * request whose {@code If-None-Match} matches it is answered {@code 304} without writing them,
+   * and may be cached by clients per {@link CacheControlProperties}. Partial ones may not.
+   */
   @Override
   public Mono<ResponseEntity<Flux<ProductDetailDto>>> getProductSimilar(
-      String productId, ServerWebExchange exchange) {
+      String productId,
+      Integer xRequestTimeout,
+      Boolean stream,
+      Integer limit,
+      ServerWebExchange exchange) {
+    Deadline deadline = Deadline.after(deadlineProperties.budget(xRequestTimeout));
+    Degradation degradation = degradationProperties.newDegradation();
+    if (Boolean.TRUE.equals(stream) || isStreamed(exchange.getRequest())) {
+      Flux<ProductDetailDto> products =
+          productService
+              .streamSimilarProducts(productId, limit)
+              .map(this::toResponse)
+              .doOnComplete(() -> countDegraded(degradation))
+              .contextWrite(context -> degradation.putIn(deadline.putIn(context)));
+      return Mono.just(ResponseEntity.ok().body(products));
+    }
     return productService
-        .getSimilarProducts(productId)
-        .map(mapper::productDetailToProductDetailDto)
-        .map(productList -> ResponseEntity.ok(Flux.fromIterable(productList)));
+        .getSimilarProducts(productId, limit)
+        .map(products -> products.stream().map(this::toResponse).toList())
+        .map(
+            productList -> {
+              ResponseEntity.BodyBuilder response = ok(deadline, degradation);
+              if (deadline.exceeded() || degradation.degraded()) {
+                response.cacheControl(CacheControl.noStore());
+              } else {
+                response
+                    .eTag(eTag(productList, exchange.getRequest()))
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT);
+              }
+              return response.body(Flux.fromIterable(productList));
+            })
+        .contextWrite(context -> degradation.putIn(deadline.putIn(context)));
+  }
+
+  /**
+   * The results come in the order of the request, each id once, and the response is marked partial
+   * as for a single product.
+   */
+  @Override
+  public Mono<ResponseEntity<Map<String, SimilarProductsResultDto>>> getProductsSimilar(
+      Mono<SimilarProductsRequestDto> similarProductsRequestDto,
+      Integer xRequestTimeout,
+      ServerWebExchange exchange) {
+    Deadline deadline = Deadline.after(deadlineProperties.budget(xRequestTimeout));
+    Degradation degradation = degradationProperties.newDegradation();
+    return similarProductsRequestDto
+        .flatMap(request -> productService.getBulkSimilarProducts(request.getProductIds()))
+        .map(
+            results -> {
+              Map<String, SimilarProductsResultDto> response =
+                  LinkedHashMap.newLinkedHashMap(results.size());
+              results.forEach((id, result) -> response.put(id, toResponse(result)));
+              return ok(deadline, degradation).body(response);
+            })
+        .contextWrite(context -> degradation.putIn(deadline.putIn(context)));
+  }
+
+  /**
+   * Whether a similar-products request asks for the products to be streamed: with {@code
+   * stream=true}, or by accepting {@code application/x-ndjson}.
+   */
+  public static boolean isStreamed(ServerHttpRequest request) {
+    return Boolean.parseBoolean(request.getQueryParams().getFirst(STREAM))
+        || request.getHeaders().getAccept().stream()
+            .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+  }
+
+  /**
+   * The response prepared when the product was cached, which {@link ProductDetailJsonEncoder}
+   * writes without serializing it, or a newly mapped one.
+   */
+  private ProductDetailDto toResponse(ProductDetail product) {
+    ProductDetailDto response = fragments.response(product);
+    return response != null ? response : mapper.productDetailToProductDetailDto(product);
+  }
+
+  /**
+   * Whether a similar-products request accepts a binary encoding, which it gets unless it accepts
+   * JSON with a higher quality.
+   */
+  public static boolean acceptsBinary(ServerHttpRequest request) {
+    return binaryMediaType(request) != null;
+  }
+
+  /**
+   * The binary media type a similar-products request is answered in, or {@code null} for JSON.
+   * Accepted types are ranked by quality, then specificity, as Spring ranks them to pick an
+   * encoder; JSON, or a wildcard covering it, ranked above every binary type wins.
+   */
+  static MediaType binaryMediaType(ServerHttpRequest request) {
+    List<MediaType> accepted = new ArrayList<>(request.getHeaders().getAccept());
+    MimeTypeUtils.sortBySpecificity(accepted);
+    for (MediaType type : accepted) {
+      for (MediaType binary : BINARY_MEDIA_TYPES) {
+        if (type.equalsTypeAndSubtype(binary)) {
+          return binary;
+        }
+      }
+      if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Order-sensitive combination of the products' content hashes, as a strong entity tag. JSON
+   * responses get the same tag whatever the request accepts; binary ones get one per media type,
+   * however the {@code Accept} header asking for it is written.
+   */
+  private String eTag(List<ProductDetailDto> products, ServerHttpRequest request) {
+    MediaType binary = binaryMediaType(request);
+    long hash = binary != null ? binary.toString().hashCode() : 1;
+    for (ProductDetailDto product : products) {
+      hash = 31 * hash + fragments.contentHash(product);
+    }
+    return "\"" + Long.toHexString(hash) + "\"";
+  }
+
+  private SimilarProductsResultDto toResponse(SimilarProductsResult result) {
+    if (result.error() == null) {
+      return new SimilarProductsResultDto(SimilarProductsResultDto.StatusEnum.OK)
+          .products(
+              result.products().stream()
+                  .map(this::toResponse)
+                  .collect(Collectors.toCollection(LinkedHashSet::new)));
+    }
+    return new SimilarProductsResultDto(
+            result.error() instanceof ProductNotFoundException
+                ? SimilarProductsResultDto.StatusEnum.NOT_FOUND
+                : SimilarProductsResultDto.StatusEnum.ERROR)
+        .error(result.error().getMessage());
+  }
+
+  /** A 200 response, marked partial if products were cut by the deadline or degraded. */
+  private ResponseEntity.BodyBuilder ok(Deadline deadline, Degradation degradation) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (deadline.exceeded()) {
+      response.header(PARTIAL_RESPONSE, "deadline-exceeded");
+    } else if (degradation.degraded()) {
+      response.header(PARTIAL_RESPONSE, "degraded");
+    }
+    if (degradation.degraded()) {
+      countDegraded(degradation);
+      response.header(
+          DEGRADED_ITEMS,
+          String.valueOf(degradation.droppedCount() + degradation.servedStaleCount()));
+    }
+    return response;
+  }
+
+  private void countDegraded(Degradation degradation) {
+    dropped.increment(degradation.droppedCount());
+    servedStale.increment(degradation.servedStaleCount());
+  }
+
+  private static Counter degradedCounter(String outcome, MeterRegistry meterRegistry) {
+    return Counter.builder("products.similar.degraded")
+        .description("Similar products dropped or served stale because their lookup failed")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
   }
 }
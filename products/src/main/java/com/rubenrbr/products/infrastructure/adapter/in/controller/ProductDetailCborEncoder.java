@@ -0,0 +1,84 @@
+package com.rubenrbr.products.infrastructure.adapter.in.controller;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+import com.rubenrbr.products.infrastructure.rest.mapper.ProductDetailJsonWriter;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes product details as CBOR, in the shape of their JSON, with prices as CBOR decimal fractions
+ * rather than text. A streamed array is an indefinite-length array, opened before the first product
+ * and closed after the last.
+ */
+public class ProductDetailCborEncoder extends ProductDetailEncoder {
+
+  private static final CBORFactory CBOR = new CBORFactory();
+
+  private static final byte START_INDEFINITE_ARRAY = (byte) 0x9f;
+  private static final byte BREAK = (byte) 0xff;
+
+  public ProductDetailCborEncoder() {
+    super(MediaType.APPLICATION_CBOR);
+  }
+
+  @Override
+  byte[] object(ProductDetailDto product) {
+    return ProductDetailJsonWriter.write(product, CBOR);
+  }
+
+  @Override
+  DataBuffer array(DataBufferFactory bufferFactory, List<? extends ProductDetailDto> products) {
+    try (ByteArrayBuilder out = new ByteArrayBuilder(64 * (products.size() + 1))) {
+      try (JsonGenerator cbor = CBOR.createGenerator(out)) {
+        cbor.writeStartArray(products, products.size());
+        for (ProductDetailDto product : products) {
+          ProductDetailJsonWriter.write(product, cbor);
+        }
+        cbor.writeEndArray();
+      }
+      return bufferFactory.wrap(out.toByteArray());
+    } catch (IOException e) {
+      throw new EncodingException("Could not write products as CBOR", e);
+    }
+  }
+
+  @Override
+  Flux<DataBuffer> streamedArray(
+      Flux<? extends ProductDetailDto> products, DataBufferFactory bufferFactory) {
+    // The array is opened along with the first product, so that a lookup failing before any
+    // product is known can still be answered with an error status.
+    return Flux.defer(
+        () -> {
+          AtomicBoolean first = new AtomicBoolean(true);
+          return products
+              .map(
+                  product -> {
+                    byte[] cbor = object(product);
+                    DataBuffer buffer = bufferFactory.allocateBuffer(cbor.length + 1);
+                    if (first.getAndSet(false)) {
+                      buffer.write(START_INDEFINITE_ARRAY);
+                    }
+                    return buffer.write(cbor);
+                  })
+              .concatWith(
+                  Mono.fromSupplier(
+                      () ->
+                          first.get()
+                              ? bufferFactory.wrap(new byte[] {START_INDEFINITE_ARRAY, BREAK})
+                              : bufferFactory.allocateBuffer(1).write(BREAK)));
+        });
+  }
+}
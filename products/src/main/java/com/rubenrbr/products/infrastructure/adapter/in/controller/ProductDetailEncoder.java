@@ -0,0 +1,94 @@
+package com.rubenrbr.products.infrastructure.adapter.in.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.MimeType;
+
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes product details in one of the media types of the similar-products API, without data
+ * binding: a single product for a {@link Mono}, otherwise an array written at once when every
+ * product is known, or one product at a time for {@linkplain ProductController#isStreamed streamed}
+ * requests.
+ */
+abstract class ProductDetailEncoder extends AbstractEncoder<ProductDetailDto>
+    implements HttpMessageEncoder<ProductDetailDto> {
+
+  static final String STREAMED_HINT = ProductDetailEncoder.class.getName() + ".STREAMED";
+
+  ProductDetailEncoder(MimeType... mimeTypes) {
+    super(mimeTypes);
+  }
+
+  @Override
+  public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+    return ProductDetailDto.class.isAssignableFrom(elementType.toClass())
+        && super.canEncode(elementType, mimeType);
+  }
+
+  @Override
+  public List<MediaType> getStreamingMediaTypes() {
+    return List.of();
+  }
+
+  @Override
+  public Map<String, Object> getEncodeHints(
+      ResolvableType actualType,
+      ResolvableType elementType,
+      MediaType mediaType,
+      ServerHttpRequest request,
+      ServerHttpResponse response) {
+    return Map.of(STREAMED_HINT, ProductController.isStreamed(request));
+  }
+
+  @Override
+  public Flux<DataBuffer> encode(
+      Publisher<? extends ProductDetailDto> input,
+      DataBufferFactory bufferFactory,
+      ResolvableType elementType,
+      MimeType mimeType,
+      Map<String, Object> hints) {
+    if (input instanceof Mono<? extends ProductDetailDto> product) {
+      return product.map(value -> bufferFactory.wrap(object(value))).flux();
+    }
+    if (hints != null && Boolean.TRUE.equals(hints.get(STREAMED_HINT))) {
+      return streamedArray(Flux.from(input), bufferFactory);
+    }
+    return Flux.from(input).collectList().map(products -> array(bufferFactory, products)).flux();
+  }
+
+  @Override
+  public DataBuffer encodeValue(
+      ProductDetailDto value,
+      DataBufferFactory bufferFactory,
+      ResolvableType valueType,
+      MimeType mimeType,
+      Map<String, Object> hints) {
+    return bufferFactory.wrap(object(value));
+  }
+
+  /** A single product. */
+  abstract byte[] object(ProductDetailDto product);
+
+  /** All the products, in a single buffer. */
+  abstract DataBuffer array(
+      DataBufferFactory bufferFactory, List<? extends ProductDetailDto> products);
+
+  /** The products, one buffer each as they come, plus whatever opens and closes the array. */
+  abstract Flux<DataBuffer> streamedArray(
+      Flux<? extends ProductDetailDto> products, DataBufferFactory bufferFactory);
+}
@@ -0,0 +1,115 @@
+package com.rubenrbr.products.infrastructure.adapter.in.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+import com.rubenrbr.products.infrastructure.rest.mapper.ProductDetailJsonWriter;
+import com.rubenrbr.products.infrastructure.rest.mapper.ProductResponseFragments;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes product details as JSON by splicing their prepared {@link ProductResponseFragments}
+ * between brackets and commas, falling back to {@link ProductDetailJsonWriter} for products that
+ * have none.
+ *
+ * <p>A JSON array is written as a single buffer once every product is known, or one buffer per
+ * product for {@linkplain ProductController#isStreamed streamed} requests; NDJSON is written one
+ * line per product.
+ */
+public class ProductDetailJsonEncoder extends ProductDetailEncoder {
+
+  private static final byte[] EMPTY_ARRAY = "[]".getBytes(StandardCharsets.UTF_8);
+
+  private final ProductResponseFragments fragments;
+
+  public ProductDetailJsonEncoder(ProductResponseFragments fragments) {
+    super(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON);
+    this.fragments = fragments;
+  }
+
+  @Override
+  public List<MediaType> getStreamingMediaTypes() {
+    return List.of(MediaType.APPLICATION_NDJSON);
+  }
+
+  @Override
+  public Flux<DataBuffer> encode(
+      Publisher<? extends ProductDetailDto> input,
+      DataBufferFactory bufferFactory,
+      ResolvableType elementType,
+      MimeType mimeType,
+      Map<String, Object> hints) {
+    if (!(input instanceof Mono)
+        && mimeType != null
+        && MediaType.APPLICATION_NDJSON.isCompatibleWith(mimeType)) {
+      return Flux.from(input).map(product -> lines(bufferFactory, product));
+    }
+    return super.encode(input, bufferFactory, elementType, mimeType, hints);
+  }
+
+  @Override
+  byte[] object(ProductDetailDto product) {
+    byte[] prepared = fragments.json(product);
+    return prepared != null ? prepared : ProductDetailJsonWriter.write(product);
+  }
+
+  @Override
+  DataBuffer array(DataBufferFactory bufferFactory, List<? extends ProductDetailDto> products) {
+    if (products.isEmpty()) {
+      return bufferFactory.wrap(EMPTY_ARRAY);
+    }
+    byte[][] parts = new byte[products.size()][];
+    int size = 1 + products.size();
+    for (int i = 0; i < parts.length; i++) {
+      parts[i] = object(products.get(i));
+      size += parts[i].length;
+    }
+    DataBuffer buffer = bufferFactory.allocateBuffer(size);
+    for (int i = 0; i < parts.length; i++) {
+      buffer.write(i == 0 ? (byte) '[' : (byte) ',');
+      buffer.write(parts[i]);
+    }
+    return buffer.write((byte) ']');
+  }
+
+  @Override
+  Flux<DataBuffer> streamedArray(
+      Flux<? extends ProductDetailDto> products, DataBufferFactory bufferFactory) {
+    return Flux.defer(
+        () -> {
+          AtomicBoolean first = new AtomicBoolean(true);
+          return products
+              .map(
+                  product -> {
+                    byte[] json = object(product);
+                    return bufferFactory
+                        .allocateBuffer(json.length + 1)
+                        .write(first.getAndSet(false) ? (byte) '[' : (byte) ',')
+                        .write(json);
+                  })
+              .concatWith(
+                  Mono.fromSupplier(
+                      () ->
+                          first.get()
+                              ? bufferFactory.wrap(EMPTY_ARRAY)
+                              : bufferFactory.allocateBuffer(1).write((byte) ']')));
+        });
+  }
+
+  private DataBuffer lines(DataBufferFactory bufferFactory, ProductDetailDto product) {
+    byte[] json = object(product);
+    return bufferFactory.allocateBuffer(json.length + 1).write(json).write((byte) '\n');
+  }
+}
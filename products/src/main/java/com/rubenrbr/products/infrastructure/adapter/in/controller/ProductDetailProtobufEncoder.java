@@ -0,0 +1,90 @@
+package com.rubenrbr.products.infrastructure.adapter.in.controller;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+import com.rubenrbr.products.infrastructure.rest.proto.Decimal;
+import com.rubenrbr.products.infrastructure.rest.proto.ProductDetail;
+import com.rubenrbr.products.infrastructure.rest.proto.SimilarProducts;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Writes product details as the {@code products.v1} Protobuf messages of {@code
+ * similar_products.proto}: an array is a {@code SimilarProducts} message, and a streamed array one
+ * {@code SimilarProducts} message per product, which a reader merges into a single message.
+ */
+public class ProductDetailProtobufEncoder extends ProductDetailEncoder {
+
+  public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+  public ProductDetailProtobufEncoder() {
+    super(PROTOBUF);
+  }
+
+  @Override
+  byte[] object(ProductDetailDto product) {
+    return message(product).toByteArray();
+  }
+
+  @Override
+  DataBuffer array(DataBufferFactory bufferFactory, List<? extends ProductDetailDto> products) {
+    SimilarProducts.Builder message = SimilarProducts.newBuilder();
+    for (ProductDetailDto product : products) {
+      message.addProducts(message(product));
+    }
+    SimilarProducts similarProducts = message.build();
+    DataBuffer buffer = bufferFactory.allocateBuffer(similarProducts.getSerializedSize());
+    try {
+      similarProducts.writeTo(buffer.asOutputStream());
+      return buffer;
+    } catch (IOException e) {
+      DataBufferUtils.release(buffer);
+      throw new EncodingException("Could not write products as Protobuf", e);
+    }
+  }
+
+  @Override
+  Flux<DataBuffer> streamedArray(
+      Flux<? extends ProductDetailDto> products, DataBufferFactory bufferFactory) {
+    return products.map(
+        product ->
+            bufferFactory.wrap(
+                SimilarProducts.newBuilder().addProducts(message(product)).build().toByteArray()));
+  }
+
+  static ProductDetail message(ProductDetailDto product) {
+    ProductDetail.Builder message = ProductDetail.newBuilder();
+    if (product.getId() != null) {
+      message.setId(product.getId());
+    }
+    if (product.getName() != null) {
+      message.setName(product.getName());
+    }
+    if (product.getPrice() != null) {
+      message.setPrice(decimal(product.getPrice()));
+    }
+    if (product.getAvailability() != null) {
+      message.setAvailability(product.getAvailability());
+    }
+    return message.build();
+  }
+
+  private static Decimal decimal(BigDecimal value) {
+    if (value.unscaledValue().bitLength() > 63) {
+      throw new EncodingException("Price out of Protobuf range: " + value);
+    }
+    return Decimal.newBuilder()
+        .setUnscaled(value.unscaledValue().longValue())
+        .setScale(value.scale())
+        .build();
+  }
+}
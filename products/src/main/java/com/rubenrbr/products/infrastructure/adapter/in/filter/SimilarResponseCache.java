@@ -0,0 +1,168 @@
+package com.rubenrbr.products.infrastructure.adapter.in.filter;
+
+import static com.rubenrbr.products.infrastructure.config.CacheConfig.PRODUCT_DETAIL;
+import static com.rubenrbr.products.infrastructure.config.CacheConfig.PRODUCT_DETAIL_NOT_FOUND;
+import static com.rubenrbr.products.infrastructure.config.CacheConfig.SIMILAR_IDS;
+import static com.rubenrbr.products.infrastructure.config.CacheConfig.SIMILAR_IDS_NOT_FOUND;
+import static com.rubenrbr.products.infrastructure.config.CacheConfig.SIMILAR_RESPONSE;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.rubenrbr.products.infrastructure.cache.CacheChangeNotifier;
+
+/**
+ * Serialized {@code /product/{id}/similar} bodies keyed by product id.
+ *
+ * <p>Each body is indexed by the similar ids it was built from. When one of those product details
+ * (or its not-found entry) changes or expires, every body that depends on it is dropped; a change
+ * to the product's own similar-ids entry drops its body as well. Entries evicted to make room are
+ * not changes (see {@link CacheChangeNotifier#removalListener}). Bodies are bounded and expire
+ * according to the {@code similar-response} cache settings.
+ *
+ * <p>Each body is kept with the {@code ETag} it was served with, to answer conditional requests.
+ *
+ * <p>A body is only stored if none of its own dependencies changed while it was being computed:
+ * callers take a {@link #version()} before computing and pass it back to {@link #put}, which
+ * compares it with the version at which each dependency last changed. Changes are remembered for
+ * {@link #CHANGES_KEPT_FOR}, far longer than a request may take.
+ */
+@Component
+@ConditionalOnProperty(prefix = "cache", name = "similar-response-enabled", havingValue = "true")
+public class SimilarResponseCache {
+
+  static final Duration CHANGES_KEPT_FOR = Duration.ofMinutes(5);
+
+  /**
+   * Bounds of the dependency index: a product takes at least this many bytes of a body bounded by
+   * weight, and bodies bounded by count are assumed to hold this many products.
+   */
+  static final long MIN_PRODUCT_BYTES = 32;
+
+  static final long PRODUCTS_PER_RESPONSE = 32;
+
+  private final Cache<String, Response> responses;
+  private final Cache<String, Set<String>> dependents;
+  private final AtomicLong version = new AtomicLong();
+  private final Cache<String, Long> similarIdsChanges = changes();
+  private final Cache<String, Long> productChanges = changes();
+
+  @SuppressWarnings("unchecked")
+  public SimilarResponseCache(CacheManager cacheManager, CacheChangeNotifier notifier) {
+    this.responses =
+        (Cache<String, Response>) cacheManager.getCache(SIMILAR_RESPONSE).getNativeCache();
+    // An index entry is rewritten whenever a body is added to it, so it outlives every body it
+    // points to; stale members only cause a redundant invalidation. An entry evicted to keep the
+    // index bounded takes the bodies it points to along, which could no longer be invalidated.
+    Caffeine<String, Set<String>> index =
+        Caffeine.newBuilder()
+            .evictionListener(
+                (String similarId, Set<String> productIds, RemovalCause cause) -> {
+                  if (cause == RemovalCause.SIZE && productIds != null) {
+                    responses.invalidateAll(productIds);
+                  }
+                });
+    responses
+        .policy()
+        .eviction()
+        .ifPresent(
+            e ->
+                index.maximumSize(
+                    e.isWeighted()
+                        ? e.getMaximum() / MIN_PRODUCT_BYTES
+                        : e.getMaximum() * PRODUCTS_PER_RESPONSE));
+    responses
+        .policy()
+        .expireAfterWrite()
+        .ifPresent(e -> index.expireAfterWrite(e.getExpiresAfter()));
+    this.dependents = index.build();
+    notifier.subscribe(this::onCacheChange);
+  }
+
+  public Response get(String productId) {
+    return responses.getIfPresent(productId);
+  }
+
+  public long version() {
+    return version.get();
+  }
+
+  public void put(
+      String productId, byte[] body, String eTag, List<String> similarIds, long startedAt) {
+    if (changedSince(productId, similarIds, startedAt)) {
+      return;
+    }
+    for (String similarId : similarIds) {
+      dependents
+          .asMap()
+          .compute(
+              similarId,
+              (k, productIds) -> {
+                Set<String> updated =
+                    productIds == null ? ConcurrentHashMap.newKeySet() : productIds;
+                updated.add(productId);
+                return updated;
+              });
+    }
+    responses.put(productId, new Response(body, eTag));
+    if (changedSince(productId, similarIds, startedAt)) {
+      responses.invalidate(productId);
+    }
+  }
+
+  private boolean changedSince(String productId, List<String> similarIds, long startedAt) {
+    if (changedSince(similarIdsChanges, productId, startedAt)) {
+      return true;
+    }
+    for (String similarId : similarIds) {
+      if (changedSince(productChanges, similarId, startedAt)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean changedSince(Cache<String, Long> changes, String key, long startedAt) {
+    Long changedAt = changes.getIfPresent(key);
+    return changedAt != null && changedAt > startedAt;
+  }
+
+  long dependentCount() {
+    dependents.cleanUp();
+    return dependents.estimatedSize();
+  }
+
+  /** A serialized body and its entity tag, if it had one. */
+  public record Response(byte[] body, String eTag) {}
+
+  private void onCacheChange(String cacheName, String key) {
+    switch (cacheName) {
+      case SIMILAR_IDS, SIMILAR_IDS_NOT_FOUND -> {
+        similarIdsChanges.put(key, version.incrementAndGet());
+        responses.invalidate(key);
+      }
+      case PRODUCT_DETAIL, PRODUCT_DETAIL_NOT_FOUND -> {
+        productChanges.put(key, version.incrementAndGet());
+        Set<String> productIds = dependents.asMap().remove(key);
+        if (productIds != null) {
+          responses.invalidateAll(productIds);
+        }
+      }
+      default -> {}
+    }
+  }
+
+  private static Cache<String, Long> changes() {
+    return Caffeine.newBuilder().expireAfterWrite(CHANGES_KEPT_FOR).build();
+  }
+}
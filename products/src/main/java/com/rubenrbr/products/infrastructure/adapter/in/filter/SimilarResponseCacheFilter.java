@@ -0,0 +1,126 @@
+package com.rubenrbr.products.infrastructure.adapter.in.filter;
+
+import java.util.List;
+
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.rubenrbr.products.infrastructure.adapter.in.controller.ProductController;
+import com.rubenrbr.products.infrastructure.adapter.out.ProductApiCache;
+import com.rubenrbr.products.infrastructure.config.CacheControlProperties;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Answers {@code GET /product/{id}/similar} from {@link SimilarResponseCache} when possible,
+ * writing the cached JSON bytes straight to the response. On a miss the request goes through the
+ * controller as usual and the serialized 200 body is captured into the cache, unless it is a
+ * partial response. Cached bodies are served with the {@code ETag} and {@code Cache-Control} the
+ * controller would give them, and a matching {@code If-None-Match} is answered {@code 304}.
+ * Streamed requests are left alone, since they may be partial without saying so, and so are
+ * requests accepting a binary encoding and requests with a {@code limit}, whose bodies differ from
+ * the cached one.
+ */
+@Component
+@ConditionalOnProperty(prefix = "cache", name = "similar-response-enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class SimilarResponseCacheFilter implements WebFilter {
+
+  private static final PathPattern SIMILAR_PATH =
+      PathPatternParser.defaultInstance.parse("/product/{productId}/similar");
+
+  private final SimilarResponseCache responseCache;
+  private final ProductApiCache productApiCache;
+  private final CacheControlProperties cacheControlProperties;
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    PathPattern.PathMatchInfo match =
+        SIMILAR_PATH.matchAndExtract(exchange.getRequest().getPath().pathWithinApplication());
+    if (match == null
+        || exchange.getRequest().getMethod() != HttpMethod.GET
+        || !acceptsJson(exchange)
+        || ProductController.acceptsBinary(exchange.getRequest())
+        || ProductController.isStreamed(exchange.getRequest())
+        || exchange.getRequest().getQueryParams().containsKey(ProductController.LIMIT)) {
+      return chain.filter(exchange);
+    }
+    String productId = match.getUriVariables().get("productId");
+    ServerHttpResponse response = exchange.getResponse();
+
+    SimilarResponseCache.Response cached = responseCache.get(productId);
+    if (cached != null) {
+      HttpHeaders headers = response.getHeaders();
+      if (cached.eTag() != null) {
+        headers.setCacheControl(cacheControlProperties.cacheControl());
+        headers.setVary(List.of(HttpHeaders.ACCEPT));
+        if (exchange.checkNotModified(cached.eTag())) {
+          return response.setComplete();
+        }
+      }
+      response.setStatusCode(HttpStatus.OK);
+      headers.setContentType(MediaType.APPLICATION_JSON);
+      headers.setContentLength(cached.body().length);
+      return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    long version = responseCache.version();
+    return chain.filter(
+        exchange.mutate().response(new CapturingResponse(response, productId, version)).build());
+  }
+
+  private static boolean acceptsJson(ServerWebExchange exchange) {
+    List<MediaType> accept = exchange.getRequest().getHeaders().getAccept();
+    return accept.isEmpty()
+        || accept.stream().anyMatch(type -> type.isCompatibleWith(MediaType.APPLICATION_JSON));
+  }
+
+  private final class CapturingResponse extends ServerHttpResponseDecorator {
+
+    private final String productId;
+    private final long version;
+
+    CapturingResponse(ServerHttpResponse delegate, String productId, long version) {
+      super(delegate);
+      this.productId = productId;
+      this.version = version;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+      if (getStatusCode() != null && getStatusCode() != HttpStatus.OK
+          || getHeaders().containsKey(ProductController.PARTIAL_RESPONSE)
+          || !MediaType.APPLICATION_JSON.isCompatibleWith(getHeaders().getContentType())) {
+        return super.writeWith(body);
+      }
+      return DataBufferUtils.join(Flux.from(body))
+          .flatMap(
+              joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+                List<String> similarIds = productApiCache.peekSimilarProductIds(productId);
+                if (similarIds != null) {
+                  responseCache.put(productId, bytes, getHeaders().getETag(), similarIds, version);
+                }
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+              });
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import java.time.Duration;
+
+/**
+ * Additive-increase, multiplicative-decrease limit: grows by one after a fast call that used at
+ * least half of the limit, and shrinks by {@code backoffRatio} after a dropped call or one slower
+ * than {@code slowCallThreshold}.
+ */
+public class AimdLimit implements ConcurrencyLimit {
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double backoffRatio;
+  private final long slowCallNanos;
+  private volatile int limit;
+
+  public AimdLimit(
+      int initialLimit,
+      int minLimit,
+      int maxLimit,
+      double backoffRatio,
+      Duration slowCallThreshold) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.backoffRatio = backoffRatio;
+    this.slowCallNanos = slowCallThreshold.toNanos();
+    this.limit = initialLimit;
+  }
+
+  @Override
+  public int limit() {
+    return limit;
+  }
+
+  @Override
+  public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+    if (dropped || rttNanos > slowCallNanos) {
+      limit = Math.max(minLimit, Math.min(limit - 1, (int) (limit * backoffRatio)));
+    } else if (inFlight * 2 >= limit) {
+      limit = Math.min(maxLimit, limit + 1);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+
+/**
+ * Circuit breakers of one endpoint, split by a key so that failures confined to part of the traffic
+ * only stop that part.
+ *
+ * <p>Every partition is a breaker of its own in the registry, created on first use with the
+ * configuration of the endpoint's breaker, so it shows up in the circuit breaker metrics tagged by
+ * its name: the endpoint name, followed by {@code @host} or {@code #shard}.
+ */
+public class CircuitBreakerPartitions {
+
+  /** What calls are partitioned by. */
+  public enum PartitionBy {
+    /** One breaker for the endpoint. */
+    NONE,
+    /** One breaker per upstream host. */
+    HOST,
+    /** Product ids hashed into a fixed number of shards, one breaker each. */
+    ID_SHARD
+  }
+
+  private final CircuitBreakerRegistry registry;
+  private final String name;
+  private final PartitionBy partitionBy;
+  private final int shards;
+  private final String host;
+  private final CircuitBreakerConfig config;
+
+  public CircuitBreakerPartitions(
+      CircuitBreakerRegistry registry,
+      String name,
+      PartitionBy partitionBy,
+      int shards,
+      String host) {
+    this.registry = registry;
+    this.name = name;
+    this.partitionBy = partitionBy;
+    this.shards = Math.max(1, shards);
+    this.host = host;
+    this.config = registry.circuitBreaker(name).getCircuitBreakerConfig();
+  }
+
+  /** A single breaker for the endpoint. */
+  public static CircuitBreakerPartitions unpartitioned(
+      CircuitBreakerRegistry registry, String name) {
+    return new CircuitBreakerPartitions(registry, name, PartitionBy.NONE, 1, null);
+  }
+
+  /** The breaker guarding calls for the product. */
+  public CircuitBreaker forProduct(String productId) {
+    return switch (partitionBy) {
+      case NONE -> registry.circuitBreaker(name);
+      case HOST -> forHost();
+      case ID_SHARD -> partition(name + "#" + Math.floorMod(productId.hashCode(), shards));
+    };
+  }
+
+  /** The breaker guarding calls for several products at once. */
+  public CircuitBreaker forBatch() {
+    return partitionBy == PartitionBy.HOST ? forHost() : registry.circuitBreaker(name);
+  }
+
+  private CircuitBreaker forHost() {
+    return partition(name + "@" + host);
+  }
+
+  private CircuitBreaker partition(String partitionName) {
+    return registry.circuitBreaker(partitionName, config);
+  }
+}
@@ -0,0 +1,130 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+import com.rubenrbr.products.infrastructure.cache.CacheValueCodec;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+
+/**
+ * Stores a {@link ProductDetailDto} as a single reference-free {@code byte[]}, decoded again on
+ * every read.
+ *
+ * <p>Layout: one flags byte (availability value, availability present, price present, price as
+ * text), then id and name as length-prefixed UTF-8, then the price as a scale byte plus a zig-zag
+ * varint unscaled value. Prices whose unscaled value or scale do not fit are kept as text.
+ */
+public class CompactProductDetailCodec implements CacheValueCodec<ProductDetailDto> {
+
+  private static final int AVAILABLE = 1;
+  private static final int AVAILABILITY_PRESENT = 1 << 1;
+  private static final int PRICE_PRESENT = 1 << 2;
+  private static final int PRICE_AS_TEXT = 1 << 3;
+
+  @Override
+  public Object encode(ProductDetailDto product) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+    BigDecimal price = product.getPrice();
+    boolean priceAsText = price != null && !fitsFixedPoint(price);
+    int flags = 0;
+    if (product.getAvailability() != null) {
+      flags |= AVAILABILITY_PRESENT | (product.getAvailability() ? AVAILABLE : 0);
+    }
+    if (price != null) {
+      flags |= PRICE_PRESENT | (priceAsText ? PRICE_AS_TEXT : 0);
+    }
+    out.write(flags);
+    writeString(out, product.getId());
+    writeString(out, product.getName());
+    if (priceAsText) {
+      writeString(out, price.toString());
+    } else if (price != null) {
+      long unscaled = price.unscaledValue().longValueExact();
+      out.write(price.scale());
+      writeVarLong(out, (unscaled << 1) ^ (unscaled >> 63));
+    }
+    return out.toByteArray();
+  }
+
+  @Override
+  public ProductDetailDto decode(Object stored) {
+    Reader in = new Reader((byte[]) stored);
+    int flags = in.readByte();
+    String id = in.readString();
+    String name = in.readString();
+    BigDecimal price = null;
+    if ((flags & PRICE_AS_TEXT) != 0) {
+      price = new BigDecimal(in.readString());
+    } else if ((flags & PRICE_PRESENT) != 0) {
+      int scale = (byte) in.readByte();
+      long zigZag = in.readVarLong();
+      price = BigDecimal.valueOf((zigZag >>> 1) ^ -(zigZag & 1), scale);
+    }
+    Boolean availability = (flags & AVAILABILITY_PRESENT) != 0 ? (flags & AVAILABLE) != 0 : null;
+    return new ProductDetailDto(id, name, price, availability);
+  }
+
+  private static boolean fitsFixedPoint(BigDecimal price) {
+    BigInteger unscaled = price.unscaledValue();
+    return unscaled.bitLength() < Long.SIZE
+        && price.scale() >= Byte.MIN_VALUE
+        && price.scale() <= Byte.MAX_VALUE;
+  }
+
+  /** Length is written as {@code length + 1} so that 0 can stand for {@code null}. */
+  private static void writeString(ByteArrayOutputStream out, String value) {
+    if (value == null) {
+      writeVarLong(out, 0);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarLong(out, bytes.length + 1L);
+    out.write(bytes, 0, bytes.length);
+  }
+
+  private static void writeVarLong(ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  private static final class Reader {
+
+    private final byte[] bytes;
+    private int position;
+
+    Reader(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    int readByte() {
+      return bytes[position++] & 0xFF;
+    }
+
+    long readVarLong() {
+      long value = 0;
+      int shift = 0;
+      int b;
+      do {
+        b = readByte();
+        value |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      return value;
+    }
+
+    String readString() {
+      int length = (int) readVarLong() - 1;
+      if (length < 0) {
+        return null;
+      }
+      String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+      position += length;
+      return value;
+    }
+  }
+}
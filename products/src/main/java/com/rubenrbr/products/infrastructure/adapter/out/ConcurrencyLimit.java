@@ -0,0 +1,31 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+/**
+ * How many calls an {@link UpstreamBulkhead} lets run at once, possibly adapted to the latency and
+ * failures of the calls it lets through.
+ */
+public interface ConcurrencyLimit {
+
+  int limit();
+
+  /**
+   * Observes a finished call.
+   *
+   * @param rttNanos time from the call being let through to its outcome
+   * @param inFlight calls running, this one included, when it was let through
+   * @param dropped whether the call failed in a way that signals overload
+   */
+  void onSample(long rttNanos, int inFlight, boolean dropped);
+
+  static ConcurrencyLimit fixed(int limit) {
+    return new ConcurrencyLimit() {
+      @Override
+      public int limit() {
+        return limit;
+      }
+
+      @Override
+      public void onSample(long rttNanos, int inFlight, boolean dropped) {}
+    };
+  }
+}
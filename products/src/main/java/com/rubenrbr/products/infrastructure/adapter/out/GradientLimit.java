@@ -0,0 +1,69 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+/**
+ * Latency-gradient limit: compares the recent round-trip time with a slow-moving baseline and
+ * shrinks the limit in proportion when calls get slower, and grows it by about the square root of
+ * the limit while they do not.
+ *
+ * <p>The gradient is {@code tolerance * baseline / recent}, clamped to [0.5, 1]: with a tolerance
+ * of 2 the limit only shrinks once calls take twice as long as usual. The limit does not grow while
+ * less than half of it is used, and a dropped call shrinks it by {@code backoffRatio}. Changes are
+ * smoothed, each sample moving the limit by {@value #SMOOTHING} of the way to the new estimate.
+ */
+public class GradientLimit implements ConcurrencyLimit {
+
+  private static final double SMOOTHING = 0.2;
+  private static final double RECENT_WEIGHT = 2.0 / (10 + 1);
+  private static final double BASELINE_WEIGHT = 2.0 / (600 + 1);
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double tolerance;
+  private final double backoffRatio;
+  private double estimate;
+  private double recentRtt;
+  private double baselineRtt;
+  private volatile int limit;
+
+  public GradientLimit(
+      int initialLimit, int minLimit, int maxLimit, double tolerance, double backoffRatio) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.tolerance = tolerance;
+    this.backoffRatio = backoffRatio;
+    this.estimate = initialLimit;
+    this.limit = initialLimit;
+  }
+
+  @Override
+  public int limit() {
+    return limit;
+  }
+
+  @Override
+  public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+    if (dropped) {
+      estimate = Math.max(minLimit, estimate * backoffRatio);
+      limit = (int) estimate;
+      return;
+    }
+    if (baselineRtt == 0) {
+      baselineRtt = rttNanos;
+      recentRtt = rttNanos;
+    }
+    recentRtt += (rttNanos - recentRtt) * RECENT_WEIGHT;
+    baselineRtt += (rttNanos - baselineRtt) * BASELINE_WEIGHT;
+    if (baselineRtt > recentRtt * 2) {
+      // Calls got much faster: let the baseline catch up instead of growing without bound.
+      baselineRtt = recentRtt * 2;
+    }
+    if (inFlight * 2 < estimate) {
+      return;
+    }
+    double gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineRtt / recentRtt));
+    double target = estimate * gradient + Math.sqrt(estimate);
+    estimate = estimate * (1 - SMOOTHING) + target * SMOOTHING;
+    estimate = Math.max(minLimit, Math.min(maxLimit, estimate));
+    limit = (int) estimate;
+  }
+}
@@ -0,0 +1,242 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import static com.rubenrbr.products.infrastructure.config.CacheConfig.PRODUCT_DETAIL;
+import static com.rubenrbr.products.infrastructure.config.CacheConfig.SIMILAR_IDS;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.rubenrbr.products.domain.model.ProductDetail;
+import com.rubenrbr.products.infrastructure.cache.CacheChangeNotifier;
+import com.rubenrbr.products.infrastructure.cache.CacheEntry;
+import com.rubenrbr.products.infrastructure.cache.CacheSnapshots;
+import com.rubenrbr.products.infrastructure.cache.CacheStatistics;
+import com.rubenrbr.products.infrastructure.cache.CacheValueCodec;
+import com.rubenrbr.products.infrastructure.cache.RevalidatingCache;
+import com.rubenrbr.products.infrastructure.cache.SharedCache;
+import com.rubenrbr.products.infrastructure.cache.SharedTier;
+import com.rubenrbr.products.infrastructure.config.CacheProperties;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+import com.rubenrbr.products.infrastructure.rest.mapper.ProductDetailJsonWriter;
+import com.rubenrbr.products.infrastructure.rest.mapper.ProductResponseFragments;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Caching front of {@link ProductExistingApiClient}. It sits outside the client's circuit breakers
+ * and retries, so cached and stale values are still served while the upstream API is failing.
+ * Product details missing from the cache are loaded through the {@link ProductDetailBatcher}.
+ *
+ * <p>With {@code objects} storage, each product detail is held together with its domain form, its
+ * response JSON and the hash of that JSON, built once when it is cached, so that serving it needs
+ * no mapping, serialization or hashing ({@link ProductResponseFragments}).
+ *
+ * <p>When a {@link SharedCache} is configured, the product caches become the first level in front
+ * of it, and the product details of a similar-ids list are fetched from it in one round trip before
+ * the list is returned for the fan-out.
+ */
+@Component
+public class ProductApiCache implements ProductResponseFragments {
+
+  /** Binary forms used outside the process: in the shared cache and in snapshots. */
+  private static final CacheValueCodec<ProductDetailDto> DETAIL_BYTES =
+      new CompactProductDetailCodec();
+
+  private static final CacheValueCodec<List<String>> IDS_BYTES = new StringListCodec();
+
+  private final ProductMapper productMapper;
+  private final CacheManager cacheManager;
+  private final CacheProperties properties;
+  private final CacheChangeNotifier notifier;
+  private final SharedCache sharedCache;
+  private final CacheStatistics statistics;
+  private final DistributionSummary fanOut;
+  private final RevalidatingCache<ProductDetailDto> productDetails;
+  private final RevalidatingCache<List<String>> similarIds;
+
+  public ProductApiCache(
+      ProductExistingApiClient client,
+      ProductDetailBatcher productDetailBatcher,
+      ProductMapper productMapper,
+      CacheManager cacheManager,
+      CacheProperties properties,
+      CacheChangeNotifier notifier,
+      ObjectProvider<SharedCache> sharedCache,
+      CacheStatistics statistics,
+      MeterRegistry meterRegistry) {
+    this.productMapper = productMapper;
+    this.cacheManager = cacheManager;
+    this.properties = properties;
+    this.notifier = notifier;
+    this.sharedCache = sharedCache.getIfAvailable();
+    this.statistics = statistics;
+    this.fanOut =
+        DistributionSummary.builder("products.similar.fanout")
+            .description("Number of product details requested per similar-products lookup")
+            .baseUnit("products")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.productDetails =
+        revalidating(
+            PRODUCT_DETAIL,
+            productDetailBatcher::load,
+            properties.spec(PRODUCT_DETAIL).storage() == CacheProperties.Storage.COMPACT
+                ? new CompactProductDetailCodec()
+                : new PreparingCodec(),
+            DETAIL_BYTES);
+    this.similarIds =
+        revalidating(
+            SIMILAR_IDS, client::getSimilarProductIds, CacheValueCodec.identity(), IDS_BYTES);
+  }
+
+  public Mono<ProductDetailDto> getProductDetail(String productId) {
+    return productDetails.get(productId);
+  }
+
+  public Mono<List<String>> getSimilarProductIds(String productId) {
+    return similarIds
+        .get(productId)
+        .doOnNext(ids -> fanOut.record(ids.size()))
+        .flatMap(ids -> productDetails.prefetch(ids).thenReturn(ids));
+  }
+
+  /** Cached product detail, however old, or {@code null}; never triggers a load. */
+  public ProductDetailDto peekProductDetail(String productId) {
+    return productDetails.peek(productId);
+  }
+
+  /**
+   * The domain form prepared along with this very product detail instance when it was cached, or
+   * {@code null}.
+   */
+  public ProductDetail peekProduct(ProductDetailDto detail) {
+    PreparedProductDetail prepared = peekPrepared(detail.getId());
+    return prepared != null && prepared.dto() == detail ? prepared.product() : null;
+  }
+
+  @Override
+  public ProductDetailDto response(ProductDetail product) {
+    PreparedProductDetail prepared = peekPrepared(product.id());
+    return prepared != null && prepared.product() == product ? prepared.dto() : null;
+  }
+
+  @Override
+  public byte[] json(ProductDetailDto response) {
+    PreparedProductDetail prepared = peekPrepared(response.getId());
+    return prepared != null && prepared.dto() == response ? prepared.json() : null;
+  }
+
+  @Override
+  public long contentHash(ProductDetailDto response) {
+    PreparedProductDetail prepared = peekPrepared(response.getId());
+    return prepared != null && prepared.dto() == response
+        ? prepared.hash()
+        : ProductResponseFragments.super.contentHash(response);
+  }
+
+  private PreparedProductDetail peekPrepared(String productId) {
+    return productId != null
+            && productDetails.peekEncoded(productId) instanceof PreparedProductDetail prepared
+        ? prepared
+        : null;
+  }
+
+  /** Cached similar ids for the product, or {@code null}; never triggers a load. */
+  public List<String> peekSimilarProductIds(String productId) {
+    return similarIds.peek(productId);
+  }
+
+  /** Writes one snapshot file per cache into the directory. */
+  public void writeSnapshots(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    CacheSnapshots.write(snapshotFile(directory, PRODUCT_DETAIL), productDetails, DETAIL_BYTES);
+    CacheSnapshots.write(snapshotFile(directory, SIMILAR_IDS), similarIds, IDS_BYTES);
+  }
+
+  /** Restores the snapshot entries written at or after {@code oldestWrittenAt}. */
+  public void restoreSnapshots(Path directory, long oldestWrittenAt) throws IOException {
+    CacheSnapshots.restore(
+        snapshotFile(directory, PRODUCT_DETAIL), productDetails, DETAIL_BYTES, oldestWrittenAt);
+    CacheSnapshots.restore(
+        snapshotFile(directory, SIMILAR_IDS), similarIds, IDS_BYTES, oldestWrittenAt);
+  }
+
+  private static Path snapshotFile(Path directory, String cacheName) {
+    return directory.resolve(cacheName + ".snapshot");
+  }
+
+  @SuppressWarnings("unchecked")
+  private <V> RevalidatingCache<V> revalidating(
+      String name,
+      Function<String, Mono<V>> loader,
+      CacheValueCodec<V> codec,
+      CacheValueCodec<V> sharedCodec) {
+    Cache<String, CacheEntry<Object>> cache =
+        (Cache<String, CacheEntry<Object>>) cacheManager.getCache(name).getNativeCache();
+    CacheProperties.Spec spec = properties.spec(name);
+    SharedTier<V> shared =
+        sharedCache == null
+            ? null
+            : new SharedTier<>(sharedCache, name, sharedCodec, spec.retention());
+    return new RevalidatingCache<>(
+        cache,
+        statistics.timed(name, loader),
+        codec,
+        spec.refreshAfterWrite(),
+        spec.expireAfterWrite(),
+        Clock.systemUTC(),
+        key -> notifier.changed(name, key),
+        shared);
+  }
+
+  /**
+   * A product detail with its domain form, response JSON and the hash of that JSON. Equal to
+   * another when the product detail is, so that reloading an unchanged product is not reported as a
+   * change.
+   */
+  private record PreparedProductDetail(
+      ProductDetailDto dto, ProductDetail product, byte[] json, long hash) {
+
+    PreparedProductDetail(ProductDetailDto dto, ProductDetail product, byte[] json) {
+      this(dto, product, json, ProductResponseFragments.hash(json));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof PreparedProductDetail prepared && dto.equals(prepared.dto);
+    }
+
+    @Override
+    public int hashCode() {
+      return dto.hashCode();
+    }
+  }
+
+  /** Prepares product details as they are cached, and serves the cached instance as is. */
+  private final class PreparingCodec implements CacheValueCodec<ProductDetailDto> {
+
+    @Override
+    public Object encode(ProductDetailDto detail) {
+      return new PreparedProductDetail(
+          detail,
+          productMapper.productDetailDtoToProductDetail(detail),
+          ProductDetailJsonWriter.write(detail));
+    }
+
+    @Override
+    public ProductDetailDto decode(Object stored) {
+      return ((PreparedProductDetail) stored).dto();
+    }
+  }
+}
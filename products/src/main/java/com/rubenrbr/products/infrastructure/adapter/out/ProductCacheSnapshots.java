@@ -0,0 +1,85 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.rubenrbr.products.infrastructure.config.CacheSnapshotProperties;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Restores the product caches from disk on startup and snapshots them periodically and on shutdown.
+ *
+ * <p>It runs in the phase before the web server, so the restore completes before the server starts
+ * accepting requests, and the final snapshot is taken after it has stopped.
+ */
+@Component
+@ConditionalOnProperty(prefix = "cache.snapshot", name = "enabled", havingValue = "true")
+public class ProductCacheSnapshots implements SmartLifecycle {
+
+  private final ProductApiCache productApiCache;
+  private final CacheSnapshotProperties properties;
+  private final Clock clock;
+  private volatile Disposable schedule;
+
+  public ProductCacheSnapshots(
+      ProductApiCache productApiCache, CacheSnapshotProperties properties) {
+    this(productApiCache, properties, Clock.systemUTC());
+  }
+
+  ProductCacheSnapshots(
+      ProductApiCache productApiCache, CacheSnapshotProperties properties, Clock clock) {
+    this.productApiCache = productApiCache;
+    this.properties = properties;
+    this.clock = clock;
+  }
+
+  @Override
+  public void start() {
+    try {
+      productApiCache.restoreSnapshots(
+          properties.directory(), clock.millis() - properties.maxStaleness().toMillis());
+    } catch (IOException e) {
+      // An unreadable snapshot only means a cold start.
+    }
+    schedule =
+        Flux.interval(properties.interval(), properties.interval(), Schedulers.boundedElastic())
+            .subscribe(tick -> snapshot());
+  }
+
+  @Override
+  public void stop() {
+    Disposable current = schedule;
+    if (current != null) {
+      current.dispose();
+      schedule = null;
+      snapshot();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return schedule != null;
+  }
+
+  @Override
+  public int getPhase() {
+    // The reactive web server starts and stops in phase DEFAULT_PHASE - 2048.
+    return DEFAULT_PHASE - 4096;
+  }
+
+  void snapshot() {
+    try {
+      productApiCache.writeSnapshots(properties.directory());
+    } catch (IOException | UncheckedIOException e) {
+      // Keep the previous snapshot; the next attempt may succeed.
+    }
+  }
+}
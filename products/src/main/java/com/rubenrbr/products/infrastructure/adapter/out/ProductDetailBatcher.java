@@ -0,0 +1,151 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.rubenrbr.products.domain.exception.ExternalApiException;
+import com.rubenrbr.products.domain.exception.ProductNotFoundException;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Micro-batching of product-detail lookups across requests, in the manner of a DataLoader.
+ *
+ * <p>Lookups are collected for {@code window} after the first one, or until {@code maxBatchSize}
+ * distinct ids are waiting, and then dispatched together; lookups of an id already waiting share
+ * its result. With a batch call, a batch is one upstream call, and ids missing from its result fail
+ * with {@link ProductNotFoundException}; without one, each id of the batch is looked up on its own,
+ * all at once.
+ *
+ * <p>Dispatched lookups run without the caller's context: a batch serves several requests, so no
+ * single request's deadline cuts it short. Callers bound their own wait, and each dispatched call
+ * is cut after {@code timeout}, failing its ids with {@link ExternalApiException}.
+ */
+public class ProductDetailBatcher {
+
+  private final boolean enabled;
+  private final Function<String, Mono<ProductDetailDto>> singleCall;
+  private final Function<List<String>, Mono<Map<String, ProductDetailDto>>> batchCall;
+  private final Duration window;
+  private final int maxBatchSize;
+  private final Duration timeout;
+  private Map<String, Sinks.One<ProductDetailDto>> waiting = new LinkedHashMap<>();
+  private Disposable windowTimer;
+  private long batchNumber;
+
+  /**
+   * @param batchCall looks up several ids in one call, returning those found by id; {@code null} if
+   *     the upstream has no batch endpoint
+   */
+  public ProductDetailBatcher(
+      boolean enabled,
+      Function<String, Mono<ProductDetailDto>> singleCall,
+      Function<List<String>, Mono<Map<String, ProductDetailDto>>> batchCall,
+      Duration window,
+      int maxBatchSize,
+      Duration timeout) {
+    this.enabled = enabled;
+    this.singleCall = singleCall;
+    this.batchCall = batchCall;
+    this.window = window;
+    this.maxBatchSize = maxBatchSize;
+    this.timeout = timeout;
+  }
+
+  /** A batcher that looks every id up at once, on its own. */
+  public static ProductDetailBatcher disabled(Function<String, Mono<ProductDetailDto>> singleCall) {
+    return new ProductDetailBatcher(false, singleCall, null, Duration.ZERO, 1, null);
+  }
+
+  public Mono<ProductDetailDto> load(String productId) {
+    if (!enabled) {
+      return singleCall.apply(productId);
+    }
+    return Mono.defer(
+        () -> {
+          Sinks.One<ProductDetailDto> sink;
+          Map<String, Sinks.One<ProductDetailDto>> full = null;
+          synchronized (this) {
+            boolean first = waiting.isEmpty();
+            sink = waiting.computeIfAbsent(productId, id -> Sinks.one());
+            if (waiting.size() >= maxBatchSize) {
+              full = takeWaiting();
+            } else if (first) {
+              long batch = batchNumber;
+              windowTimer = Mono.delay(window).subscribe(tick -> flush(batch));
+            }
+          }
+          if (full != null) {
+            dispatch(full);
+          }
+          return sink.asMono();
+        });
+  }
+
+  /**
+   * Dispatches the batch whose window ended, unless it was already dispatched when it filled up; a
+   * timer that fires as it is disposed must not cut the window of the next batch short.
+   */
+  private void flush(long batch) {
+    Map<String, Sinks.One<ProductDetailDto>> waitingBatch;
+    synchronized (this) {
+      if (batch != batchNumber) {
+        return;
+      }
+      waitingBatch = takeWaiting();
+    }
+    if (!waitingBatch.isEmpty()) {
+      dispatch(waitingBatch);
+    }
+  }
+
+  private Map<String, Sinks.One<ProductDetailDto>> takeWaiting() {
+    if (windowTimer != null) {
+      windowTimer.dispose();
+      windowTimer = null;
+    }
+    batchNumber++;
+    Map<String, Sinks.One<ProductDetailDto>> batch = waiting;
+    waiting = new LinkedHashMap<>();
+    return batch;
+  }
+
+  private void dispatch(Map<String, Sinks.One<ProductDetailDto>> batch) {
+    if (batchCall == null) {
+      batch.forEach(
+          (id, sink) ->
+              singleCall
+                  .apply(id)
+                  .timeout(timeout, Mono.error(ExternalApiException::new))
+                  .subscribe(sink::tryEmitValue, sink::tryEmitError, sink::tryEmitEmpty));
+      return;
+    }
+    batchCall
+        .apply(new ArrayList<>(batch.keySet()))
+        .timeout(timeout, Mono.error(ExternalApiException::new))
+        .defaultIfEmpty(Map.of())
+        .subscribe(
+            found ->
+                batch.forEach(
+                    (id, sink) -> {
+                      ProductDetailDto detail = found.get(id);
+                      if (detail == null) {
+                        sink.tryEmitError(new ProductNotFoundException(id));
+                      } else {
+                        sink.tryEmitValue(detail);
+                      }
+                    }),
+            error -> batch.values().forEach(sink -> sink.tryEmitError(error)));
+  }
+
+  synchronized int waitingCount() {
+    return waiting.size();
+  }
+}
@@ -0,0 +1,204 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractDecoder;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Decodes a product-detail response as it arrives, with Jackson's non-blocking parser.
+ *
+ * <p>Each buffer of the body is fed to the parser and released once its tokens are read, so the
+ * body is never joined into one buffer, and the fields are read straight into a {@link
+ * ProductDetailDto} without a bean deserializer or a tree. Unknown fields are skipped. As with the
+ * default JSON decoder, an id given as a number is read as text, a price or availability given as a
+ * string is converted, and an empty body decodes to nothing.
+ */
+public class ProductDetailJsonDecoder extends AbstractDecoder<ProductDetailDto> {
+
+  /** Same limit as the default codecs' {@code maxInMemorySize}. */
+  private static final int MAX_BODY_SIZE = 256 * 1024;
+
+  private final JsonFactory jsonFactory;
+
+  public ProductDetailJsonDecoder(JsonFactory jsonFactory) {
+    super(MediaType.APPLICATION_JSON);
+    this.jsonFactory = jsonFactory;
+  }
+
+  @Override
+  public boolean canDecode(ResolvableType elementType, MimeType mimeType) {
+    return elementType.toClass() == ProductDetailDto.class
+        && super.canDecode(elementType, mimeType);
+  }
+
+  @Override
+  public Flux<ProductDetailDto> decode(
+      Publisher<DataBuffer> input,
+      ResolvableType elementType,
+      MimeType mimeType,
+      Map<String, Object> hints) {
+    return Flux.from(decodeToMono(input, elementType, mimeType, hints));
+  }
+
+  @Override
+  public Mono<ProductDetailDto> decodeToMono(
+      Publisher<DataBuffer> input,
+      ResolvableType elementType,
+      MimeType mimeType,
+      Map<String, Object> hints) {
+    return Mono.using(
+        () -> new Reader(jsonFactory.createNonBlockingByteBufferParser()),
+        reader ->
+            Flux.from(input)
+                .doOnNext(
+                    buffer -> {
+                      try {
+                        reader.feed(buffer);
+                      } finally {
+                        DataBufferUtils.release(buffer);
+                      }
+                    })
+                .then(Mono.fromCallable(reader::finish)),
+        Reader::close);
+  }
+
+  /** Reads the fields of one product from the tokens of a single top-level object. */
+  private static final class Reader {
+
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+    private final ProductDetailDto product = new ProductDetailDto();
+    private int size;
+    private int depth;
+    private boolean started;
+    private boolean finished;
+    private String field;
+
+    Reader(JsonParser parser) {
+      this.parser = parser;
+      this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    void feed(DataBuffer buffer) {
+      size += buffer.readableByteCount();
+      if (size > MAX_BODY_SIZE) {
+        throw new DataBufferLimitException(
+            "Exceeded limit on max bytes to buffer : " + MAX_BODY_SIZE);
+      }
+      try (DataBuffer.ByteBufferIterator buffers = buffer.readableByteBuffers()) {
+        while (buffers.hasNext()) {
+          ByteBuffer bytes = buffers.next();
+          if (bytes.hasRemaining()) {
+            feeder.feedInput(bytes);
+            readAvailableTokens();
+          }
+        }
+      } catch (IOException ex) {
+        throw new DecodingException("JSON decoding error: " + ex.getMessage(), ex);
+      }
+    }
+
+    ProductDetailDto finish() {
+      feeder.endOfInput();
+      try {
+        readAvailableTokens();
+      } catch (IOException ex) {
+        throw new DecodingException("JSON decoding error: " + ex.getMessage(), ex);
+      }
+      if (!started) {
+        return null;
+      }
+      if (!finished) {
+        throw new DecodingException("JSON decoding error: unexpected end of product object");
+      }
+      return product;
+    }
+
+    void close() {
+      try {
+        parser.close();
+      } catch (IOException ex) {
+        // Nothing is held beyond the buffers already released.
+      }
+    }
+
+    private void readAvailableTokens() throws IOException {
+      JsonToken token;
+      while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+        read(token);
+      }
+    }
+
+    private void read(JsonToken token) throws IOException {
+      if (finished) {
+        throw new DecodingException("JSON decoding error: content after the product object");
+      }
+      if (!started) {
+        if (token != JsonToken.START_OBJECT) {
+          throw new DecodingException("JSON decoding error: expected a product object");
+        }
+        started = true;
+        depth = 1;
+        return;
+      }
+      if (token.isStructStart()) {
+        depth++;
+        return;
+      }
+      if (token.isStructEnd()) {
+        finished = --depth == 0;
+        return;
+      }
+      if (depth != 1) {
+        return;
+      }
+      if (token == JsonToken.FIELD_NAME) {
+        field = parser.currentName();
+        return;
+      }
+      if (token != JsonToken.VALUE_NULL) {
+        readValue(token);
+      }
+    }
+
+    private void readValue(JsonToken token) throws IOException {
+      try {
+        setField(token);
+      } catch (NumberFormatException ex) {
+        throw new DecodingException("JSON decoding error: invalid " + field, ex);
+      }
+    }
+
+    private void setField(JsonToken token) throws IOException {
+      switch (field) {
+        case "id" -> product.setId(parser.getText());
+        case "name" -> product.setName(parser.getText());
+        case "price" -> product.setPrice(
+            token.isNumeric() ? parser.getDecimalValue() : new BigDecimal(parser.getText()));
+        case "availability" -> product.setAvailability(
+            token.isBoolean() ? parser.getBooleanValue() : Boolean.valueOf(parser.getText()));
+        default -> {}
+      }
+    }
+  }
+}
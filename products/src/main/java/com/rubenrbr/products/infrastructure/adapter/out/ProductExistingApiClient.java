@@ -2,20 +2,26 @@ package com.rubenrbr.products.infrastructure.adapter.out;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.rubenrbr.products.domain.exception.DeadlineExceededException;
 import com.rubenrbr.products.domain.exception.ExternalApiException;
 import com.rubenrbr.products.domain.exception.ProductNotFoundException;
+import com.rubenrbr.products.domain.exception.UpstreamOverloadedException;
+import com.rubenrbr.products.domain.exception.UpstreamUnavailableException;
+import com.rubenrbr.products.domain.model.Deadline;
 import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
 
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
-import io.github.resilience4j.retry.annotation.Retry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
 import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Mono;
 
@@ -24,12 +30,26 @@ import reactor.core.publisher.Mono;
 public class ProductExistingApiClient {
 
   private final WebClient webClient;
+  private final ProductNotFoundCache notFoundCache;
+  private final RequestHedger productDetailHedger;
+  private final UpstreamBulkhead upstreamBulkhead;
+  private final UpstreamBulkhead similarIdsLimiter;
+  private final UpstreamBulkhead productDetailLimiter;
+  private final UpstreamRetry similarIdsRetry;
+  private final UpstreamRetry productDetailRetry;
+  private final CircuitBreakerPartitions productDetailBreakers;
 
-  @Cacheable(value = "similar-ids", key = "#productId")
   @CircuitBreaker(name = "product-similar-ids", fallbackMethod = "getSimilarProductIdsFallback")
-  @Retry(name = "product-similar-ids")
-  @RateLimiter(name = "product-similar-ids")
   public Mono<List<String>> getSimilarProductIds(String productId) {
+    return notFoundCache.guardSimilarIds(
+        productId,
+        Deadline.bound(
+            similarIdsRetry.execute(
+                similarIdsLimiter.execute(
+                    upstreamBulkhead.execute(fetchSimilarProductIds(productId))))));
+  }
+
+  private Mono<List<String>> fetchSimilarProductIds(String productId) {
     return webClient
         .get()
         .uri("/{productId}/similarids", productId)
@@ -45,17 +65,25 @@ public class ProductExistingApiClient {
 
   @SuppressWarnings("unused")
   private Mono<List<String>> getSimilarProductIdsFallback(String productId, Throwable ex) {
-    if (ex instanceof ProductNotFoundException) {
-      return Mono.error(ex);
-    }
-    return Mono.error(new ExternalApiException());
+    return Mono.error(fallbackError(ex));
   }
 
-  @Cacheable(value = "product-detail", key = "#productId")
-  @CircuitBreaker(name = "product-detail", fallbackMethod = "getProductDetailFallback")
-  @Retry(name = "product-detail")
-  @RateLimiter(name = "product-detail")
+  /** Guarded by the product's partition of the product-detail circuit breaker. */
   public Mono<ProductDetailDto> getProductDetail(String productId) {
+    return notFoundCache
+        .guardProductDetail(
+            productId,
+            Deadline.bound(
+                productDetailRetry.execute(
+                    productDetailHedger.execute(
+                        () ->
+                            productDetailLimiter.execute(
+                                upstreamBulkhead.execute(fetchProductDetail(productId)))))))
+        .transformDeferred(CircuitBreakerOperator.of(productDetailBreakers.forProduct(productId)))
+        .onErrorMap(ProductExistingApiClient::fallbackError);
+  }
+
+  private Mono<ProductDetailDto> fetchProductDetail(String productId) {
     return webClient
         .get()
         .uri("/{productId}", productId)
@@ -68,11 +96,64 @@ public class ProductExistingApiClient {
         .bodyToMono(ProductDetailDto.class);
   }
 
-  @SuppressWarnings("unused")
-  private Mono<ProductDetailDto> getProductDetailFallback(String productId, Throwable ex) {
-    if (ex instanceof ProductNotFoundException) {
-      return Mono.error(ex);
+  /**
+   * Looks several products up in one call to the batch endpoint at {@code batchPath}, returning
+   * those found by id. Ids missing from the response are not found, and remembered as such; ids
+   * already known to be missing are not asked for.
+   */
+  public Mono<Map<String, ProductDetailDto>> getProductDetails(
+      String batchPath, List<String> productIds) {
+    List<String> unknown =
+        productIds.stream().filter(id -> !notFoundCache.isProductDetailNotFound(id)).toList();
+    if (unknown.isEmpty()) {
+      return Mono.just(Map.of());
+    }
+    return productDetailRetry
+        .execute(
+            productDetailLimiter.execute(
+                upstreamBulkhead.execute(fetchProductDetails(batchPath, unknown))))
+        .transformDeferred(CircuitBreakerOperator.of(productDetailBreakers.forBatch()))
+        .onErrorMap(ProductExistingApiClient::fallbackError)
+        .map(
+            details ->
+                details.stream()
+                    .collect(
+                        Collectors.toMap(
+                            ProductDetailDto::getId, Function.identity(), (a, b) -> a)))
+        .doOnNext(
+            found ->
+                unknown.stream()
+                    .filter(id -> !found.containsKey(id))
+                    .forEach(notFoundCache::productDetailNotFound));
+  }
+
+  private Mono<List<ProductDetailDto>> fetchProductDetails(
+      String batchPath, List<String> productIds) {
+    return webClient
+        .get()
+        .uri(
+            builder ->
+                builder.path(batchPath).queryParam("ids", String.join(",", productIds)).build())
+        .retrieve()
+        .onStatus(
+            HttpStatusCode::is5xxServerError, response -> Mono.error(new ExternalApiException()))
+        .bodyToMono(new ParameterizedTypeReference<List<ProductDetailDto>>() {})
+        .defaultIfEmpty(Collections.emptyList());
+  }
+
+  /**
+   * Failures that callers handle themselves are passed on; an open circuit is reported as the
+   * upstream being unavailable, so callers can fall back to stale data without waiting.
+   */
+  private static Throwable fallbackError(Throwable ex) {
+    if (ex instanceof ProductNotFoundException
+        || ex instanceof DeadlineExceededException
+        || ex instanceof UpstreamOverloadedException) {
+      return ex;
+    }
+    if (ex instanceof CallNotPermittedException) {
+      return new UpstreamUnavailableException();
     }
-    return Mono.error(new ExternalApiException());
+    return new ExternalApiException();
   }
 }
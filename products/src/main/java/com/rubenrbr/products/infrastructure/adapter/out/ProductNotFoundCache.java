@@ -0,0 +1,66 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import static com.rubenrbr.products.infrastructure.config.CacheConfig.PRODUCT_DETAIL_NOT_FOUND;
+import static com.rubenrbr.products.infrastructure.config.CacheConfig.SIMILAR_IDS_NOT_FOUND;
+
+import java.util.Objects;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import com.rubenrbr.products.domain.exception.ProductNotFoundException;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Negative cache for upstream 404s. Product ids the external API reported as missing fail fast with
+ * {@link ProductNotFoundException} until their entry expires or is invalidated.
+ */
+@Component
+public class ProductNotFoundCache {
+
+  private final Cache productDetailNotFound;
+  private final Cache similarIdsNotFound;
+
+  public ProductNotFoundCache(CacheManager cacheManager) {
+    this.productDetailNotFound =
+        Objects.requireNonNull(cacheManager.getCache(PRODUCT_DETAIL_NOT_FOUND));
+    this.similarIdsNotFound = Objects.requireNonNull(cacheManager.getCache(SIMILAR_IDS_NOT_FOUND));
+  }
+
+  public <T> Mono<T> guardProductDetail(String productId, Mono<T> call) {
+    return guard(productDetailNotFound, productId, call);
+  }
+
+  public <T> Mono<T> guardSimilarIds(String productId, Mono<T> call) {
+    return guard(similarIdsNotFound, productId, call);
+  }
+
+  public boolean isProductDetailNotFound(String productId) {
+    return productDetailNotFound.get(productId) != null;
+  }
+
+  public void productDetailNotFound(String productId) {
+    productDetailNotFound.put(productId, Boolean.TRUE);
+  }
+
+  public void invalidate(String productId) {
+    productDetailNotFound.evict(productId);
+    similarIdsNotFound.evict(productId);
+  }
+
+  public void invalidateAll() {
+    productDetailNotFound.clear();
+    similarIdsNotFound.clear();
+  }
+
+  private static <T> Mono<T> guard(Cache cache, String productId, Mono<T> call) {
+    return Mono.defer(
+        () ->
+            cache.get(productId) != null
+                ? Mono.error(new ProductNotFoundException(productId))
+                : call.doOnError(
+                    ProductNotFoundException.class, e -> cache.put(productId, Boolean.TRUE)));
+  }
+}
@@ -1,31 +1,60 @@
 package com.rubenrbr.products.infrastructure.adapter.out;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 import org.springframework.stereotype.Component;
 
+import com.rubenrbr.products.domain.exception.ProductNotFoundException;
 import com.rubenrbr.products.domain.model.ProductDetail;
 import com.rubenrbr.products.domain.port.out.ProductRepository;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
 
 import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Component
 @RequiredArgsConstructor
 public class ProductRepositoryAdapter implements ProductRepository {
 
-  private final ProductExistingApiClient productExistingApiClient;
+  private final ProductApiCache productApiCache;
   private final ProductMapper productMapper;
 
   @Override
   public Mono<ProductDetail> getProductDetail(String productId) {
-    return productExistingApiClient
-        .getProductDetail(productId)
-        .map(productMapper::productDetailDtoToProductDetail);
+    return productApiCache.getProductDetail(productId).map(this::toProduct);
+  }
+
+  /**
+   * Looks every id up at once, so the ids missing from the cache reach the {@link
+   * ProductDetailBatcher} together and can share one upstream call.
+   */
+  @Override
+  public Flux<ProductDetail> getProductDetails(Collection<String> productIds) {
+    return Flux.fromIterable(new LinkedHashSet<>(productIds))
+        .flatMapSequential(
+            id ->
+                getProductDetail(id)
+                    .onErrorResume(ProductNotFoundException.class, e -> Mono.empty()),
+            Math.max(1, productIds.size()));
+  }
+
+  @Override
+  public Mono<ProductDetail> getCachedProductDetail(String productId) {
+    return Mono.fromSupplier(() -> productApiCache.peekProductDetail(productId))
+        .map(this::toProduct);
   }
 
   @Override
   public Mono<List<String>> getSimilarIds(String productId) {
-    return productExistingApiClient.getSimilarProductIds(productId);
+    return productApiCache.getSimilarProductIds(productId);
+  }
+
+  /** The domain form prepared when the detail was cached, if any, to save mapping it again. */
+  private ProductDetail toProduct(ProductDetailDto detail) {
+    ProductDetail product = productApiCache.peekProduct(detail);
+    return product != null ? product : productMapper.productDetailDtoToProductDetail(detail);
   }
 }
@@ -0,0 +1,172 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+import com.rubenrbr.products.infrastructure.cache.SharedCache;
+import com.rubenrbr.products.infrastructure.config.SharedCacheProperties;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.reactive.RedisReactiveCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.lettuce.core.pubsub.api.reactive.RedisPubSubReactiveCommands;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * {@link SharedCache} on a Redis server, or anything speaking its protocol.
+ *
+ * <p>All commands share one connection, on which Lettuce pipelines concurrent requests; multi-gets
+ * are a single {@code MGET}. The connection is opened on first use, opened again on the next
+ * command if that fails, and replaced once it is found closed, so the service starts and keeps
+ * serving while Redis is down. Every write and eviction is followed by a {@code PUBLISH} of {@code
+ * "<node> <cache> <key>"}, and a separate subscription delivers the messages of other nodes to the
+ * listeners.
+ */
+public class RedisSharedCache implements SharedCache, AutoCloseable {
+
+  private static final RedisCodec<String, byte[]> CODEC =
+      RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE);
+
+  private final String nodeId = UUID.randomUUID().toString();
+  private final String keyPrefix;
+  private final String channel;
+  private final RedisClient client;
+  private final Mono<StatefulRedisConnection<String, byte[]>> connection;
+  private final List<BiConsumer<String, String>> listeners = new CopyOnWriteArrayList<>();
+  private final Disposable changes;
+
+  public RedisSharedCache(SharedCacheProperties properties) {
+    this.keyPrefix = properties.keyPrefix();
+    this.channel = properties.channel();
+    RedisURI uri = RedisURI.create(properties.uri());
+    uri.setTimeout(properties.timeout());
+    this.client = RedisClient.create();
+    // RESP2 keeps the client compatible with older servers and protocol stand-ins.
+    client.setOptions(
+        ClientOptions.builder()
+            .protocolVersion(ProtocolVersion.RESP2)
+            .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+            .socketOptions(SocketOptions.builder().connectTimeout(properties.timeout()).build())
+            .timeoutOptions(TimeoutOptions.enabled(properties.timeout()))
+            .build());
+    this.connection =
+        Mono.fromCompletionStage(() -> client.connectAsync(CODEC, uri))
+            .cacheInvalidateIf(RedisSharedCache::closed);
+    this.changes =
+        Mono.fromCompletionStage(() -> client.connectPubSubAsync(StringCodec.UTF8, uri))
+            .flatMapMany(
+                connection -> {
+                  RedisPubSubReactiveCommands<String, String> pubSub = connection.reactive();
+                  return pubSub.subscribe(channel).thenMany(pubSub.observeChannels());
+                })
+            .retryWhen(
+                Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                    .maxBackoff(Duration.ofSeconds(30)))
+            .subscribe(message -> onMessage(message.getMessage()));
+  }
+
+  @Override
+  public Mono<byte[]> get(String cacheName, String key) {
+    return commands()
+        .flatMap(redis -> redis.get(redisKey(cacheName, key)))
+        .onErrorResume(e -> Mono.empty());
+  }
+
+  @Override
+  public Mono<Map<String, byte[]>> getAll(String cacheName, Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return Mono.just(Map.of());
+    }
+    String[] redisKeys = keys.stream().map(key -> redisKey(cacheName, key)).toArray(String[]::new);
+    int prefixLength = redisKey(cacheName, "").length();
+    return commands()
+        .flatMapMany(redis -> redis.mget(redisKeys))
+        .filter(KeyValue::hasValue)
+        .collectMap(kv -> kv.getKey().substring(prefixLength), KeyValue::getValue)
+        .onErrorResume(e -> Mono.just(Map.of()));
+  }
+
+  @Override
+  public Mono<Void> put(String cacheName, String key, byte[] value, Duration ttl) {
+    String redisKey = redisKey(cacheName, key);
+    return commands()
+        .flatMap(
+            redis ->
+                (ttl == null
+                        ? redis.set(redisKey, value)
+                        : redis.set(redisKey, value, SetArgs.Builder.px(ttl)))
+                    .then(publish(redis, cacheName, key)))
+        .onErrorResume(e -> Mono.empty());
+  }
+
+  @Override
+  public Mono<Void> evict(String cacheName, String key) {
+    return commands()
+        .flatMap(redis -> redis.del(redisKey(cacheName, key)).then(publish(redis, cacheName, key)))
+        .onErrorResume(e -> Mono.empty());
+  }
+
+  @Override
+  public void subscribe(BiConsumer<String, String> listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void close() {
+    changes.dispose();
+    client.shutdown();
+  }
+
+  private Mono<RedisReactiveCommands<String, byte[]>> commands() {
+    return connection.map(StatefulRedisConnection::reactive);
+  }
+
+  /**
+   * Whether a connection was lost for good, in which case it is closed for another to be opened.
+   */
+  private static boolean closed(StatefulRedisConnection<String, byte[]> connection) {
+    if (connection.isOpen()) {
+      return false;
+    }
+    connection.closeAsync();
+    return true;
+  }
+
+  private Mono<Void> publish(
+      RedisReactiveCommands<String, byte[]> redis, String cacheName, String key) {
+    return redis
+        .publish(channel, (nodeId + ' ' + cacheName + ' ' + key).getBytes(StandardCharsets.UTF_8))
+        .then();
+  }
+
+  private void onMessage(String message) {
+    String[] parts = message.split(" ", 3);
+    if (parts.length == 3 && !nodeId.equals(parts[0])) {
+      for (BiConsumer<String, String> listener : listeners) {
+        listener.accept(parts[1], parts[2]);
+      }
+    }
+  }
+
+  private String redisKey(String cacheName, String key) {
+    return keyPrefix + cacheName + ':' + key;
+  }
+}
@@ -0,0 +1,163 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Sends a second, identical request when the first one has not answered within the recent latency
+ * percentile of the endpoint, and returns whichever answers first; the other one is cancelled.
+ *
+ * <p>The threshold is the configured percentile of the last {@value #WINDOW} successful calls, and
+ * never lower than {@code minDelay}; no request is hedged before {@value #MIN_SAMPLES} calls have
+ * been observed. Hedges are paid from a budget: every request earns {@code budget} of a hedge, so
+ * with 0.05 at most 5% extra requests are sent, with bursts of up to {@value #MAX_BURST} hedges.
+ *
+ * <p>Errors and empty results of the first request are returned as they are. A failing hedge is
+ * ignored, so it can only ever make the call faster.
+ */
+public class RequestHedger {
+
+  static final int WINDOW = 1000;
+  static final int MIN_SAMPLES = 100;
+  private static final int RECOMPUTE_EVERY = 100;
+  private static final long MAX_BURST = 10;
+  private static final long TOKEN = 1_000_000;
+
+  private final boolean enabled;
+  private final double percentile;
+  private final long earnedPerRequest;
+  private final long minDelayNanos;
+  private final AtomicLongArray samples = new AtomicLongArray(WINDOW);
+  private final AtomicLong sampleCount = new AtomicLong();
+  private final AtomicLong tokens = new AtomicLong();
+  private volatile long percentileNanos = -1;
+  private final Counter sent;
+  private final Counter denied;
+  private final Counter won;
+
+  public RequestHedger(
+      String endpoint,
+      boolean enabled,
+      double percentile,
+      double budget,
+      Duration minDelay,
+      MeterRegistry meterRegistry) {
+    this.enabled = enabled;
+    this.percentile = percentile;
+    this.earnedPerRequest = Math.round(budget * TOKEN);
+    this.minDelayNanos = minDelay.toNanos();
+    if (meterRegistry == null) {
+      this.sent = null;
+      this.denied = null;
+      this.won = null;
+      return;
+    }
+    this.sent = hedgeCounter("sent", endpoint, meterRegistry);
+    this.denied = hedgeCounter("denied", endpoint, meterRegistry);
+    this.won = hedgeCounter("won", endpoint, meterRegistry);
+    Gauge.builder("upstream.hedge.threshold", this, hedger -> hedger.thresholdNanos() / 1e9)
+        .description("Delay after which a request is hedged, or -1 while not hedging")
+        .baseUnit("seconds")
+        .tag("endpoint", endpoint)
+        .register(meterRegistry);
+  }
+
+  /** A hedger that never hedges nor measures. */
+  public static RequestHedger disabled() {
+    return new RequestHedger("disabled", false, 0, 0, Duration.ZERO, null);
+  }
+
+  /**
+   * Runs the call, hedging it if it is slow. The first request is assembled immediately; the hedge
+   * is assembled only when it is sent.
+   */
+  public <T> Mono<T> execute(Supplier<Mono<T>> call) {
+    if (!enabled) {
+      return call.get();
+    }
+    Mono<T> primary = timed(call.get());
+    earn();
+    long delay = thresholdNanos();
+    if (delay < 0) {
+      return primary;
+    }
+    Mono<T> hedge =
+        Mono.delay(Duration.ofNanos(delay))
+            .flatMap(
+                tick -> {
+                  if (!spend()) {
+                    denied.increment();
+                    return Mono.never();
+                  }
+                  sent.increment();
+                  return timed(Mono.defer(call))
+                      .doOnNext(value -> won.increment())
+                      .onErrorResume(e -> Mono.never());
+                });
+    return Mono.firstWithSignal(primary, hedge);
+  }
+
+  /** The current hedging delay in nanoseconds, or -1 while too few calls have been observed. */
+  long thresholdNanos() {
+    long observed = percentileNanos;
+    return observed < 0 ? -1 : Math.max(observed, minDelayNanos);
+  }
+
+  void record(long latencyNanos) {
+    long index = sampleCount.getAndIncrement();
+    samples.set((int) (index % WINDOW), latencyNanos);
+    long count = index + 1;
+    if (count >= MIN_SAMPLES && (count == MIN_SAMPLES || count % RECOMPUTE_EVERY == 0)) {
+      recompute((int) Math.min(count, WINDOW));
+    }
+  }
+
+  private <T> Mono<T> timed(Mono<T> call) {
+    return Mono.defer(
+        () -> {
+          long start = System.nanoTime();
+          return call.doOnNext(value -> record(System.nanoTime() - start));
+        });
+  }
+
+  private synchronized void recompute(int size) {
+    long[] sorted = new long[size];
+    for (int i = 0; i < size; i++) {
+      sorted[i] = samples.get(i);
+    }
+    Arrays.sort(sorted);
+    int rank = (int) Math.ceil(percentile * size) - 1;
+    percentileNanos = sorted[Math.max(0, Math.min(rank, size - 1))];
+  }
+
+  private void earn() {
+    tokens.getAndUpdate(current -> Math.min(current + earnedPerRequest, MAX_BURST * TOKEN));
+  }
+
+  private boolean spend() {
+    long current;
+    do {
+      current = tokens.get();
+      if (current < TOKEN) {
+        return false;
+      }
+    } while (!tokens.compareAndSet(current, current - TOKEN));
+    return true;
+  }
+
+  private static Counter hedgeCounter(String result, String endpoint, MeterRegistry meterRegistry) {
+    return Counter.builder("upstream.hedges")
+        .description("Hedged requests sent, denied by the budget, or answering first")
+        .tag("endpoint", endpoint)
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,44 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.rubenrbr.products.infrastructure.cache.CacheValueCodec;
+
+/** Encodes a list of ids as a {@code byte[]}: the element count followed by each id as UTF-8. */
+public class StringListCodec implements CacheValueCodec<List<String>> {
+
+  @Override
+  public Object encode(List<String> values) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(4 + values.size() * 8);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(values.size());
+      for (String value : values) {
+        out.writeUTF(value);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public List<String> decode(Object stored) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream((byte[]) stored))) {
+      int size = in.readInt();
+      List<String> values = new ArrayList<>(Math.min(size, 1024));
+      for (int i = 0; i < size; i++) {
+        values.add(in.readUTF());
+      }
+      return List.copyOf(values);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,246 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.rubenrbr.products.domain.exception.DeadlineExceededException;
+import com.rubenrbr.products.domain.exception.ProductNotFoundException;
+import com.rubenrbr.products.domain.exception.UpstreamOverloadedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Limit on concurrent calls to the product API, without blocking threads.
+ *
+ * <p>At most {@link ConcurrencyLimit#limit()} calls run at once. Further calls wait in a FIFO queue
+ * of at most {@code maxQueuedCalls}, for at most {@code maxWait}; a call that finds the queue full,
+ * or waits too long, fails at once with {@link UpstreamOverloadedException}. A slot is freed when
+ * its call completes, fails or is cancelled, and is handed straight to the oldest waiting call.
+ *
+ * <p>Every call that completes or fails is reported to the limit, so an adaptive limit can follow
+ * the latency of the upstream. A product not found is a normal answer; failures raised on this side
+ * (deadline, overload) are not reported, and any other failure is reported as dropped.
+ */
+public class UpstreamBulkhead {
+
+  private static final int WAITING = 0;
+  private static final int GRANTED = 1;
+  private static final int DELIVERED = 2;
+  private static final int ABANDONED = 3;
+
+  private final boolean enabled;
+  private final ConcurrencyLimit limit;
+  private final int maxQueuedCalls;
+  private final Duration maxWait;
+  private final Deque<Waiter> queue = new ArrayDeque<>();
+  private int active;
+  private final Counter queueFull;
+  private final Counter timedOut;
+
+  public UpstreamBulkhead(
+      String name,
+      boolean enabled,
+      ConcurrencyLimit limit,
+      int maxQueuedCalls,
+      Duration maxWait,
+      MeterRegistry meterRegistry) {
+    this.enabled = enabled;
+    this.limit = limit;
+    this.maxQueuedCalls = maxQueuedCalls;
+    this.maxWait = maxWait;
+    if (meterRegistry == null) {
+      this.queueFull = null;
+      this.timedOut = null;
+      return;
+    }
+    this.queueFull = rejectedCounter(name, "queue-full", meterRegistry);
+    this.timedOut = rejectedCounter(name, "timeout", meterRegistry);
+    Gauge.builder("upstream.bulkhead.active", this, UpstreamBulkhead::activeCalls)
+        .description("Calls to the product API in progress")
+        .tag("name", name)
+        .register(meterRegistry);
+    Gauge.builder("upstream.bulkhead.queued", this, UpstreamBulkhead::queuedCalls)
+        .description("Calls to the product API waiting for a slot")
+        .tag("name", name)
+        .register(meterRegistry);
+    Gauge.builder("upstream.bulkhead.limit", limit, ConcurrencyLimit::limit)
+        .description("Calls to the product API allowed to run at once")
+        .tag("name", name)
+        .register(meterRegistry);
+  }
+
+  /** A bulkhead that lets every call through. */
+  public static UpstreamBulkhead disabled() {
+    return new UpstreamBulkhead(
+        "disabled", false, ConcurrencyLimit.fixed(0), 0, Duration.ZERO, null);
+  }
+
+  /** Runs the call once a slot is free; the call is assembled by the caller but not subscribed. */
+  public <T> Mono<T> execute(Mono<T> call) {
+    if (!enabled) {
+      return call;
+    }
+    return Mono.usingWhen(
+        acquire(),
+        permit -> call,
+        permit -> permit.release(null),
+        Permit::release,
+        permit -> permit.release(null, false));
+  }
+
+  synchronized int activeCalls() {
+    return active;
+  }
+
+  synchronized int queuedCalls() {
+    return queue.size();
+  }
+
+  private Mono<Permit> acquire() {
+    return Mono.defer(
+        () -> {
+          Waiter waiter = new Waiter();
+          synchronized (this) {
+            if (active < limit.limit() && queue.isEmpty()) {
+              active++;
+              return Mono.just(new Permit(active));
+            }
+            if (queue.size() >= maxQueuedCalls) {
+              increment(queueFull);
+              return Mono.error(new UpstreamOverloadedException());
+            }
+            queue.add(waiter);
+          }
+          return waiter
+              .sink
+              .asMono()
+              .timeout(maxWait, Mono.defer(() -> onTimeout(waiter)))
+              .flatMap(
+                  permit ->
+                      waiter.state.compareAndSet(GRANTED, DELIVERED)
+                          ? Mono.just(permit)
+                          : Mono.<Permit>empty())
+              .doOnCancel(() -> onCancel(waiter));
+        });
+  }
+
+  /**
+   * The wait timed out, but the slot may have been granted in the meantime; it is then taken from
+   * the sink, to be delivered like any other.
+   */
+  private Mono<Permit> onTimeout(Waiter waiter) {
+    if (waiter.state.compareAndSet(WAITING, ABANDONED)) {
+      synchronized (this) {
+        queue.remove(waiter);
+      }
+      increment(timedOut);
+      return Mono.error(new UpstreamOverloadedException());
+    }
+    return waiter.sink.asMono();
+  }
+
+  /** The caller went away while waiting; a slot granted but not yet delivered is passed on. */
+  private void onCancel(Waiter waiter) {
+    if (waiter.state.compareAndSet(WAITING, ABANDONED)) {
+      synchronized (this) {
+        queue.remove(waiter);
+      }
+    } else if (waiter.state.compareAndSet(GRANTED, ABANDONED)) {
+      release();
+    }
+  }
+
+  private void release() {
+    synchronized (this) {
+      active--;
+    }
+    drain();
+  }
+
+  /** Grants slots to waiting calls while the limit allows, which may have grown since. */
+  private void drain() {
+    while (true) {
+      Waiter next;
+      int inFlight;
+      synchronized (this) {
+        if (active >= limit.limit() || queue.isEmpty()) {
+          return;
+        }
+        next = queue.poll();
+        inFlight = ++active;
+      }
+      if (next.state.compareAndSet(WAITING, GRANTED)) {
+        next.sink.tryEmitValue(new Permit(inFlight));
+      } else {
+        synchronized (this) {
+          active--;
+        }
+      }
+    }
+  }
+
+  private static boolean signalsOverload(Throwable error) {
+    return !(error instanceof ProductNotFoundException);
+  }
+
+  private static boolean raisedLocally(Throwable error) {
+    return error instanceof DeadlineExceededException
+        || error instanceof UpstreamOverloadedException;
+  }
+
+  private static void increment(Counter counter) {
+    if (counter != null) {
+      counter.increment();
+    }
+  }
+
+  private static Counter rejectedCounter(String name, String reason, MeterRegistry meterRegistry) {
+    return Counter.builder("upstream.bulkhead.rejected")
+        .description("Calls to the product API rejected because too many were in progress")
+        .tag("name", name)
+        .tag("reason", reason)
+        .register(meterRegistry);
+  }
+
+  private static final class Waiter {
+    final Sinks.One<Permit> sink = Sinks.one();
+    final AtomicInteger state = new AtomicInteger(WAITING);
+  }
+
+  /** One slot; releasing it more than once has no effect. */
+  private final class Permit {
+    private final AtomicBoolean released = new AtomicBoolean();
+    private final long startedAt = System.nanoTime();
+    private final int inFlight;
+
+    Permit(int inFlight) {
+      this.inFlight = inFlight;
+    }
+
+    Mono<Void> release(Throwable error) {
+      return release(error, error == null || !raisedLocally(error));
+    }
+
+    Mono<Void> release(Throwable error, boolean sample) {
+      return Mono.fromRunnable(
+          () -> {
+            if (released.compareAndSet(false, true)) {
+              if (sample) {
+                limit.onSample(
+                    System.nanoTime() - startedAt,
+                    inFlight,
+                    error != null && signalsOverload(error));
+              }
+              UpstreamBulkhead.this.release();
+            }
+          });
+    }
+  }
+}
@@ -0,0 +1,175 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.rubenrbr.products.domain.exception.DeadlineExceededException;
+import com.rubenrbr.products.domain.exception.ProductNotFoundException;
+import com.rubenrbr.products.domain.exception.UpstreamOverloadedException;
+import com.rubenrbr.products.domain.model.Deadline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Retries failed calls to one endpoint of the product API, with exponential backoff and full
+ * jitter: before retry {@code n} it waits a random time between zero and {@code initialBackoff *
+ * 2^(n-1)}, capped at {@code maxBackoff}, so that calls failing together do not retry together.
+ *
+ * <p>Retries are paid from a budget: every call earns {@code budget} of a retry, so with 0.1
+ * retries add at most 10% to the calls made, with bursts of up to {@code maxBurst} retries. A
+ * failure is not retried when the {@link Deadline} in the context leaves less time than the backoff
+ * plus the time the failed attempt took, as the retry would most likely be cut short. A product not
+ * found and failures raised on this side (deadline, overload) are never retried.
+ */
+public class UpstreamRetry {
+
+  private static final long TOKEN = 1_000_000;
+
+  private final boolean enabled;
+  private final int maxAttempts;
+  private final long initialBackoffNanos;
+  private final long maxBackoffNanos;
+  private final long earnedPerCall;
+  private final long maxTokens;
+  private final AtomicLong tokens;
+  private final Counter retried;
+  private final Counter exhausted;
+  private final Counter overBudget;
+  private final Counter pastDeadline;
+
+  public UpstreamRetry(
+      String endpoint,
+      boolean enabled,
+      int maxAttempts,
+      Duration initialBackoff,
+      Duration maxBackoff,
+      double budget,
+      int maxBurst,
+      MeterRegistry meterRegistry) {
+    this.enabled = enabled;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoffNanos = initialBackoff.toNanos();
+    this.maxBackoffNanos = maxBackoff.toNanos();
+    this.earnedPerCall = Math.round(budget * TOKEN);
+    this.maxTokens = maxBurst * TOKEN;
+    this.tokens = new AtomicLong(maxTokens);
+    if (meterRegistry == null) {
+      this.retried = null;
+      this.exhausted = null;
+      this.overBudget = null;
+      this.pastDeadline = null;
+      return;
+    }
+    this.retried = retryCounter(endpoint, "retried", meterRegistry);
+    this.exhausted = retryCounter(endpoint, "attempts-exhausted", meterRegistry);
+    this.overBudget = retryCounter(endpoint, "budget-exhausted", meterRegistry);
+    this.pastDeadline = retryCounter(endpoint, "deadline", meterRegistry);
+    Gauge.builder("upstream.retry.budget", tokens, available -> (double) available.get() / TOKEN)
+        .description("Retries that may currently be made")
+        .tag("endpoint", endpoint)
+        .register(meterRegistry);
+  }
+
+  /** A retry that never retries. */
+  public static UpstreamRetry disabled() {
+    return new UpstreamRetry("disabled", false, 1, Duration.ZERO, Duration.ZERO, 0, 0, null);
+  }
+
+  /** Runs the call, subscribing to it again for every retry. */
+  public <T> Mono<T> execute(Mono<T> call) {
+    if (!enabled || maxAttempts <= 1) {
+      return call;
+    }
+    return Mono.deferContextual(
+        context -> {
+          earn();
+          Deadline deadline = Deadline.from(context).orElse(null);
+          AtomicLong attemptStartedAt = new AtomicLong();
+          return call.doOnSubscribe(subscription -> attemptStartedAt.set(System.nanoTime()))
+              .retryWhen(
+                  Retry.from(
+                      failures ->
+                          failures.concatMap(
+                              failure -> {
+                                long tookNanos = System.nanoTime() - attemptStartedAt.get();
+                                Duration backoff = retryBackoff(failure, deadline, tookNanos);
+                                return backoff == null
+                                    ? Mono.error(failure.failure())
+                                    : Mono.delay(backoff);
+                              })));
+        });
+  }
+
+  /** The time to wait before retrying, or {@code null} if the failure is not retried. */
+  private Duration retryBackoff(Retry.RetrySignal failure, Deadline deadline, long tookNanos) {
+    if (!retryable(failure.failure())) {
+      return null;
+    }
+    long retry = failure.totalRetries() + 1;
+    if (retry >= maxAttempts) {
+      increment(exhausted);
+      return null;
+    }
+    Duration backoff = Duration.ofNanos(jitteredBackoffNanos(retry));
+    if (deadline != null && deadline.remaining().toNanos() <= backoff.toNanos() + tookNanos) {
+      increment(pastDeadline);
+      return null;
+    }
+    if (!spend()) {
+      increment(overBudget);
+      return null;
+    }
+    increment(retried);
+    return backoff;
+  }
+
+  long jitteredBackoffNanos(long retry) {
+    long ceiling = (long) Math.min(maxBackoffNanos, initialBackoffNanos * Math.pow(2, retry - 1));
+    return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+  }
+
+  double availableRetries() {
+    return (double) tokens.get() / TOKEN;
+  }
+
+  private static boolean retryable(Throwable error) {
+    return !(error instanceof ProductNotFoundException
+        || error instanceof DeadlineExceededException
+        || error instanceof UpstreamOverloadedException);
+  }
+
+  private void earn() {
+    tokens.getAndUpdate(current -> Math.min(current + earnedPerCall, maxTokens));
+  }
+
+  private boolean spend() {
+    long current;
+    do {
+      current = tokens.get();
+      if (current < TOKEN) {
+        return false;
+      }
+    } while (!tokens.compareAndSet(current, current - TOKEN));
+    return true;
+  }
+
+  private static void increment(Counter counter) {
+    if (counter != null) {
+      counter.increment();
+    }
+  }
+
+  private static Counter retryCounter(
+      String endpoint, String outcome, MeterRegistry meterRegistry) {
+    return Counter.builder("upstream.retries")
+        .description("Failed calls retried, or not retried for lack of attempts, budget or time")
+        .tag("endpoint", endpoint)
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+}
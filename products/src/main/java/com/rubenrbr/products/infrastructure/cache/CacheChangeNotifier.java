@@ -0,0 +1,42 @@
+package com.rubenrbr.products.infrastructure.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+
+/**
+ * Fans out "this entry changed or went away" events for the product caches, so that data derived
+ * from them (such as cached responses) can be invalidated precisely. Listeners receive the cache
+ * name and the key.
+ */
+public class CacheChangeNotifier {
+
+  private final List<BiConsumer<String, String>> listeners = new CopyOnWriteArrayList<>();
+
+  public void subscribe(BiConsumer<String, String> listener) {
+    listeners.add(listener);
+  }
+
+  public void changed(String cacheName, Object key) {
+    for (BiConsumer<String, String> listener : listeners) {
+      listener.accept(cacheName, String.valueOf(key));
+    }
+  }
+
+  /**
+   * Caffeine listener reporting expired and explicitly removed entries. Replacements are not
+   * reported here; writers report them through {@link #changed} only when the value differs. Nor
+   * are entries evicted to make room, whose data is still current: writers report a value stored
+   * for a key that was no longer cached instead.
+   */
+  public RemovalListener<Object, Object> removalListener(String cacheName) {
+    return (key, value, cause) -> {
+      if (key != null && cause != RemovalCause.REPLACED && cause != RemovalCause.SIZE) {
+        changed(cacheName, key);
+      }
+    };
+  }
+}
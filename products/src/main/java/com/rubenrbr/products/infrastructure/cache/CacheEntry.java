@@ -0,0 +1,9 @@
+package com.rubenrbr.products.infrastructure.cache;
+
+/** A cached value together with the wall-clock time (epoch millis) it was loaded at. */
+public record CacheEntry<V>(V value, long writtenAt) {
+
+  public long age(long now) {
+    return now - writtenAt;
+  }
+}
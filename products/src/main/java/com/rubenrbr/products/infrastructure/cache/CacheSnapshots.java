@@ -0,0 +1,95 @@
+package com.rubenrbr.products.infrastructure.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes the local entries of a {@link RevalidatingCache} to a file and restores them, so that a
+ * restarted instance starts warm.
+ *
+ * <p>Format: a magic number, then one record per entry: write time, key (modified UTF-8) and the
+ * value encoded by {@code codec}, whose {@code encode} must return a {@code byte[]}, prefixed by
+ * its length. A snapshot is written to a temporary file and moved over the previous one, so readers
+ * only ever see complete files; a truncated or corrupt tail is ignored anyway.
+ */
+public final class CacheSnapshots {
+
+  private static final int MAGIC = 0x50435331;
+
+  private CacheSnapshots() {}
+
+  /** Returns the number of entries written. */
+  public static <V> int write(Path file, RevalidatingCache<V> cache, CacheValueCodec<V> codec)
+      throws IOException {
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    int[] written = {0};
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+      out.writeInt(MAGIC);
+      cache.forEachLocal(
+          (key, entry) -> {
+            byte[] value = (byte[]) codec.encode(entry.value());
+            try {
+              out.writeLong(entry.writtenAt());
+              out.writeUTF(key);
+              out.writeInt(value.length);
+              out.write(value);
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+            written[0]++;
+          });
+    } catch (UncheckedIOException e) {
+      Files.deleteIfExists(temp);
+      throw e.getCause();
+    } catch (IOException e) {
+      Files.deleteIfExists(temp);
+      throw e;
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    return written[0];
+  }
+
+  /**
+   * Restores the entries written at or after {@code oldestWrittenAt}. A missing file restores
+   * nothing. Returns the number of entries restored.
+   */
+  public static <V> int restore(
+      Path file, RevalidatingCache<V> cache, CacheValueCodec<V> codec, long oldestWrittenAt)
+      throws IOException {
+    int restored = 0;
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC) {
+        return 0;
+      }
+      while (true) {
+        long writtenAt = in.readLong();
+        String key = in.readUTF();
+        int length = in.readInt();
+        byte[] value = in.readNBytes(length);
+        if (value.length != length) {
+          return restored;
+        }
+        if (writtenAt >= oldestWrittenAt) {
+          cache.restore(key, new CacheEntry<>(codec.decode(value), writtenAt));
+          restored++;
+        }
+      }
+    } catch (NoSuchFileException | EOFException e) {
+      return restored;
+    } catch (RuntimeException e) {
+      // Undecodable record: keep what was restored so far.
+      return restored;
+    }
+  }
+}
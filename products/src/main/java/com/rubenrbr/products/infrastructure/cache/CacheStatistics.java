@@ -0,0 +1,78 @@
+package com.rubenrbr.products.infrastructure.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Caffeine statistics counters, one per cache name, shared between the caches that record hits,
+ * misses and evictions and the code that loads their values outside Caffeine.
+ *
+ * <p>Micrometer's Caffeine binder only publishes load metrics for loading caches, so the loads
+ * recorded through {@link #timed} are published as {@code cache.load} and {@code
+ * cache.load.duration}, with the same names and tags it uses.
+ */
+public class CacheStatistics {
+
+  private final Map<String, StatsCounter> counters = new ConcurrentHashMap<>();
+  private final MeterRegistry meterRegistry;
+  private final String cacheManagerName;
+
+  /** Counters without published load metrics. */
+  public CacheStatistics() {
+    this(null, null);
+  }
+
+  public CacheStatistics(MeterRegistry meterRegistry, String cacheManagerName) {
+    this.meterRegistry = meterRegistry;
+    this.cacheManagerName = cacheManagerName;
+  }
+
+  public StatsCounter counter(String cacheName) {
+    return counters.computeIfAbsent(cacheName, name -> new ConcurrentStatsCounter());
+  }
+
+  /** Wraps a loader so that the time to each value or error is recorded as a load. */
+  public <V> Function<String, Mono<V>> timed(String cacheName, Function<String, Mono<V>> loader) {
+    StatsCounter counter = counter(cacheName);
+    registerLoadMeters(cacheName, counter);
+    return key ->
+        Mono.defer(
+            () -> {
+              long start = System.nanoTime();
+              return loader
+                  .apply(key)
+                  .doOnNext(value -> counter.recordLoadSuccess(System.nanoTime() - start))
+                  .doOnError(e -> counter.recordLoadFailure(System.nanoTime() - start));
+            });
+  }
+
+  private void registerLoadMeters(String cacheName, StatsCounter counter) {
+    if (meterRegistry != null) {
+      String[] tags = {"cache", cacheName, "cache.manager", cacheManagerName};
+      FunctionCounter.builder("cache.load", counter, c -> c.snapshot().loadSuccessCount())
+          .tags(tags)
+          .tag("result", "success")
+          .description("Values loaded into the cache, successfully or not")
+          .register(meterRegistry);
+      FunctionCounter.builder("cache.load", counter, c -> c.snapshot().loadFailureCount())
+          .tags(tags)
+          .tag("result", "failure")
+          .description("Values loaded into the cache, successfully or not")
+          .register(meterRegistry);
+      FunctionCounter.builder(
+              "cache.load.duration", counter, c -> c.snapshot().totalLoadTime() / 1e9)
+          .tags(tags)
+          .baseUnit("seconds")
+          .description("Time spent loading values into the cache")
+          .register(meterRegistry);
+    }
+  }
+}
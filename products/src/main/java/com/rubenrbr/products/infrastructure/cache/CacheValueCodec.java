@@ -0,0 +1,24 @@
+package com.rubenrbr.products.infrastructure.cache;
+
+/** Converts cached values to and from the representation actually held by the cache. */
+public interface CacheValueCodec<V> {
+
+  Object encode(V value);
+
+  V decode(Object stored);
+
+  @SuppressWarnings("unchecked")
+  static <V> CacheValueCodec<V> identity() {
+    return new CacheValueCodec<>() {
+      @Override
+      public Object encode(V value) {
+        return value;
+      }
+
+      @Override
+      public V decode(Object stored) {
+        return (V) stored;
+      }
+    };
+  }
+}
@@ -0,0 +1,61 @@
+package com.rubenrbr.products.infrastructure.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.rubenrbr.products.domain.model.Deadline;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Single-flight deduplication of in-flight calls: concurrent subscribers for the same key share one
+ * subscription to the upstream call. The shared call is dropped as soon as it completes, fails or
+ * every subscriber has cancelled, so the next subscriber after that starts a fresh call.
+ *
+ * <p>The shared call runs within a {@link Deadline#forSharedCall() shared deadline}, extended to
+ * that of every subscriber as it joins, rather than within the deadline of the subscriber that
+ * started it: a subscriber with little time left cannot fail the others, and the call still knows
+ * when none of them will wait for it any more.
+ */
+public class RequestCoalescer<K, V> {
+
+  private final ConcurrentMap<K, Shared<V>> inFlight = new ConcurrentHashMap<>();
+
+  public Mono<V> execute(K key, Mono<V> call) {
+    return Mono.deferContextual(
+        context -> {
+          Shared<V> shared = inFlight.computeIfAbsent(key, k -> share(k, call));
+          shared.deadline().extendTo(Deadline.from(context).orElse(null));
+          return shared.call();
+        });
+  }
+
+  /**
+   * A subscriber that got the shared call just before it completed resubscribes to it, starting it
+   * again, so it must only ever remove itself and not a newer call for the same key.
+   */
+  private Shared<V> share(K key, Mono<V> call) {
+    AtomicReference<Shared<V>> self = new AtomicReference<>();
+    Deadline deadline = Deadline.forSharedCall();
+    Shared<V> shared =
+        new Shared<>(
+            call.contextWrite(deadline::putIn)
+                .doFinally(s -> inFlight.remove(key, self.get()))
+                .share(),
+            deadline);
+    self.set(shared);
+    return shared;
+  }
+
+  int inFlightCount() {
+    return inFlight.size();
+  }
+
+  Mono<V> inFlight(K key) {
+    Shared<V> shared = inFlight.get(key);
+    return shared == null ? null : shared.call();
+  }
+
+  private record Shared<V>(Mono<V> call, Deadline deadline) {}
+}
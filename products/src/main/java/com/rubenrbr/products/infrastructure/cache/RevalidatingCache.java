@@ -0,0 +1,235 @@
+package com.rubenrbr.products.infrastructure.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.rubenrbr.products.domain.exception.ProductNotFoundException;
+import com.rubenrbr.products.domain.model.Deadline;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Stale-while-revalidate cache in front of a reactive loader.
+ *
+ * <ul>
+ *   <li>Younger than the soft TTL: served from cache.
+ *   <li>Between the soft and the hard TTL: served from cache while one background refresh runs.
+ *   <li>Older than the hard TTL: reloaded, falling back to the cached value if the reload fails for
+ *       any reason other than {@link ProductNotFoundException}. How long such entries are kept is
+ *       bounded by the expiry of the underlying Caffeine cache.
+ * </ul>
+ *
+ * <p>Loads and refreshes for the same key are coalesced into a single upstream call. Values pass
+ * through a {@link CacheValueCodec} on the way in and out, so the cache may hold them in a more
+ * compact form than the one served. Values stored for a key that was not cached, or replacing an
+ * entry with a different value, are reported to the {@code onChange} callback.
+ *
+ * <p>With a {@link SharedTier}, the Caffeine cache acts as a first level in front of a cache shared
+ * with the other instances: local misses are looked up there before loading, loaded values are
+ * written through to it, and local entries are dropped when another instance writes or evicts them.
+ */
+public class RevalidatingCache<V> {
+
+  private final Cache<String, CacheEntry<Object>> cache;
+  private final Function<String, Mono<V>> loader;
+  private final CacheValueCodec<V> codec;
+  private final long softTtl;
+  private final long hardTtl;
+  private final Clock clock;
+  private final Consumer<String> onChange;
+  private final SharedTier<V> shared;
+  private final RequestCoalescer<String, V> loads = new RequestCoalescer<>();
+  private final RequestCoalescer<String, CacheEntry<V>> lookups = new RequestCoalescer<>();
+
+  public RevalidatingCache(
+      Cache<String, CacheEntry<Object>> cache,
+      Function<String, Mono<V>> loader,
+      Duration softTtl,
+      Duration hardTtl,
+      Clock clock) {
+    this(cache, loader, CacheValueCodec.identity(), softTtl, hardTtl, clock, key -> {}, null);
+  }
+
+  public RevalidatingCache(
+      Cache<String, CacheEntry<Object>> cache,
+      Function<String, Mono<V>> loader,
+      CacheValueCodec<V> codec,
+      Duration softTtl,
+      Duration hardTtl,
+      Clock clock,
+      Consumer<String> onChange,
+      SharedTier<V> shared) {
+    this.cache = cache;
+    this.loader = loader;
+    this.codec = codec;
+    this.hardTtl = hardTtl == null ? Long.MAX_VALUE : hardTtl.toMillis();
+    this.softTtl = softTtl == null ? this.hardTtl : Math.min(softTtl.toMillis(), this.hardTtl);
+    this.clock = clock;
+    this.onChange = onChange;
+    this.shared = shared;
+    if (shared != null) {
+      shared.onRemoteChange(cache::invalidate);
+    }
+  }
+
+  public Mono<V> get(String key) {
+    return Mono.defer(
+        () -> {
+          CacheEntry<Object> entry = cache.getIfPresent(key);
+          if (entry != null) {
+            return serve(key, entry);
+          }
+          if (shared == null) {
+            return load(key);
+          }
+          return lookups
+              .execute(key, shared.get(key))
+              .flatMap(found -> serve(key, storeLocally(key, found, true)))
+              .switchIfEmpty(Mono.defer(() -> load(key)));
+        });
+  }
+
+  /**
+   * Copies entries missing locally from the shared tier in a single round trip, so that a following
+   * burst of {@link #get} calls is served locally. Never fails.
+   */
+  public Mono<Void> prefetch(Collection<String> keys) {
+    if (shared == null) {
+      return Mono.empty();
+    }
+    return Mono.defer(
+        () -> {
+          List<String> missing =
+              keys.stream().distinct().filter(key -> !cache.asMap().containsKey(key)).toList();
+          if (missing.isEmpty()) {
+            return Mono.empty();
+          }
+          return shared
+              .getAll(missing)
+              .doOnNext(found -> found.forEach((key, entry) -> storeLocally(key, entry, true)))
+              .onErrorResume(e -> Mono.empty())
+              .then();
+        });
+  }
+
+  public V peek(String key) {
+    // Read through the map view so that peeking is not counted as a hit or a miss.
+    CacheEntry<Object> entry = cache.asMap().get(key);
+    return entry == null ? null : codec.decode(entry.value());
+  }
+
+  /** The cached value in the form the codec stores it, or {@code null}; never triggers a load. */
+  public Object peekEncoded(String key) {
+    CacheEntry<Object> entry = cache.asMap().get(key);
+    return entry == null ? null : entry.value();
+  }
+
+  public void invalidate(String key) {
+    cache.invalidate(key);
+  }
+
+  /** Visits the entries held locally, decoded, with their write time. */
+  public void forEachLocal(BiConsumer<String, CacheEntry<V>> action) {
+    cache
+        .asMap()
+        .forEach(
+            (key, entry) ->
+                action.accept(
+                    key, new CacheEntry<>(codec.decode(entry.value()), entry.writtenAt())));
+  }
+
+  /**
+   * Adds an entry obtained elsewhere, such as a snapshot, keeping its write time. A newer local
+   * entry wins, and nothing is written to the shared tier or reported as a change.
+   */
+  public void restore(String key, CacheEntry<V> entry) {
+    storeLocally(key, entry, false);
+  }
+
+  private Mono<V> serve(String key, CacheEntry<Object> entry) {
+    long age = entry.age(clock.millis());
+    if (age < softTtl) {
+      return Mono.fromSupplier(() -> codec.decode(entry.value()));
+    }
+    if (age < hardTtl) {
+      refresh(key);
+      return Mono.fromSupplier(() -> codec.decode(entry.value()));
+    }
+    return load(key)
+        .onErrorResume(
+            RevalidatingCache::isUpstreamFailure,
+            e -> Mono.fromSupplier(() -> codec.decode(entry.value())));
+  }
+
+  private void refresh(String key) {
+    // Failures are ignored: the current entry stays in place until its hard TTL.
+    load(key).onErrorResume(e -> Mono.empty()).subscribe();
+  }
+
+  /**
+   * The shared load runs within the latest deadline of the callers waiting for it (see {@link
+   * RequestCoalescer}), so that the loader can bound and retry its calls; each caller bounds only
+   * its own wait, and the load is cancelled once every caller has stopped waiting.
+   */
+  private Mono<V> load(String key) {
+    return Deadline.bound(
+        loads.execute(
+            key,
+            Mono.defer(() -> loader.apply(key))
+                .doOnNext(value -> store(key, value))
+                .doOnError(ProductNotFoundException.class, e -> forget(key))));
+  }
+
+  private void store(String key, V value) {
+    long now = clock.millis();
+    Object encoded = codec.encode(value);
+    CacheEntry<Object> previous = cache.asMap().put(key, new CacheEntry<>(encoded, now));
+    if (previous == null || !Objects.deepEquals(previous.value(), encoded)) {
+      onChange.accept(key);
+    }
+    if (shared != null) {
+      shared.put(key, new CacheEntry<>(value, now));
+    }
+  }
+
+  /** Keeps a local entry newer than the shared one, which another request may just have loaded. */
+  private CacheEntry<Object> storeLocally(String key, CacheEntry<V> found, boolean report) {
+    CacheEntry<Object> local = new CacheEntry<>(codec.encode(found.value()), found.writtenAt());
+    boolean[] changed = new boolean[1];
+    CacheEntry<Object> stored =
+        cache
+            .asMap()
+            .compute(
+                key,
+                (k, current) -> {
+                  if (current != null && current.writtenAt() >= local.writtenAt()) {
+                    return current;
+                  }
+                  changed[0] =
+                      current == null || !Objects.deepEquals(current.value(), local.value());
+                  return local;
+                });
+    if (report && changed[0]) {
+      onChange.accept(key);
+    }
+    return stored;
+  }
+
+  private void forget(String key) {
+    cache.invalidate(key);
+    if (shared != null) {
+      shared.evict(key);
+    }
+  }
+
+  private static boolean isUpstreamFailure(Throwable e) {
+    return !(e instanceof ProductNotFoundException);
+  }
+}
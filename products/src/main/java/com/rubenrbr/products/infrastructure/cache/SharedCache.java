@@ -0,0 +1,32 @@
+package com.rubenrbr.products.infrastructure.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Second-level cache shared by every instance of the service, keyed by cache name and key and
+ * holding opaque bytes.
+ *
+ * <p>Implementations must never fail a read path: unavailability is reported as a miss, and failed
+ * writes are dropped. Writes and evictions made by one instance are announced to the listeners of
+ * every other instance, so they can drop their in-process copies.
+ */
+public interface SharedCache {
+
+  Mono<byte[]> get(String cacheName, String key);
+
+  /** Values for the keys that are present, fetched in a single round trip. */
+  Mono<Map<String, byte[]>> getAll(String cacheName, Collection<String> keys);
+
+  /** Stores the value; a {@code null} TTL keeps it until evicted. */
+  Mono<Void> put(String cacheName, String key, byte[] value, Duration ttl);
+
+  Mono<Void> evict(String cacheName, String key);
+
+  /** Registers a listener for writes and evictions made by other instances. */
+  void subscribe(BiConsumer<String, String> listener);
+}
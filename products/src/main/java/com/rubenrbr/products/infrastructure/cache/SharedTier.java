@@ -0,0 +1,95 @@
+package com.rubenrbr.products.infrastructure.cache;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * One named cache within a {@link SharedCache}, as seen by a {@link RevalidatingCache}.
+ *
+ * <p>Entries are stored as the write time (8 bytes) followed by the value encoded by {@code codec},
+ * whose {@code encode} must return a {@code byte[]}. Keeping the write time lets every instance
+ * apply the same soft and hard TTLs to an entry, whichever instance loaded it. Entries that cannot
+ * be decoded, for instance ones written by an incompatible version, are treated as misses.
+ */
+public class SharedTier<V> {
+
+  private static final int HEADER = Long.BYTES;
+
+  private final SharedCache shared;
+  private final String cacheName;
+  private final CacheValueCodec<V> codec;
+  private final Duration ttl;
+
+  public SharedTier(SharedCache shared, String cacheName, CacheValueCodec<V> codec, Duration ttl) {
+    this.shared = shared;
+    this.cacheName = cacheName;
+    this.codec = codec;
+    this.ttl = ttl;
+  }
+
+  public Mono<CacheEntry<V>> get(String key) {
+    return shared.get(cacheName, key).mapNotNull(this::decode);
+  }
+
+  public Mono<Map<String, CacheEntry<V>>> getAll(Collection<String> keys) {
+    return shared
+        .getAll(cacheName, keys)
+        .map(
+            found -> {
+              Map<String, CacheEntry<V>> entries = new HashMap<>();
+              found.forEach(
+                  (key, bytes) -> {
+                    CacheEntry<V> entry = decode(bytes);
+                    if (entry != null) {
+                      entries.put(key, entry);
+                    }
+                  });
+              return entries;
+            });
+  }
+
+  /** Writes the entry in the background. */
+  public void put(String key, CacheEntry<V> entry) {
+    shared.put(cacheName, key, encode(entry), ttl).subscribe();
+  }
+
+  /** Evicts the entry in the background. */
+  public void evict(String key) {
+    shared.evict(cacheName, key).subscribe();
+  }
+
+  /** Registers a listener for keys of this cache written or evicted by other instances. */
+  public void onRemoteChange(Consumer<String> listener) {
+    shared.subscribe(
+        (name, key) -> {
+          if (cacheName.equals(name)) {
+            listener.accept(key);
+          }
+        });
+  }
+
+  private byte[] encode(CacheEntry<V> entry) {
+    byte[] value = (byte[]) codec.encode(entry.value());
+    return ByteBuffer.allocate(HEADER + value.length).putLong(entry.writtenAt()).put(value).array();
+  }
+
+  private CacheEntry<V> decode(byte[] bytes) {
+    if (bytes.length < HEADER) {
+      return null;
+    }
+    try {
+      long writtenAt = ByteBuffer.wrap(bytes).getLong();
+      return new CacheEntry<>(
+          codec.decode(Arrays.copyOfRange(bytes, HEADER, bytes.length)), writtenAt);
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Micro-batching of product-detail lookups across requests, off by default.
+ *
+ * <p>Lookups are collected for {@code window}, or until {@code max-batch-size} distinct ids are
+ * waiting. With a {@code path}, relative to the product API base URL, a batch is one call to {@code
+ * GET {path}?ids=1,2,3} returning the products found as a JSON array; without one, the ids of a
+ * batch are looked up one call each. A dispatched call is given up after {@code timeout}, since it
+ * runs on behalf of several requests and no single request's deadline bounds it.
+ */
+@ConfigurationProperties(prefix = "external.api.product.batching")
+public record BatchingProperties(
+    Boolean enabled, String path, Duration window, Integer maxBatchSize, Duration timeout) {
+
+  public BatchingProperties {
+    enabled = enabled != null && enabled;
+    path = path == null || path.isBlank() ? null : path;
+    window = window == null ? Duration.ofMillis(2) : window;
+    maxBatchSize = maxBatchSize == null ? 50 : maxBatchSize;
+    timeout = timeout == null ? Duration.ofSeconds(10) : timeout;
+  }
+}
@@ -0,0 +1,23 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Process-wide limit on concurrent calls to the product API, across both endpoints.
+ *
+ * <p>At most {@code max-concurrent-calls} run at once; up to {@code max-queued-calls} more wait for
+ * at most {@code max-wait}, and any call beyond that is rejected immediately.
+ */
+@ConfigurationProperties(prefix = "external.api.product.bulkhead")
+public record BulkheadProperties(
+    Boolean enabled, Integer maxConcurrentCalls, Integer maxQueuedCalls, Duration maxWait) {
+
+  public BulkheadProperties {
+    enabled = enabled == null || enabled;
+    maxConcurrentCalls = maxConcurrentCalls == null ? 250 : maxConcurrentCalls;
+    maxQueuedCalls = maxQueuedCalls == null ? 1000 : maxQueuedCalls;
+    maxWait = maxWait == null ? Duration.ofMillis(500) : maxWait;
+  }
+}
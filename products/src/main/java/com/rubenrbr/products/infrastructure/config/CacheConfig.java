@@ -1,15 +1,113 @@
 package com.rubenrbr.products.infrastructure.config;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import com.rubenrbr.products.infrastructure.adapter.in.filter.SimilarResponseCache;
+import com.rubenrbr.products.infrastructure.adapter.out.RedisSharedCache;
+import com.rubenrbr.products.infrastructure.cache.CacheChangeNotifier;
+import com.rubenrbr.products.infrastructure.cache.CacheEntry;
+import com.rubenrbr.products.infrastructure.cache.CacheStatistics;
+import com.rubenrbr.products.infrastructure.cache.SharedCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
+@EnableConfigurationProperties({
+  CacheProperties.class,
+  SharedCacheProperties.class,
+  CacheSnapshotProperties.class
+})
 public class CacheConfig {
 
+  public static final String PRODUCT_DETAIL = "product-detail";
+  public static final String SIMILAR_IDS = "similar-ids";
+  public static final String PRODUCT_DETAIL_NOT_FOUND = "product-detail-not-found";
+  public static final String SIMILAR_IDS_NOT_FOUND = "similar-ids-not-found";
+  public static final String SIMILAR_RESPONSE = "similar-response";
+
   @Bean
-  public CacheManager cacheManager() {
-    return new ConcurrentMapCacheManager("product-detail", "similar-ids");
+  public CacheChangeNotifier cacheChangeNotifier() {
+    return new CacheChangeNotifier();
+  }
+
+  @Bean
+  public CacheStatistics cacheStatistics(MeterRegistry meterRegistry) {
+    return new CacheStatistics(meterRegistry, "cacheManager");
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "cache.shared", name = "enabled", havingValue = "true")
+  public SharedCache sharedCache(SharedCacheProperties properties) {
+    return new RedisSharedCache(properties);
+  }
+
+  /**
+   * Plain Caffeine caches, read and written through their native {@code Cache} by {@link
+   * com.rubenrbr.products.infrastructure.cache.RevalidatingCache} and the other adapters, which
+   * coalesce loads themselves; an async cache would only wrap every entry in a completed future.
+   */
+  @Bean
+  public CacheManager cacheManager(
+      CacheProperties properties, CacheChangeNotifier notifier, CacheStatistics statistics) {
+    CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    cacheManager.setAllowNullValues(false);
+    // Only the caches registered below exist; unknown names are not created on the fly.
+    cacheManager.setCacheNames(List.of());
+    for (String name :
+        List.of(
+            PRODUCT_DETAIL,
+            SIMILAR_IDS,
+            PRODUCT_DETAIL_NOT_FOUND,
+            SIMILAR_IDS_NOT_FOUND,
+            SIMILAR_RESPONSE)) {
+      cacheManager.registerCustomCache(
+          name,
+          buildCache(
+              properties.spec(name), notifier.removalListener(name), statistics.counter(name)));
+    }
+    return cacheManager;
+  }
+
+  static Cache<Object, Object> buildCache(
+      CacheProperties.Spec spec,
+      RemovalListener<Object, Object> removalListener,
+      StatsCounter statsCounter) {
+    Caffeine<Object, Object> builder =
+        Caffeine.newBuilder().removalListener(removalListener).recordStats(() -> statsCounter);
+    if (spec.maximumWeight() != null) {
+      builder.maximumWeight(spec.maximumWeight()).weigher(CacheConfig::weigh);
+    } else if (spec.maximumSize() != null) {
+      builder.maximumSize(spec.maximumSize());
+    }
+    if (spec.retention() != null) {
+      builder.expireAfterWrite(spec.retention());
+    }
+    if (spec.expireAfterAccess() != null) {
+      builder.expireAfterAccess(spec.expireAfterAccess());
+    }
+    return builder.build();
+  }
+
+  private static int weigh(Object key, Object value) {
+    Object cached = value instanceof CacheEntry<?> entry ? entry.value() : value;
+    if (cached instanceof byte[] bytes) {
+      return bytes.length;
+    }
+    if (cached instanceof SimilarResponseCache.Response response) {
+      return response.body().length;
+    }
+    return cached instanceof Collection<?> collection ? 1 + collection.size() : 1;
   }
 }
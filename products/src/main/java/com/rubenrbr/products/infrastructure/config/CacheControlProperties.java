@@ -0,0 +1,27 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.CacheControl;
+
+/**
+ * {@code Cache-Control} of complete {@code /product/{id}/similar} responses, for browsers and CDNs:
+ * fresh for {@code max-age}, then served stale for up to {@code stale-while-revalidate} longer
+ * while they revalidate with the response's {@code ETag}. With neither set, clients revalidate on
+ * every request.
+ */
+@ConfigurationProperties(prefix = "products.similar.cache-control")
+public record CacheControlProperties(Duration maxAge, Duration staleWhileRevalidate) {
+
+  public CacheControlProperties {
+    maxAge = maxAge == null ? Duration.ZERO : maxAge;
+  }
+
+  public CacheControl cacheControl() {
+    CacheControl cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+    return staleWhileRevalidate == null
+        ? cacheControl
+        : cacheControl.staleWhileRevalidate(staleWhileRevalidate);
+  }
+}
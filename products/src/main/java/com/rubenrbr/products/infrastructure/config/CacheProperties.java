@@ -0,0 +1,61 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Per-cache bounds and expiry, keyed by cache name ({@code product-detail}, {@code similar-ids}).
+ *
+ * <p>Either {@code maximum-size} (entries) or {@code maximum-weight} may be set. The weight of an
+ * entry is 1 plus the number of elements when the value is a collection, so {@code similar-ids} can
+ * be bounded by the total number of ids held rather than by the number of lists, and its length
+ * when the value is a {@code byte[]}, so binary caches are bounded in bytes.
+ *
+ * <p>{@code refresh-after-write} is the soft TTL: older entries are still served, but trigger one
+ * background refresh. {@code expire-after-write} is the hard TTL: older entries are reloaded before
+ * being served. {@code max-stale} keeps entries for that much longer past the hard TTL, and they
+ * are served only when the reload fails for any reason other than the product not existing.
+ */
+@ConfigurationProperties(prefix = "cache")
+public record CacheProperties(Map<String, Spec> caches) {
+
+  public CacheProperties {
+    caches = caches == null ? Map.of() : Map.copyOf(caches);
+  }
+
+  public Spec spec(String cacheName) {
+    return caches.getOrDefault(cacheName, Spec.DEFAULT);
+  }
+
+  public record Spec(
+      Long maximumSize,
+      Long maximumWeight,
+      Duration expireAfterWrite,
+      Duration expireAfterAccess,
+      Duration refreshAfterWrite,
+      Duration maxStale,
+      Storage storage) {
+
+    static final Spec DEFAULT =
+        new Spec(10_000L, null, Duration.ofMinutes(10), null, null, null, Storage.OBJECTS);
+
+    public Spec {
+      storage = storage == null ? Storage.OBJECTS : storage;
+    }
+
+    /** How long an entry is retained, which is the hard TTL plus the stale-on-error window. */
+    public Duration retention() {
+      if (expireAfterWrite == null) {
+        return null;
+      }
+      return maxStale == null ? expireAfterWrite : expireAfterWrite.plus(maxStale);
+    }
+  }
+
+  public enum Storage {
+    OBJECTS,
+    COMPACT
+  }
+}
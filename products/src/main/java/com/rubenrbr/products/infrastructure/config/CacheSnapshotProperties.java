@@ -0,0 +1,24 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Snapshots of the product caches on local disk, disabled by default.
+ *
+ * <p>Snapshots are written into {@code directory} every {@code interval} and on shutdown, and
+ * restored on startup before the server accepts requests. Entries written more than {@code
+ * max-staleness} before the restore are skipped.
+ */
+@ConfigurationProperties(prefix = "cache.snapshot")
+public record CacheSnapshotProperties(
+    boolean enabled, Path directory, Duration interval, Duration maxStaleness) {
+
+  public CacheSnapshotProperties {
+    directory = directory == null ? Path.of("cache-snapshots") : directory;
+    interval = interval == null ? Duration.ofMinutes(1) : interval;
+    maxStaleness = maxStaleness == null ? Duration.ofHours(1) : maxStaleness;
+  }
+}
@@ -0,0 +1,22 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.rubenrbr.products.infrastructure.adapter.out.CircuitBreakerPartitions.PartitionBy;
+
+/**
+ * Partitioning of the product-detail circuit breaker, configured under {@code
+ * resilience4j.circuitbreaker.instances.product-detail}.
+ *
+ * <p>{@code partition-by} is {@code none} (one breaker), {@code host} (one per upstream host) or
+ * {@code id-shard} (the default: product ids hashed into {@code shards} breakers), so that a few
+ * failing products do not stop the calls for every other.
+ */
+@ConfigurationProperties(prefix = "external.api.product.circuit-breaker")
+public record CircuitBreakerPartitionProperties(PartitionBy partitionBy, Integer shards) {
+
+  public CircuitBreakerPartitionProperties {
+    partitionBy = partitionBy == null ? PartitionBy.ID_SHARD : partitionBy;
+    shards = shards == null ? 8 : shards;
+  }
+}
@@ -0,0 +1,60 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.rubenrbr.products.infrastructure.adapter.out.AimdLimit;
+import com.rubenrbr.products.infrastructure.adapter.out.ConcurrencyLimit;
+import com.rubenrbr.products.infrastructure.adapter.out.GradientLimit;
+
+/**
+ * Adaptive limit on concurrent calls to each endpoint of the product API, in place of a fixed rate.
+ *
+ * <p>Each endpoint starts at {@code initial-limit} calls in flight and moves between {@code
+ * min-limit} and {@code max-limit}. {@code gradient} shrinks the limit when calls get slower than
+ * {@code rtt-tolerance} times their usual latency; {@code aimd} shrinks it when a call is slower
+ * than {@code slow-call-threshold}. Both shrink it by {@code backoff-ratio} when a call fails.
+ * Calls over the limit wait as in the bulkhead, up to {@code max-queued-calls} for {@code
+ * max-wait}.
+ */
+@ConfigurationProperties(prefix = "external.api.product.concurrency-limit")
+public record ConcurrencyLimitProperties(
+    Boolean enabled,
+    Algorithm algorithm,
+    Integer initialLimit,
+    Integer minLimit,
+    Integer maxLimit,
+    Integer maxQueuedCalls,
+    Duration maxWait,
+    Double backoffRatio,
+    Duration slowCallThreshold,
+    Double rttTolerance) {
+
+  public enum Algorithm {
+    AIMD,
+    GRADIENT
+  }
+
+  public ConcurrencyLimitProperties {
+    enabled = enabled == null || enabled;
+    algorithm = algorithm == null ? Algorithm.GRADIENT : algorithm;
+    initialLimit = initialLimit == null ? 20 : initialLimit;
+    minLimit = minLimit == null ? 5 : minLimit;
+    maxLimit = maxLimit == null ? 500 : maxLimit;
+    maxQueuedCalls = maxQueuedCalls == null ? 500 : maxQueuedCalls;
+    maxWait = maxWait == null ? Duration.ofSeconds(1) : maxWait;
+    backoffRatio = backoffRatio == null ? 0.9 : backoffRatio;
+    slowCallThreshold = slowCallThreshold == null ? Duration.ofSeconds(1) : slowCallThreshold;
+    rttTolerance = rttTolerance == null ? 1.5 : rttTolerance;
+  }
+
+  /** A new limit, with its own state; each endpoint needs one. */
+  public ConcurrencyLimit newLimit() {
+    return switch (algorithm) {
+      case AIMD -> new AimdLimit(initialLimit, minLimit, maxLimit, backoffRatio, slowCallThreshold);
+      case GRADIENT -> new GradientLimit(
+          initialLimit, minLimit, maxLimit, rttTolerance, backoffRatio);
+    };
+  }
+}
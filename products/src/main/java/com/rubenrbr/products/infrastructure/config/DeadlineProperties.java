@@ -0,0 +1,28 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Time budget of a {@code /product/{id}/similar} request.
+ *
+ * <p>{@code default-budget} applies unless the client sends a positive {@code X-Request-Timeout}
+ * header (milliseconds), which is capped at {@code max-budget}.
+ */
+@ConfigurationProperties(prefix = "products.similar.deadline")
+public record DeadlineProperties(Duration defaultBudget, Duration maxBudget) {
+
+  public DeadlineProperties {
+    defaultBudget = defaultBudget == null ? Duration.ofSeconds(3) : defaultBudget;
+    maxBudget = maxBudget == null ? Duration.ofSeconds(10) : maxBudget;
+  }
+
+  public Duration budget(Integer requestedMillis) {
+    if (requestedMillis == null || requestedMillis <= 0) {
+      return defaultBudget;
+    }
+    Duration requested = Duration.ofMillis(requestedMillis);
+    return requested.compareTo(maxBudget) > 0 ? maxBudget : requested;
+  }
+}
@@ -0,0 +1,24 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.rubenrbr.products.domain.model.Degradation;
+
+/**
+ * How {@code /product/{id}/similar} tolerates similar products that fail: {@code fail}, {@code
+ * drop} or {@code stale} (see {@link Degradation}). {@code item-timeout}, when set, degrades a
+ * product that takes longer than that even if the request deadline has not passed.
+ */
+@ConfigurationProperties(prefix = "products.similar.degradation")
+public record DegradationProperties(Degradation.Mode mode, Duration itemTimeout) {
+
+  public DegradationProperties {
+    mode = mode == null ? Degradation.Mode.STALE : mode;
+  }
+
+  public Degradation newDegradation() {
+    return new Degradation(mode, itemTimeout);
+  }
+}
@@ -0,0 +1,23 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Hedging of product-detail calls, disabled by default.
+ *
+ * <p>A call still running after the {@code percentile} latency of recent calls (but at least {@code
+ * min-delay}) is sent a second time. {@code budget} is the largest share of extra requests hedging
+ * may add.
+ */
+@ConfigurationProperties(prefix = "external.api.product.hedging")
+public record HedgingProperties(
+    boolean enabled, Double percentile, Double budget, Duration minDelay) {
+
+  public HedgingProperties {
+    percentile = percentile == null ? 0.95 : percentile;
+    budget = budget == null ? 0.05 : budget;
+    minDelay = minDelay == null ? Duration.ofMillis(10) : minDelay;
+  }
+}
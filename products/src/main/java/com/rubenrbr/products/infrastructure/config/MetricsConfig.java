@@ -0,0 +1,57 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import java.util.function.Consumer;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.core.registry.EntryAddedEvent;
+import io.github.resilience4j.core.registry.EntryRemovedEvent;
+import io.github.resilience4j.core.registry.EntryReplacedEvent;
+import io.github.resilience4j.core.registry.RegistryEventConsumer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Resilience4j metrics not covered by its Micrometer module, which publishes call outcomes and
+ * current states but not circuit breaker state transitions.
+ */
+@Configuration
+public class MetricsConfig {
+
+  @Bean
+  public RegistryEventConsumer<CircuitBreaker> circuitBreakerTransitionMetrics(
+      MeterRegistry meterRegistry) {
+    return onEntryAdded(
+        circuitBreaker ->
+            circuitBreaker
+                .getEventPublisher()
+                .onStateTransition(
+                    event ->
+                        Counter.builder("resilience4j.circuitbreaker.transitions")
+                            .description("Circuit breaker state transitions")
+                            .tag("name", event.getCircuitBreakerName())
+                            .tag("from", event.getStateTransition().getFromState().name())
+                            .tag("to", event.getStateTransition().getToState().name())
+                            .register(meterRegistry)
+                            .increment()));
+  }
+
+  private static <E> RegistryEventConsumer<E> onEntryAdded(Consumer<E> action) {
+    return new RegistryEventConsumer<>() {
+      @Override
+      public void onEntryAddedEvent(EntryAddedEvent<E> event) {
+        action.accept(event.getAddedEntry());
+      }
+
+      @Override
+      public void onEntryRemovedEvent(EntryRemovedEvent<E> event) {}
+
+      @Override
+      public void onEntryReplacedEvent(EntryReplacedEvent<E> event) {
+        action.accept(event.getNewEntry());
+      }
+    };
+  }
+}
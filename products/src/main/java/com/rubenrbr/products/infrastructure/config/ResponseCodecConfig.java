@@ -0,0 +1,31 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+import com.rubenrbr.products.infrastructure.adapter.in.controller.ProductDetailCborEncoder;
+import com.rubenrbr.products.infrastructure.adapter.in.controller.ProductDetailJsonEncoder;
+import com.rubenrbr.products.infrastructure.adapter.in.controller.ProductDetailProtobufEncoder;
+import com.rubenrbr.products.infrastructure.rest.mapper.ProductResponseFragments;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Registers the product-detail encoders of each response media type: JSON ({@link
+ * ProductDetailJsonEncoder}, which takes precedence over Jackson for product details since it
+ * handles no other type), CBOR and Protobuf.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ResponseCodecConfig implements WebFluxConfigurer {
+
+  private final ProductResponseFragments productResponseFragments;
+
+  @Override
+  public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+    configurer.customCodecs().register(new ProductDetailJsonEncoder(productResponseFragments));
+    configurer.customCodecs().register(new ProductDetailCborEncoder());
+    configurer.customCodecs().register(new ProductDetailProtobufEncoder());
+  }
+}
@@ -0,0 +1,31 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Retries of failed calls to the product API, per endpoint.
+ *
+ * <p>A call is made at most {@code max-attempts} times. Retry {@code n} waits a random time up to
+ * {@code initial-backoff * 2^(n-1)}, at most {@code max-backoff}. {@code budget} is the largest
+ * share of extra calls retries may add, with bursts of up to {@code max-burst} retries.
+ */
+@ConfigurationProperties(prefix = "external.api.product.retry")
+public record RetryProperties(
+    Boolean enabled,
+    Integer maxAttempts,
+    Duration initialBackoff,
+    Duration maxBackoff,
+    Double budget,
+    Integer maxBurst) {
+
+  public RetryProperties {
+    enabled = enabled == null || enabled;
+    maxAttempts = maxAttempts == null ? 3 : maxAttempts;
+    initialBackoff = initialBackoff == null ? Duration.ofMillis(100) : initialBackoff;
+    maxBackoff = maxBackoff == null ? Duration.ofSeconds(2) : maxBackoff;
+    budget = budget == null ? 0.1 : budget;
+    maxBurst = maxBurst == null ? 10 : maxBurst;
+  }
+}
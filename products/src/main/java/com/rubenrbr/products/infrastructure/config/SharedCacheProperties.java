@@ -0,0 +1,24 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Second-level cache shared by all instances, disabled by default.
+ *
+ * <p>{@code uri} is a Redis URI. Keys are {@code key-prefix} followed by the cache name and the
+ * key, and writes are announced on {@code channel} so other instances drop their local copies.
+ * {@code timeout} bounds every command; a slower or unavailable server is treated as a miss.
+ */
+@ConfigurationProperties(prefix = "cache.shared")
+public record SharedCacheProperties(
+    boolean enabled, String uri, String keyPrefix, String channel, Duration timeout) {
+
+  public SharedCacheProperties {
+    uri = uri == null ? "redis://localhost:6379" : uri;
+    keyPrefix = keyPrefix == null ? "products:" : keyPrefix;
+    channel = channel == null ? "products:cache-changes" : channel;
+    timeout = timeout == null ? Duration.ofMillis(100) : timeout;
+  }
+}
@@ -0,0 +1,12 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({
+  DeadlineProperties.class,
+  DegradationProperties.class,
+  CacheControlProperties.class
+})
+public class SimilarProductsConfig {}
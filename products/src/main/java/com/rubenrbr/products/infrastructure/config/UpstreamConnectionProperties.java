@@ -0,0 +1,62 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import reactor.netty.http.HttpProtocol;
+
+/**
+ * Connections to the product API. Each endpoint ({@code product-similar-ids}, {@code
+ * product-detail}) has its own pool, so a burst of detail calls cannot starve similar-ids lookups.
+ *
+ * <p>{@code protocols} is {@code [http11]} by default. {@code [h2c]} speaks cleartext HTTP/2 with
+ * prior knowledge, multiplexing requests over few connections; {@code [http11, h2c]} upgrades from
+ * HTTP/1.1 when the server supports it.
+ *
+ * <p>Per pool, {@code max-connections} bounds the open connections and {@code
+ * pending-acquire-max-count} the requests waiting for one, which fail once {@code
+ * pending-acquire-timeout} has passed. Connections idle for {@code max-idle-time} or open for
+ * {@code max-life-time} are closed, checked every {@code evict-in-background}.
+ */
+@ConfigurationProperties(prefix = "external.api.product.connection")
+public record UpstreamConnectionProperties(
+    List<HttpProtocol> protocols,
+    Duration connectTimeout,
+    Boolean keepAlive,
+    Map<String, Pool> pools) {
+
+  public UpstreamConnectionProperties {
+    protocols = protocols == null || protocols.isEmpty() ? List.of(HttpProtocol.HTTP11) : protocols;
+    connectTimeout = connectTimeout == null ? Duration.ofSeconds(2) : connectTimeout;
+    keepAlive = keepAlive == null || keepAlive;
+    pools = pools == null ? Map.of() : Map.copyOf(pools);
+  }
+
+  public Pool pool(String endpoint) {
+    return pools.getOrDefault(endpoint, Pool.DEFAULT);
+  }
+
+  public record Pool(
+      Integer maxConnections,
+      Integer pendingAcquireMaxCount,
+      Duration pendingAcquireTimeout,
+      Duration maxIdleTime,
+      Duration maxLifeTime,
+      Duration evictInBackground) {
+
+    static final Pool DEFAULT = new Pool(null, null, null, null, null, null);
+
+    public Pool {
+      maxConnections = maxConnections == null ? 100 : maxConnections;
+      pendingAcquireMaxCount = pendingAcquireMaxCount == null ? 1000 : pendingAcquireMaxCount;
+      pendingAcquireTimeout =
+          pendingAcquireTimeout == null ? Duration.ofSeconds(5) : pendingAcquireTimeout;
+      maxIdleTime = maxIdleTime == null ? Duration.ofSeconds(30) : maxIdleTime;
+      maxLifeTime = maxLifeTime == null ? Duration.ofMinutes(5) : maxLifeTime;
+      evictInBackground = evictInBackground == null ? Duration.ofSeconds(30) : evictInBackground;
+    }
+  }
+}
@@ -1,18 +1,47 @@
 package com.rubenrbr.products.infrastructure.config;
 
+import java.net.URI;
 import java.time.Duration;
+import java.util.function.Predicate;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rubenrbr.products.infrastructure.adapter.out.CircuitBreakerPartitions;
+import com.rubenrbr.products.infrastructure.adapter.out.ConcurrencyLimit;
+import com.rubenrbr.products.infrastructure.adapter.out.ProductDetailBatcher;
+import com.rubenrbr.products.infrastructure.adapter.out.ProductDetailJsonDecoder;
+import com.rubenrbr.products.infrastructure.adapter.out.ProductExistingApiClient;
+import com.rubenrbr.products.infrastructure.adapter.out.RequestHedger;
+import com.rubenrbr.products.infrastructure.adapter.out.UpstreamBulkhead;
+import com.rubenrbr.products.infrastructure.adapter.out.UpstreamRetry;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 @Configuration
+@EnableConfigurationProperties({
+  HedgingProperties.class,
+  UpstreamConnectionProperties.class,
+  BulkheadProperties.class,
+  ConcurrencyLimitProperties.class,
+  BatchingProperties.class,
+  RetryProperties.class,
+  CircuitBreakerPartitionProperties.class
+})
 public class WebClientConfig {
 
   @Value("${external.api.product.base-url}")
@@ -21,14 +50,189 @@ public class WebClientConfig {
   @Value("${external.api.product.timeout}")
   private int timeout;
 
+  /**
+   * Built from the Boot-managed builder so that requests are recorded as http.client.requests.
+   * Similar-ids and detail requests go through separate connection pools, and product details are
+   * decoded with {@link ProductDetailJsonDecoder}.
+   */
   @Bean
-  public WebClient productApiWebClient() {
-    return WebClient.builder()
+  public WebClient productApiWebClient(
+      WebClient.Builder builder,
+      ObjectMapper objectMapper,
+      UpstreamConnectionProperties properties,
+      @Qualifier("similarIdsConnectionProvider") ConnectionProvider similarIdsConnectionProvider,
+      @Qualifier("productDetailConnectionProvider")
+          ConnectionProvider productDetailConnectionProvider) {
+    return builder
         .baseUrl(baseUrl)
         .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+        .codecs(
+            codecs ->
+                codecs
+                    .customCodecs()
+                    .register(new ProductDetailJsonDecoder(objectMapper.getFactory())))
         .clientConnector(
-            new ReactorClientHttpConnector(
-                HttpClient.create().responseTimeout(Duration.ofSeconds(timeout))))
+            routeByPath(
+                path -> path.endsWith("/similarids"),
+                connector(similarIdsConnectionProvider, properties, Duration.ofSeconds(timeout)),
+                connector(
+                    productDetailConnectionProvider, properties, Duration.ofSeconds(timeout))))
+        .build();
+  }
+
+  @Bean(destroyMethod = "dispose")
+  public ConnectionProvider similarIdsConnectionProvider(UpstreamConnectionProperties properties) {
+    return connectionProvider("product-similar-ids", properties.pool("product-similar-ids"));
+  }
+
+  @Bean(destroyMethod = "dispose")
+  public ConnectionProvider productDetailConnectionProvider(
+      UpstreamConnectionProperties properties) {
+    return connectionProvider("product-detail", properties.pool("product-detail"));
+  }
+
+  /** Pool metrics are published as reactor.netty.connection.provider.*, tagged by pool name. */
+  static ConnectionProvider connectionProvider(
+      String name, UpstreamConnectionProperties.Pool pool) {
+    return ConnectionProvider.builder(name)
+        .maxConnections(pool.maxConnections())
+        .pendingAcquireMaxCount(pool.pendingAcquireMaxCount())
+        .pendingAcquireTimeout(pool.pendingAcquireTimeout())
+        .maxIdleTime(pool.maxIdleTime())
+        .maxLifeTime(pool.maxLifeTime())
+        .evictInBackground(pool.evictInBackground())
+        .metrics(true)
         .build();
   }
+
+  static ClientHttpConnector connector(
+      ConnectionProvider connectionProvider,
+      UpstreamConnectionProperties properties,
+      Duration responseTimeout) {
+    return new ReactorClientHttpConnector(
+        HttpClient.create(connectionProvider)
+            .protocol(properties.protocols().toArray(HttpProtocol[]::new))
+            .option(
+                ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.connectTimeout().toMillis())
+            .option(ChannelOption.SO_KEEPALIVE, properties.keepAlive())
+            .responseTimeout(responseTimeout));
+  }
+
+  /**
+   * Sends requests whose path matches {@code predicate} to {@code matching}, the rest to {@code
+   * other}.
+   */
+  static ClientHttpConnector routeByPath(
+      Predicate<String> predicate, ClientHttpConnector matching, ClientHttpConnector other) {
+    return (method, uri, requestCallback) ->
+        (predicate.test(uri.getPath()) ? matching : other).connect(method, uri, requestCallback);
+  }
+
+  @Bean
+  public UpstreamBulkhead upstreamBulkhead(
+      BulkheadProperties properties, MeterRegistry meterRegistry) {
+    if (!properties.enabled()) {
+      return UpstreamBulkhead.disabled();
+    }
+    return new UpstreamBulkhead(
+        "product-api",
+        true,
+        ConcurrencyLimit.fixed(properties.maxConcurrentCalls()),
+        properties.maxQueuedCalls(),
+        properties.maxWait(),
+        meterRegistry);
+  }
+
+  @Bean
+  public UpstreamBulkhead similarIdsLimiter(
+      ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+    return concurrencyLimiter("product-similar-ids", properties, meterRegistry);
+  }
+
+  @Bean
+  public UpstreamBulkhead productDetailLimiter(
+      ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+    return concurrencyLimiter("product-detail", properties, meterRegistry);
+  }
+
+  private static UpstreamBulkhead concurrencyLimiter(
+      String name, ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+    if (!properties.enabled()) {
+      return UpstreamBulkhead.disabled();
+    }
+    return new UpstreamBulkhead(
+        name,
+        true,
+        properties.newLimit(),
+        properties.maxQueuedCalls(),
+        properties.maxWait(),
+        meterRegistry);
+  }
+
+  @Bean
+  public UpstreamRetry similarIdsRetry(RetryProperties properties, MeterRegistry meterRegistry) {
+    return retry("product-similar-ids", properties, meterRegistry);
+  }
+
+  @Bean
+  public UpstreamRetry productDetailRetry(RetryProperties properties, MeterRegistry meterRegistry) {
+    return retry("product-detail", properties, meterRegistry);
+  }
+
+  private static UpstreamRetry retry(
+      String endpoint, RetryProperties properties, MeterRegistry meterRegistry) {
+    if (!properties.enabled()) {
+      return UpstreamRetry.disabled();
+    }
+    return new UpstreamRetry(
+        endpoint,
+        true,
+        properties.maxAttempts(),
+        properties.initialBackoff(),
+        properties.maxBackoff(),
+        properties.budget(),
+        properties.maxBurst(),
+        meterRegistry);
+  }
+
+  @Bean
+  public CircuitBreakerPartitions productDetailBreakers(
+      CircuitBreakerRegistry registry, CircuitBreakerPartitionProperties properties) {
+    return new CircuitBreakerPartitions(
+        registry,
+        "product-detail",
+        properties.partitionBy(),
+        properties.shards(),
+        URI.create(baseUrl).getAuthority());
+  }
+
+  @Bean
+  public RequestHedger productDetailHedger(
+      HedgingProperties properties, MeterRegistry meterRegistry) {
+    if (!properties.enabled()) {
+      return RequestHedger.disabled();
+    }
+    return new RequestHedger(
+        "product-detail",
+        true,
+        properties.percentile(),
+        properties.budget(),
+        properties.minDelay(),
+        meterRegistry);
+  }
+
+  @Bean
+  public ProductDetailBatcher productDetailBatcher(
+      BatchingProperties properties, ProductExistingApiClient client) {
+    if (!properties.enabled()) {
+      return ProductDetailBatcher.disabled(client::getProductDetail);
+    }
+    return new ProductDetailBatcher(
+        true,
+        client::getProductDetail,
+        properties.path() == null ? null : ids -> client.getProductDetails(properties.path(), ids),
+        properties.window(),
+        properties.maxBatchSize(),
+        properties.timeout());
+  }
 }
@@ -4,11 +4,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ServerWebInputException;
 
+import com.rubenrbr.products.domain.exception.DeadlineExceededException;
 import com.rubenrbr.products.domain.exception.ExternalApiException;
 import com.rubenrbr.products.domain.exception.ProductNotFoundException;
+import com.rubenrbr.products.domain.exception.UpstreamOverloadedException;
+import com.rubenrbr.products.domain.exception.UpstreamUnavailableException;
 
 import io.swagger.v3.oas.annotations.Hidden;
+import jakarta.validation.ConstraintViolationException;
 
 @Hidden
 @ControllerAdvice
@@ -24,6 +29,33 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
   }
 
+  @ExceptionHandler(DeadlineExceededException.class)
+  public ResponseEntity<String> handleDeadlineExceededException(DeadlineExceededException ex) {
+    return new ResponseEntity<>(ex.getMessage(), HttpStatus.GATEWAY_TIMEOUT);
+  }
+
+  @ExceptionHandler(UpstreamOverloadedException.class)
+  public ResponseEntity<String> handleUpstreamOverloadedException(UpstreamOverloadedException ex) {
+    return new ResponseEntity<>(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  @ExceptionHandler(UpstreamUnavailableException.class)
+  public ResponseEntity<String> handleUpstreamUnavailableException(
+      UpstreamUnavailableException ex) {
+    return new ResponseEntity<>(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  @ExceptionHandler(ServerWebInputException.class)
+  public ResponseEntity<String> handleServerWebInputException(ServerWebInputException ex) {
+    return new ResponseEntity<>(ex.getReason(), HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler(ConstraintViolationException.class)
+  public ResponseEntity<String> handleConstraintViolationException(
+      ConstraintViolationException ex) {
+    return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<String> handleGeneralException(Exception ex) {
     return new ResponseEntity<>(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -0,0 +1,51 @@
+package com.rubenrbr.products.infrastructure.rest.mapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+
+/**
+ * Writes a {@link ProductDetailDto} as the contract's {@code ProductDetail} JSON object, byte for
+ * byte as Jackson data binding would, but with the streaming generator and no reflection. The same
+ * object can be written in other Jackson formats, such as CBOR, through their generator.
+ */
+public final class ProductDetailJsonWriter {
+
+  private static final JsonFactory JSON = new JsonFactory();
+
+  private ProductDetailJsonWriter() {}
+
+  public static byte[] write(ProductDetailDto product) {
+    return write(product, JSON);
+  }
+
+  public static byte[] write(ProductDetailDto product, JsonFactory format) {
+    try (ByteArrayBuilder out = new ByteArrayBuilder(96)) {
+      try (JsonGenerator generator = format.createGenerator(out)) {
+        write(product, generator);
+      }
+      return out.toByteArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public static void write(ProductDetailDto product, JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("id", product.getId());
+    generator.writeStringField("name", product.getName());
+    generator.writeFieldName("price");
+    generator.writeNumber(product.getPrice());
+    generator.writeFieldName("availability");
+    if (product.getAvailability() == null) {
+      generator.writeNull();
+    } else {
+      generator.writeBoolean(product.getAvailability());
+    }
+    generator.writeEndObject();
+  }
+}
@@ -0,0 +1,35 @@
+package com.rubenrbr.products.infrastructure.rest.mapper;
+
+import com.rubenrbr.products.domain.model.ProductDetail;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+
+/**
+ * Response forms of products prepared once, when they were cached, so that responses need neither
+ * mapping nor serialization. Both lookups return {@code null} for products not prepared this way.
+ */
+public interface ProductResponseFragments {
+
+  /** The response DTO prepared along with this very product instance. */
+  ProductDetailDto response(ProductDetail product);
+
+  /** The JSON of this very response DTO instance, as written by {@link ProductDetailJsonWriter}. */
+  byte[] json(ProductDetailDto response);
+
+  /**
+   * The {@link #hash} of the response's JSON, which implementations may keep with the prepared JSON
+   * instead of hashing it on every call.
+   */
+  default long contentHash(ProductDetailDto response) {
+    byte[] json = json(response);
+    return hash(json != null ? json : ProductDetailJsonWriter.write(response));
+  }
+
+  /** 64-bit FNV-1a hash of a product's JSON: the same on every instance and every restart. */
+  static long hash(byte[] json) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : json) {
+      hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+    }
+    return hash;
+  }
+}
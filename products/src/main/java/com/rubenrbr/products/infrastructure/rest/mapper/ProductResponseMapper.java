@@ -1,7 +1,5 @@
 package com.rubenrbr.products.infrastructure.rest.mapper;
 
-import java.util.Set;
-
 import org.mapstruct.Mapper;
 
 import com.rubenrbr.products.domain.model.ProductDetail;
@@ -11,6 +9,4 @@ import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
 public interface ProductResponseMapper {
 
   ProductDetailDto productDetailToProductDetailDto(ProductDetail product);
-
-  Set<ProductDetailDto> productDetailToProductDetailDto(Set<ProductDetail> product);
 }
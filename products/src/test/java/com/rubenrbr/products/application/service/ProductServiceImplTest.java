@@ -9,21 +9,29 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.rubenrbr.products.domain.exception.DeadlineExceededException;
+import com.rubenrbr.products.domain.exception.ExternalApiException;
 import com.rubenrbr.products.domain.exception.ProductNotFoundException;
+import com.rubenrbr.products.domain.exception.UpstreamUnavailableException;
+import com.rubenrbr.products.domain.model.Deadline;
+import com.rubenrbr.products.domain.model.Degradation;
 import com.rubenrbr.products.domain.model.ProductDetail;
+import com.rubenrbr.products.domain.model.SimilarProductsResult;
 import com.rubenrbr.products.domain.port.out.ProductRepository;
 
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,7 +40,7 @@ class ProductServiceImplTest {
 
   @Mock private ProductRepository productRepository;
 
-  @InjectMocks private ProductServiceImpl productService;
+  private ProductServiceImpl productService;
 
   private ProductDetail productDetail1;
   private ProductDetail productDetail2;
@@ -40,6 +48,8 @@ class ProductServiceImplTest {
 
   @BeforeEach
   void setUp() {
+    productService = new ProductServiceImpl(productRepository, 32);
+
     productDetail1 = createProductDetail("1", "Product 1", BigDecimal.valueOf(10.99), true);
 
     productDetail2 = createProductDetail("2", "Product 2", BigDecimal.valueOf(20.99), true);
@@ -58,7 +68,7 @@ class ProductServiceImplTest {
     when(productRepository.getProductDetail("2")).thenReturn(Mono.just(productDetail2));
     when(productRepository.getProductDetail("3")).thenReturn(Mono.just(productDetail3));
 
-    StepVerifier.create(productService.getSimilarProducts(productId))
+    StepVerifier.create(productService.getSimilarProducts(productId, null))
         .assertNext(
             products -> {
               assertThat(products).hasSize(3);
@@ -74,14 +84,124 @@ class ProductServiceImplTest {
   }
 
   @Test
-  @DisplayName("Should return empty set when no similar products exist")
-  void shouldReturnEmptySetWhenNoSimilarProductsExist() {
+  @DisplayName("Should keep the similarity order whatever order the products resolve in")
+  void shouldKeepSimilarityOrder() {
+    String productId = "100";
+
+    when(productRepository.getSimilarIds(productId)).thenReturn(Mono.just(List.of("3", "1", "2")));
+    when(productRepository.getProductDetail("3"))
+        .thenReturn(Mono.delay(Duration.ofMillis(50)).thenReturn(productDetail3));
+    when(productRepository.getProductDetail("1")).thenReturn(Mono.just(productDetail1));
+    when(productRepository.getProductDetail("2"))
+        .thenReturn(Mono.delay(Duration.ofMillis(10)).thenReturn(productDetail2));
+
+    StepVerifier.create(productService.getSimilarProducts(productId, null))
+        .assertNext(
+            products ->
+                assertThat(products)
+                    .containsExactly(productDetail3, productDetail1, productDetail2))
+        .expectComplete()
+        .verify(Duration.ofSeconds(5));
+  }
+
+  @Test
+  @DisplayName("Should stream each product once it and all more similar ones have resolved")
+  void shouldStreamProductsInOrderAsTheyResolve() {
+    String productId = "100";
+    Sinks.One<ProductDetail> first = Sinks.one();
+
+    when(productRepository.getSimilarIds(productId)).thenReturn(Mono.just(List.of("1", "2", "3")));
+    when(productRepository.getProductDetail("1")).thenReturn(first.asMono());
+    when(productRepository.getProductDetail("2")).thenReturn(Mono.just(productDetail2));
+    when(productRepository.getProductDetail("3")).thenReturn(Mono.never());
+
+    StepVerifier.create(productService.streamSimilarProducts(productId, null))
+        .expectSubscription()
+        .expectNoEvent(Duration.ofMillis(50))
+        .then(() -> first.tryEmitValue(productDetail1))
+        .expectNext(productDetail1, productDetail2)
+        .thenCancel()
+        .verify(Duration.ofSeconds(5));
+  }
+
+  @Test
+  @DisplayName("Should hold back at most the fan-out concurrency behind a slow product")
+  void shouldBoundReorderBuffer() {
+    String productId = "100";
+    AtomicInteger lookups = new AtomicInteger();
+    productService = new ProductServiceImpl(productRepository, 2);
+
+    when(productRepository.getSimilarIds(productId))
+        .thenReturn(Mono.just(List.of("1", "2", "3", "4")));
+    when(productRepository.getProductDetail("1")).thenReturn(Mono.never());
+    when(productRepository.getProductDetail("2"))
+        .thenReturn(
+            Mono.fromCallable(() -> productDetail2).doOnSubscribe(s -> lookups.incrementAndGet()));
+
+    StepVerifier.create(productService.streamSimilarProducts(productId, null))
+        .expectSubscription()
+        .expectNoEvent(Duration.ofMillis(50))
+        .thenCancel()
+        .verify();
+
+    assertThat(lookups).hasValue(1);
+    verify(productRepository, never()).getProductDetail("3");
+  }
+
+  @Test
+  @DisplayName("Should look up only the most similar products up to the limit")
+  void shouldLookUpOnlyProductsUpToLimit() {
+    String productId = "100";
+
+    when(productRepository.getSimilarIds(productId))
+        .thenReturn(Mono.just(List.of("1", "2", "2", "3", "4")));
+    when(productRepository.getProductDetail("1")).thenReturn(Mono.just(productDetail1));
+    when(productRepository.getProductDetail("2")).thenReturn(Mono.just(productDetail2));
+
+    StepVerifier.create(productService.getSimilarProducts(productId, 2))
+        .assertNext(
+            products -> assertThat(products).containsExactly(productDetail1, productDetail2))
+        .verifyComplete();
+
+    verify(productRepository, never()).getProductDetail("3");
+    verify(productRepository, never()).getProductDetail("4");
+  }
+
+  @Test
+  @DisplayName("Should backfill from lower ranks only for products missing or dropped")
+  void shouldBackfillMissingProductsInRankOrder() {
+    String productId = "100";
+    ProductDetail productDetail4 =
+        createProductDetail("4", "Product 4", BigDecimal.valueOf(40.99), true);
+    Degradation degradation = new Degradation(Degradation.Mode.DROP, null);
+
+    when(productRepository.getSimilarIds(productId))
+        .thenReturn(Mono.just(List.of("1", "2", "3", "4", "5")));
+    when(productRepository.getProductDetail("1"))
+        .thenReturn(Mono.error(new ProductNotFoundException("1")));
+    when(productRepository.getProductDetail("2")).thenReturn(Mono.just(productDetail2));
+    when(productRepository.getProductDetail("3"))
+        .thenReturn(Mono.error(new ExternalApiException()));
+    when(productRepository.getProductDetail("4")).thenReturn(Mono.just(productDetail4));
+
+    StepVerifier.create(
+            productService.streamSimilarProducts(productId, 2).contextWrite(degradation::putIn))
+        .expectNext(productDetail2, productDetail4)
+        .verifyComplete();
+
+    verify(productRepository, never()).getProductDetail("5");
+    assertThat(degradation.droppedCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should return empty list when no similar products exist")
+  void shouldReturnEmptyListWhenNoSimilarProductsExist() {
     String productId = "100";
     List<String> similarIds = List.of();
 
     when(productRepository.getSimilarIds(productId)).thenReturn(Mono.just(similarIds));
 
-    StepVerifier.create(productService.getSimilarProducts(productId))
+    StepVerifier.create(productService.getSimilarProducts(productId, null))
         .assertNext(products -> assertThat(products).isEmpty())
         .verifyComplete();
 
@@ -101,7 +221,7 @@ class ProductServiceImplTest {
         .thenReturn(Mono.error(new ProductNotFoundException("Product 2 not found")));
     when(productRepository.getProductDetail("3")).thenReturn(Mono.just(productDetail3));
 
-    StepVerifier.create(productService.getSimilarProducts(productId))
+    StepVerifier.create(productService.getSimilarProducts(productId, null))
         .assertNext(
             products -> {
               assertThat(products).hasSize(2);
@@ -115,8 +235,8 @@ class ProductServiceImplTest {
   }
 
   @Test
-  @DisplayName("Should return empty set when all products throw ProductNotFoundException")
-  void shouldReturnEmptySetWhenAllProductsThrowProductNotFoundException() {
+  @DisplayName("Should return empty list when all products throw ProductNotFoundException")
+  void shouldReturnEmptyListWhenAllProductsThrowProductNotFoundException() {
     String productId = "100";
     List<String> similarIds = List.of("1", "2", "3");
 
@@ -128,7 +248,7 @@ class ProductServiceImplTest {
     when(productRepository.getProductDetail("3"))
         .thenReturn(Mono.error(new ProductNotFoundException("Product 3 not found")));
 
-    StepVerifier.create(productService.getSimilarProducts(productId))
+    StepVerifier.create(productService.getSimilarProducts(productId, null))
         .assertNext(products -> assertThat(products).isEmpty())
         .verifyComplete();
 
@@ -144,7 +264,7 @@ class ProductServiceImplTest {
 
     when(productRepository.getSimilarIds(productId)).thenReturn(Mono.error(exception));
 
-    StepVerifier.create(productService.getSimilarProducts(productId))
+    StepVerifier.create(productService.getSimilarProducts(productId, null))
         .expectErrorMatches(
             e -> e instanceof RuntimeException && e.getMessage().equals("Database error"))
         .verify();
@@ -164,7 +284,7 @@ class ProductServiceImplTest {
     when(productRepository.getProductDetail("1")).thenReturn(Mono.just(productDetail1));
     when(productRepository.getProductDetail("2")).thenReturn(Mono.error(exception));
 
-    StepVerifier.create(productService.getSimilarProducts(productId))
+    StepVerifier.create(productService.getSimilarProducts(productId, null))
         .expectErrorMatches(
             e -> e instanceof RuntimeException && e.getMessage().equals("Unexpected error"))
         .verify();
@@ -181,7 +301,7 @@ class ProductServiceImplTest {
     when(productRepository.getSimilarIds(productId)).thenReturn(Mono.just(similarIds));
     when(productRepository.getProductDetail("1")).thenReturn(Mono.just(productDetail1));
 
-    StepVerifier.create(productService.getSimilarProducts(productId))
+    StepVerifier.create(productService.getSimilarProducts(productId, null))
         .assertNext(
             products -> {
               assertThat(products).hasSize(1);
@@ -191,7 +311,7 @@ class ProductServiceImplTest {
   }
 
   @Test
-  @DisplayName("Should handle duplicate product IDs and return unique products")
+  @DisplayName("Should look up duplicate product IDs once and return unique products")
   void shouldHandleDuplicateProductIds() {
     String productId = "100";
     List<String> similarIds = List.of("1", "1", "2");
@@ -200,15 +320,291 @@ class ProductServiceImplTest {
     when(productRepository.getProductDetail("1")).thenReturn(Mono.just(productDetail1));
     when(productRepository.getProductDetail("2")).thenReturn(Mono.just(productDetail2));
 
-    StepVerifier.create(productService.getSimilarProducts(productId))
+    StepVerifier.create(productService.getSimilarProducts(productId, null))
         .assertNext(
             products -> {
               assertThat(products).hasSize(2);
-              assertThat(products).containsExactlyInAnyOrder(productDetail1, productDetail2);
+              assertThat(products).containsExactly(productDetail1, productDetail2);
             })
         .verifyComplete();
 
-    verify(productRepository, times(2)).getProductDetail("1");
+    verify(productRepository, times(1)).getProductDetail("1");
     verify(productRepository).getProductDetail("2");
   }
+
+  @Test
+  @DisplayName("Should return the products resolved before the deadline")
+  void shouldReturnProductsResolvedBeforeDeadline() {
+    String productId = "100";
+    Deadline deadline = Deadline.after(Duration.ofMillis(100));
+
+    when(productRepository.getSimilarIds(productId)).thenReturn(Mono.just(List.of("1", "2")));
+    when(productRepository.getProductDetail("1")).thenReturn(Mono.just(productDetail1));
+    when(productRepository.getProductDetail("2")).thenReturn(Mono.never());
+
+    StepVerifier.create(
+            productService.getSimilarProducts(productId, null).contextWrite(deadline::putIn))
+        .assertNext(products -> assertThat(products).containsExactly(productDetail1))
+        .expectComplete()
+        .verify(Duration.ofSeconds(5));
+
+    assertThat(deadline.exceeded()).isTrue();
+  }
+
+  @Test
+  @DisplayName("Should fail when the similar ids are not resolved before the deadline")
+  void shouldFailWhenSimilarIdsMissTheDeadline() {
+    String productId = "100";
+    Deadline deadline = Deadline.after(Duration.ofMillis(50));
+
+    when(productRepository.getSimilarIds(productId)).thenReturn(Mono.never());
+
+    StepVerifier.create(
+            productService.getSimilarProducts(productId, null).contextWrite(deadline::putIn))
+        .expectError(DeadlineExceededException.class)
+        .verify(Duration.ofSeconds(5));
+
+    verify(productRepository, never()).getProductDetail(anyString());
+  }
+
+  @Test
+  @DisplayName("Should not mark the deadline exceeded when every product resolves in time")
+  void shouldNotMarkDeadlineExceededWhenAllResolveInTime() {
+    String productId = "100";
+    Deadline deadline = Deadline.after(Duration.ofSeconds(5));
+
+    when(productRepository.getSimilarIds(productId)).thenReturn(Mono.just(List.of("1")));
+    when(productRepository.getProductDetail("1")).thenReturn(Mono.just(productDetail1));
+
+    StepVerifier.create(
+            productService.getSimilarProducts(productId, null).contextWrite(deadline::putIn))
+        .assertNext(products -> assertThat(products).containsExactly(productDetail1))
+        .verifyComplete();
+
+    assertThat(deadline.exceeded()).isFalse();
+  }
+
+  @Test
+  @DisplayName("Should drop failing products when degrading by dropping")
+  void shouldDropFailingProductsWhenDegradingByDropping() {
+    String productId = "100";
+    Degradation degradation = new Degradation(Degradation.Mode.DROP, null);
+
+    when(productRepository.getSimilarIds(productId)).thenReturn(Mono.just(List.of("1", "2")));
+    when(productRepository.getProductDetail("1")).thenReturn(Mono.just(productDetail1));
+    when(productRepository.getProductDetail("2"))
+        .thenReturn(Mono.error(new ExternalApiException()));
+
+    StepVerifier.create(
+            productService.getSimilarProducts(productId, null).contextWrite(degradation::putIn))
+        .assertNext(products -> assertThat(products).containsExactly(productDetail1))
+        .verifyComplete();
+
+    assertThat(degradation.droppedCount()).isEqualTo(1);
+    verify(productRepository, never()).getCachedProductDetail(anyString());
+  }
+
+  @Test
+  @DisplayName("Should serve failing products from the cache when degrading to stale")
+  void shouldServeFailingProductsStaleWhenDegradingToStale() {
+    String productId = "100";
+    Degradation degradation = new Degradation(Degradation.Mode.STALE, null);
+
+    when(productRepository.getSimilarIds(productId)).thenReturn(Mono.just(List.of("1", "2", "3")));
+    when(productRepository.getProductDetail("1")).thenReturn(Mono.just(productDetail1));
+    when(productRepository.getProductDetail("2"))
+        .thenReturn(Mono.error(new ExternalApiException()));
+    when(productRepository.getProductDetail("3"))
+        .thenReturn(Mono.error(new ExternalApiException()));
+    when(productRepository.getCachedProductDetail("2")).thenReturn(Mono.just(productDetail2));
+    when(productRepository.getCachedProductDetail("3")).thenReturn(Mono.empty());
+
+    StepVerifier.create(
+            productService.getSimilarProducts(productId, null).contextWrite(degradation::putIn))
+        .assertNext(
+            products ->
+                assertThat(products).containsExactlyInAnyOrder(productDetail1, productDetail2))
+        .verifyComplete();
+
+    assertThat(degradation.servedStaleCount()).isEqualTo(1);
+    assertThat(degradation.droppedCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should serve cached products while the upstream is unavailable in any mode")
+  void shouldServeCachedProductsWhileUpstreamIsUnavailable() {
+    String productId = "100";
+    Degradation degradation = new Degradation(Degradation.Mode.FAIL, null);
+
+    when(productRepository.getSimilarIds(productId)).thenReturn(Mono.just(List.of("1", "2")));
+    when(productRepository.getProductDetail("1")).thenReturn(Mono.just(productDetail1));
+    when(productRepository.getProductDetail("2"))
+        .thenReturn(Mono.error(new UpstreamUnavailableException()));
+    when(productRepository.getCachedProductDetail("2")).thenReturn(Mono.just(productDetail2));
+
+    StepVerifier.create(
+            productService.getSimilarProducts(productId, null).contextWrite(degradation::putIn))
+        .assertNext(
+            products ->
+                assertThat(products).containsExactlyInAnyOrder(productDetail1, productDetail2))
+        .verifyComplete();
+
+    assertThat(degradation.servedStaleCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should fail when the upstream is unavailable and nothing is cached in fail mode")
+  void shouldFailWhenUpstreamIsUnavailableAndNothingIsCached() {
+    String productId = "100";
+    Degradation degradation = new Degradation(Degradation.Mode.FAIL, null);
+
+    when(productRepository.getSimilarIds(productId)).thenReturn(Mono.just(List.of("2")));
+    when(productRepository.getProductDetail("2"))
+        .thenReturn(Mono.error(new UpstreamUnavailableException()));
+    when(productRepository.getCachedProductDetail("2")).thenReturn(Mono.empty());
+
+    StepVerifier.create(
+            productService.getSimilarProducts(productId, null).contextWrite(degradation::putIn))
+        .expectError(UpstreamUnavailableException.class)
+        .verify();
+  }
+
+  @Test
+  @DisplayName("Should degrade products slower than the item timeout")
+  void shouldDegradeProductsSlowerThanItemTimeout() {
+    String productId = "100";
+    Degradation degradation = new Degradation(Degradation.Mode.STALE, Duration.ofMillis(50));
+
+    when(productRepository.getSimilarIds(productId)).thenReturn(Mono.just(List.of("1", "2")));
+    when(productRepository.getProductDetail("1")).thenReturn(Mono.just(productDetail1));
+    when(productRepository.getProductDetail("2")).thenReturn(Mono.never());
+    when(productRepository.getCachedProductDetail("2")).thenReturn(Mono.just(productDetail2));
+
+    StepVerifier.create(
+            productService.getSimilarProducts(productId, null).contextWrite(degradation::putIn))
+        .assertNext(
+            products ->
+                assertThat(products).containsExactlyInAnyOrder(productDetail1, productDetail2))
+        .expectComplete()
+        .verify(Duration.ofSeconds(5));
+
+    assertThat(degradation.servedStaleCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should still fail when the similar ids lookup fails while degrading")
+  void shouldFailWhenSimilarIdsFailWhileDegrading() {
+    String productId = "100";
+    Degradation degradation = new Degradation(Degradation.Mode.STALE, null);
+
+    when(productRepository.getSimilarIds(productId))
+        .thenReturn(Mono.error(new ExternalApiException()));
+
+    StepVerifier.create(
+            productService.getSimilarProducts(productId, null).contextWrite(degradation::putIn))
+        .expectError(ExternalApiException.class)
+        .verify();
+  }
+
+  @Test
+  @DisplayName("Should look up at most the configured number of products at once")
+  void shouldBoundFanOutConcurrency() {
+    String productId = "100";
+    AtomicInteger inFlight = new AtomicInteger();
+    productService = new ProductServiceImpl(productRepository, 2);
+
+    when(productRepository.getSimilarIds(productId))
+        .thenReturn(Mono.just(List.of("1", "2", "3", "4")));
+    when(productRepository.getProductDetail(anyString()))
+        .thenReturn(Mono.<ProductDetail>never().doOnSubscribe(s -> inFlight.incrementAndGet()));
+
+    StepVerifier.create(productService.getSimilarProducts(productId, null))
+        .expectSubscription()
+        .expectNoEvent(Duration.ofMillis(50))
+        .thenCancel()
+        .verify();
+
+    assertThat(inFlight).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Should look up each product of several similar-ids lists once")
+  void shouldLookUpSharedProductsOnceInBulk() {
+    when(productRepository.getSimilarIds("100")).thenReturn(Mono.just(List.of("1", "2")));
+    when(productRepository.getSimilarIds("200")).thenReturn(Mono.just(List.of("3", "2", "3")));
+    when(productRepository.getProductDetail("1")).thenReturn(Mono.just(productDetail1));
+    when(productRepository.getProductDetail("2")).thenReturn(Mono.just(productDetail2));
+    when(productRepository.getProductDetail("3")).thenReturn(Mono.just(productDetail3));
+
+    StepVerifier.create(productService.getBulkSimilarProducts(List.of("200", "100", "200")))
+        .assertNext(
+            results -> {
+              assertThat(results).containsOnlyKeys("200", "100");
+              assertThat(results.keySet()).containsExactly("200", "100");
+              assertThat(results.get("200"))
+                  .isEqualTo(SimilarProductsResult.found(List.of(productDetail3, productDetail2)));
+              assertThat(results.get("100"))
+                  .isEqualTo(SimilarProductsResult.found(List.of(productDetail1, productDetail2)));
+            })
+        .verifyComplete();
+
+    verify(productRepository).getSimilarIds("200");
+    verify(productRepository).getProductDetail("2");
+    verify(productRepository).getProductDetail("3");
+  }
+
+  @Test
+  @DisplayName("Should fail only the bulk results whose similar ids or products failed")
+  void shouldFailOnlyAffectedBulkResults() {
+    ExternalApiException failure = new ExternalApiException();
+    Degradation degradation = new Degradation(Degradation.Mode.FAIL, null);
+
+    when(productRepository.getSimilarIds("100")).thenReturn(Mono.just(List.of("1", "4")));
+    when(productRepository.getSimilarIds("200")).thenReturn(Mono.just(List.of("2", "3")));
+    when(productRepository.getSimilarIds("300")).thenReturn(Mono.just(List.of("5")));
+    when(productRepository.getSimilarIds("404"))
+        .thenReturn(Mono.error(new ProductNotFoundException("404")));
+    when(productRepository.getProductDetail("1")).thenReturn(Mono.just(productDetail1));
+    when(productRepository.getProductDetail("4")).thenReturn(Mono.error(failure));
+    when(productRepository.getProductDetail("2")).thenReturn(Mono.just(productDetail2));
+    when(productRepository.getProductDetail("3"))
+        .thenReturn(Mono.error(new ProductNotFoundException("3")));
+    when(productRepository.getProductDetail("5")).thenReturn(Mono.just(productDetail3));
+
+    StepVerifier.create(
+            productService
+                .getBulkSimilarProducts(List.of("100", "200", "300", "404"))
+                .contextWrite(degradation::putIn))
+        .assertNext(
+            results -> {
+              assertThat(results.get("100")).isEqualTo(SimilarProductsResult.failed(failure));
+              assertThat(results.get("200"))
+                  .isEqualTo(SimilarProductsResult.found(List.of(productDetail2)));
+              assertThat(results.get("300"))
+                  .isEqualTo(SimilarProductsResult.found(List.of(productDetail3)));
+              assertThat(results.get("404").error()).isInstanceOf(ProductNotFoundException.class);
+            })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should degrade failing products of bulk results like those of a single one")
+  void shouldDegradeBulkResults() {
+    Degradation degradation = new Degradation(Degradation.Mode.DROP, null);
+
+    when(productRepository.getSimilarIds("100")).thenReturn(Mono.just(List.of("1", "2")));
+    when(productRepository.getProductDetail("1")).thenReturn(Mono.just(productDetail1));
+    when(productRepository.getProductDetail("2"))
+        .thenReturn(Mono.error(new ExternalApiException()));
+
+    StepVerifier.create(
+            productService.getBulkSimilarProducts(List.of("100")).contextWrite(degradation::putIn))
+        .assertNext(
+            results ->
+                assertThat(results.get("100"))
+                    .isEqualTo(SimilarProductsResult.found(List.of(productDetail1))))
+        .verifyComplete();
+
+    assertThat(degradation.droppedCount()).isEqualTo(1);
+  }
 }
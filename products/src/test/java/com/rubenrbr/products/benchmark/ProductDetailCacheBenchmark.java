@@ -0,0 +1,104 @@
+package com.rubenrbr.products.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rubenrbr.products.infrastructure.adapter.out.CompactProductDetailCodec;
+import com.rubenrbr.products.infrastructure.cache.CacheEntry;
+import com.rubenrbr.products.infrastructure.cache.CacheValueCodec;
+import com.rubenrbr.products.infrastructure.config.CacheProperties.Storage;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+
+/**
+ * Compares the {@code objects} and {@code compact} storage modes of the product-detail cache.
+ *
+ * <p>Bytes per entry are printed at setup (values only, measured with JOL). Run with {@code -prof
+ * gc} to see allocation per read and write; {@code fullGc} measures a full collection with the
+ * populated cache on the heap.
+ *
+ * <pre>mvn test -Pbenchmark -Dbenchmark=ProductDetailCacheBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProductDetailCacheBenchmark {
+
+  @Param({"OBJECTS", "COMPACT"})
+  private Storage storage;
+
+  @Param("200000")
+  private int entries;
+
+  private CacheValueCodec<ProductDetailDto> codec;
+  private Cache<String, CacheEntry<Object>> cache;
+  private String[] keys;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    codec =
+        storage == Storage.COMPACT ? new CompactProductDetailCodec() : CacheValueCodec.identity();
+    cache = Caffeine.newBuilder().maximumSize(entries).build();
+    keys = new String[entries];
+    List<Object> stored = new ArrayList<>(entries);
+    for (int i = 0; i < entries; i++) {
+      keys[i] = String.valueOf(i);
+      Object value = codec.encode(product(i));
+      cache.put(keys[i], new CacheEntry<>(value, System.currentTimeMillis()));
+      stored.add(value);
+    }
+    long bytes = GraphLayout.parseInstance(stored.toArray()).totalSize();
+    System.out.printf("%n%s: %d bytes per entry (values only)%n", storage, bytes / entries);
+  }
+
+  @Benchmark
+  public ProductDetailDto read() {
+    String key = keys[ThreadLocalRandom.current().nextInt(entries)];
+    return codec.decode(cache.getIfPresent(key).value());
+  }
+
+  @Benchmark
+  public Object write() {
+    int i = ThreadLocalRandom.current().nextInt(entries);
+    Object value = codec.encode(product(i));
+    cache.put(keys[i], new CacheEntry<>(value, System.currentTimeMillis()));
+    return value;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Measurement(iterations = 10)
+  public void fullGc() {
+    System.gc();
+  }
+
+  private static ProductDetailDto product(int i) {
+    return new ProductDetailDto(
+        String.valueOf(i),
+        "Product name " + i,
+        BigDecimal.valueOf(1999 + i % 10_000, 2),
+        i % 3 != 0);
+  }
+}
@@ -0,0 +1,91 @@
+package com.rubenrbr.products.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rubenrbr.products.infrastructure.adapter.out.ProductDetailJsonDecoder;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Compares decoding an upstream product-detail body with the default Jackson decoder and with
+ * {@link ProductDetailJsonDecoder}, for a body arriving in one buffer or split into several.
+ *
+ * <p>Run with {@code -prof gc} to compare allocation per decoded product.
+ *
+ * <pre>mvn test -Pbenchmark -Dbenchmark=ProductDetailDecodingBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProductDetailDecodingBenchmark {
+
+  private static final ResolvableType PRODUCT = ResolvableType.forClass(ProductDetailDto.class);
+
+  private static final byte[] BODY =
+      "{\"id\":\"12345\",\"name\":\"Slim fit cotton trousers\",\"price\":39.99,\"availability\":true}"
+          .getBytes(StandardCharsets.UTF_8);
+
+  @Param({"1", "4"})
+  private int buffers;
+
+  private byte[][] chunks;
+  private Jackson2JsonDecoder jackson;
+  private ProductDetailJsonDecoder streaming;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    jackson = new Jackson2JsonDecoder(objectMapper);
+    streaming = new ProductDetailJsonDecoder(objectMapper.getFactory());
+    int size = (BODY.length + buffers - 1) / buffers;
+    chunks = new byte[buffers][];
+    for (int i = 0; i < buffers; i++) {
+      chunks[i] = Arrays.copyOfRange(BODY, i * size, Math.min(BODY.length, (i + 1) * size));
+    }
+  }
+
+  @Benchmark
+  public Object jackson() {
+    return jackson.decodeToMono(body(), PRODUCT, MediaType.APPLICATION_JSON, Map.of()).block();
+  }
+
+  @Benchmark
+  public ProductDetailDto streaming() {
+    return streaming.decodeToMono(body(), PRODUCT, MediaType.APPLICATION_JSON, Map.of()).block();
+  }
+
+  private Flux<DataBuffer> body() {
+    DataBuffer[] body = new DataBuffer[chunks.length];
+    for (int i = 0; i < chunks.length; i++) {
+      body[i] = DefaultDataBufferFactory.sharedInstance.wrap(chunks[i]);
+    }
+    return Flux.just(body);
+  }
+}
@@ -0,0 +1,125 @@
+package com.rubenrbr.products.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.rubenrbr.products.domain.model.ProductDetail;
+import com.rubenrbr.products.infrastructure.adapter.in.controller.ProductDetailJsonEncoder;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+import com.rubenrbr.products.infrastructure.rest.mapper.ProductDetailJsonWriter;
+import com.rubenrbr.products.infrastructure.rest.mapper.ProductResponseFragments;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Compares writing a {@code /product/{id}/similar} body with the default Jackson encoder and with
+ * {@link ProductDetailJsonEncoder} splicing the JSON fragments prepared by the detail cache.
+ *
+ * <p>Run with {@code -prof gc} to compare allocation per response.
+ *
+ * <pre>mvn test -Pbenchmark -Dbenchmark=SimilarResponseEncodingBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SimilarResponseEncodingBenchmark {
+
+  private static final ResolvableType PRODUCT = ResolvableType.forClass(ProductDetailDto.class);
+
+  @Param({"5", "20"})
+  private int products;
+
+  private List<ProductDetailDto> response;
+  private Jackson2JsonEncoder jackson;
+  private ProductDetailJsonEncoder spliced;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    response = new ArrayList<>(products);
+    Map<ProductDetailDto, byte[]> fragments = new IdentityHashMap<>();
+    for (int i = 0; i < products; i++) {
+      ProductDetailDto product =
+          new ProductDetailDto(
+              String.valueOf(10_000 + i),
+              "Slim fit cotton trousers",
+              new BigDecimal("39.99"),
+              true);
+      response.add(product);
+      fragments.put(product, ProductDetailJsonWriter.write(product));
+    }
+    jackson = new Jackson2JsonEncoder(Jackson2ObjectMapperBuilder.json().build());
+    spliced =
+        new ProductDetailJsonEncoder(
+            new ProductResponseFragments() {
+              @Override
+              public ProductDetailDto response(ProductDetail product) {
+                return null;
+              }
+
+              @Override
+              public byte[] json(ProductDetailDto product) {
+                return fragments.get(product);
+              }
+            });
+  }
+
+  @Benchmark
+  public int jackson() {
+    return size(
+        jackson.encode(
+            Flux.fromIterable(response),
+            DefaultDataBufferFactory.sharedInstance,
+            PRODUCT,
+            MediaType.APPLICATION_JSON,
+            Map.of()));
+  }
+
+  @Benchmark
+  public int spliced() {
+    return size(
+        spliced.encode(
+            Flux.fromIterable(response),
+            DefaultDataBufferFactory.sharedInstance,
+            PRODUCT,
+            MediaType.APPLICATION_JSON,
+            Map.of()));
+  }
+
+  private static int size(Flux<DataBuffer> body) {
+    return body.map(
+            buffer -> {
+              int size = buffer.readableByteCount();
+              DataBufferUtils.release(buffer);
+              return size;
+            })
+        .reduce(0, Integer::sum)
+        .block();
+  }
+}
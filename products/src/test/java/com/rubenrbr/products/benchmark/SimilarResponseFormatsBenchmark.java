@@ -0,0 +1,154 @@
+package com.rubenrbr.products.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.rubenrbr.products.domain.model.ProductDetail;
+import com.rubenrbr.products.infrastructure.adapter.in.controller.ProductDetailCborEncoder;
+import com.rubenrbr.products.infrastructure.adapter.in.controller.ProductDetailJsonEncoder;
+import com.rubenrbr.products.infrastructure.adapter.in.controller.ProductDetailProtobufEncoder;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+import com.rubenrbr.products.infrastructure.rest.mapper.ProductResponseFragments;
+import com.rubenrbr.products.infrastructure.rest.proto.SimilarProducts;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Compares the {@code /product/{id}/similar} encodings: the time to write a response on the server,
+ * the time to read it back into product details on the client, and the payload size, printed once
+ * per trial.
+ *
+ * <p>JSON is written without prepared fragments, as for products that are not cached as objects.
+ *
+ * <pre>mvn test -Pbenchmark -Dbenchmark=SimilarResponseFormatsBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SimilarResponseFormatsBenchmark {
+
+  private static final ResolvableType PRODUCT = ResolvableType.forClass(ProductDetailDto.class);
+
+  @Param({"json", "cbor", "protobuf"})
+  private String format;
+
+  @Param({"20"})
+  private int products;
+
+  private List<ProductDetailDto> response;
+  private Encoder<ProductDetailDto> encoder;
+  private MediaType mediaType;
+  private byte[] payload;
+  private ObjectMapper jsonMapper;
+  private CBORMapper cborMapper;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    response = new ArrayList<>(products);
+    for (int i = 0; i < products; i++) {
+      response.add(
+          new ProductDetailDto(
+              String.valueOf(10_000 + i),
+              "Slim fit cotton trousers",
+              new BigDecimal("39.99"),
+              i % 3 != 0));
+    }
+    jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    cborMapper = new CBORMapper();
+    switch (format) {
+      case "json" -> {
+        encoder = new ProductDetailJsonEncoder(new NoFragments());
+        mediaType = MediaType.APPLICATION_JSON;
+      }
+      case "cbor" -> {
+        encoder = new ProductDetailCborEncoder();
+        mediaType = MediaType.APPLICATION_CBOR;
+      }
+      default -> {
+        encoder = new ProductDetailProtobufEncoder();
+        mediaType = ProductDetailProtobufEncoder.PROTOBUF;
+      }
+    }
+    payload = encode();
+    System.out.printf("%n%s payload: %d bytes for %d products%n", format, payload.length, products);
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    DataBuffer body =
+        DataBufferUtils.join(
+                encoder.encode(
+                    Flux.fromIterable(response),
+                    DefaultDataBufferFactory.sharedInstance,
+                    PRODUCT,
+                    mediaType,
+                    Map.of()))
+            .block();
+    byte[] bytes = new byte[body.readableByteCount()];
+    body.read(bytes);
+    DataBufferUtils.release(body);
+    return bytes;
+  }
+
+  @Benchmark
+  public List<ProductDetailDto> decode() throws IOException {
+    return switch (format) {
+      case "json" -> List.of(jsonMapper.readValue(payload, ProductDetailDto[].class));
+      case "cbor" -> List.of(cborMapper.readValue(payload, ProductDetailDto[].class));
+      default -> SimilarProducts.parseFrom(payload).getProductsList().stream()
+          .map(
+              product ->
+                  new ProductDetailDto(
+                      product.getId(),
+                      product.hasName() ? product.getName() : null,
+                      product.hasPrice()
+                          ? BigDecimal.valueOf(
+                              product.getPrice().getUnscaled(), product.getPrice().getScale())
+                          : null,
+                      product.hasAvailability() ? product.getAvailability() : null))
+          .toList();
+    };
+  }
+
+  private static final class NoFragments implements ProductResponseFragments {
+
+    @Override
+    public ProductDetailDto response(ProductDetail product) {
+      return null;
+    }
+
+    @Override
+    public byte[] json(ProductDetailDto response) {
+      return null;
+    }
+  }
+}
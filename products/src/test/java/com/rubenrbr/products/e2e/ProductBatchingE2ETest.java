@@ -0,0 +1,119 @@
+package com.rubenrbr.products.e2e;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+
+/** The product API stand-in also serves the batch endpoint, {@code GET /product/details?ids=}. */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+      "external.api.product.batching.enabled=true",
+      "external.api.product.batching.path=/details",
+      "external.api.product.batching.window=20ms"
+    })
+@ActiveProfiles("test")
+class ProductBatchingE2ETest {
+
+  @Autowired private WebTestClient webTestClient;
+
+  private static WireMockServer wireMockServer;
+
+  @BeforeAll
+  static void startWireMock() {
+    wireMockServer = new WireMockServer(wireMockConfig().port(8089));
+    wireMockServer.start();
+  }
+
+  @AfterAll
+  static void stopWireMock() {
+    if (wireMockServer != null && wireMockServer.isRunning()) {
+      wireMockServer.stop();
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    wireMockServer.resetAll();
+  }
+
+  @Test
+  void getSimilarProducts_shouldFetchProductDetailsInOneBatchCall() {
+    wireMockServer.stubFor(
+        WireMock.get(WireMock.urlEqualTo("/product/501/similarids"))
+            .willReturn(
+                WireMock.aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("[\"502\", \"503\", \"504\"]")));
+    wireMockServer.stubFor(
+        WireMock.get(WireMock.urlPathEqualTo("/product/details"))
+            .withQueryParam("ids", WireMock.matching("[0-9,]+"))
+            .willReturn(
+                WireMock.aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(
+                        "[{\"id\":\"502\",\"name\":\"Pants\",\"price\":19.99,\"availability\":true},"
+                            + "{\"id\":\"503\",\"name\":\"Shoes\",\"price\":29.99,\"availability\":false}]")));
+
+    webTestClient
+        .get()
+        .uri("/product/501/similar")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.length()")
+        .isEqualTo(2)
+        .jsonPath("$[?(@.id == '502')].name")
+        .isEqualTo("Pants")
+        .jsonPath("$[?(@.id == '503')].name")
+        .isEqualTo("Shoes");
+
+    wireMockServer.verify(
+        1,
+        WireMock.getRequestedFor(WireMock.urlPathEqualTo("/product/details"))
+            .withQueryParam("ids", WireMock.equalTo("502,503,504")));
+    wireMockServer.verify(0, WireMock.getRequestedFor(WireMock.urlMatching("/product/50[2-4]")));
+  }
+
+  @Test
+  void getSimilarProducts_whenBatchCallFails_shouldDegradeItsProducts() {
+    wireMockServer.stubFor(
+        WireMock.get(WireMock.urlEqualTo("/product/511/similarids"))
+            .willReturn(
+                WireMock.aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("[\"512\", \"513\"]")));
+    wireMockServer.stubFor(
+        WireMock.get(WireMock.urlPathEqualTo("/product/details"))
+            .willReturn(WireMock.aResponse().withStatus(500)));
+
+    webTestClient
+        .get()
+        .uri("/product/511/similar")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .valueEquals("X-Partial-Response", "degraded")
+        .expectBody()
+        .jsonPath("$.length()")
+        .isEqualTo(0);
+  }
+}
@@ -1,22 +1,37 @@
 package com.rubenrbr.products.e2e;
 
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
+import com.rubenrbr.products.infrastructure.adapter.in.controller.ProductDetailProtobufEncoder;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+import com.rubenrbr.products.infrastructure.rest.proto.ProductDetail;
+import com.rubenrbr.products.infrastructure.rest.proto.SimilarProducts;
+
+import reactor.test.StepVerifier;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("test")
+@AutoConfigureObservability(tracing = false)
 class ProductE2ETest {
 
   @Autowired private WebTestClient webTestClient;
@@ -216,7 +231,7 @@ class ProductE2ETest {
   }
 
   @Test
-  void getSimilarProducts_whenOneProductDetailReturns500_shouldFilterItOut() {
+  void getSimilarProducts_whenOneProductDetailReturns500_shouldDropItAndMarkResponseDegraded() {
     wireMockServer.stubFor(
         WireMock.get(WireMock.urlEqualTo("/product/7/similarids"))
             .willReturn(
@@ -235,7 +250,53 @@ class ProductE2ETest {
         .accept(MediaType.APPLICATION_JSON)
         .exchange()
         .expectStatus()
-        .is5xxServerError();
+        .isOk()
+        .expectHeader()
+        .valueEquals("X-Partial-Response", "degraded")
+        .expectHeader()
+        .valueEquals("X-Degraded-Items", "1")
+        .expectBody()
+        .jsonPath("$.length()")
+        .isEqualTo(2)
+        .jsonPath("$[?(@.id == '500')]")
+        .doesNotExist();
+  }
+
+  @Test
+  void getSimilarProducts_whenDeadlinePasses_shouldReturnResolvedProducts() {
+    wireMockServer.stubFor(
+        WireMock.get(WireMock.urlEqualTo("/product/81/similarids"))
+            .willReturn(
+                WireMock.aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("[\"2\", \"801\"]")));
+
+    wireMockServer.stubFor(
+        WireMock.get(WireMock.urlEqualTo("/product/801"))
+            .willReturn(
+                WireMock.aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(
+                        "{\"id\":\"801\",\"name\":\"Slow\",\"price\":1,\"availability\":true}")
+                    .withFixedDelay(3000)));
+
+    webTestClient
+        .get()
+        .uri("/product/81/similar")
+        .header("X-Request-Timeout", "500")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .valueEquals("X-Partial-Response", "deadline-exceeded")
+        .expectBody()
+        .jsonPath("$.length()")
+        .isEqualTo(1)
+        .jsonPath("$[0].id")
+        .isEqualTo("2");
   }
 
   @Test
@@ -346,4 +407,304 @@ class ProductE2ETest {
         .jsonPath("$[?(@.id == '4')].name")
         .isEqualTo("Hat");
   }
+
+  @Test
+  void getSimilarProducts_shouldKeepSimilarityOrderWhenProductsResolveOutOfOrder() {
+    stubOutOfOrderProducts("601");
+
+    webTestClient
+        .get()
+        .uri("/product/601/similar")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$[*].id")
+        .isEqualTo(List.of("603", "602", "604"));
+  }
+
+  @Test
+  void getSimilarProducts_acceptingNdjson_shouldStreamProductsInSimilarityOrder() {
+    stubOutOfOrderProducts("611");
+
+    webTestClient
+        .get()
+        .uri("/product/611/similar")
+        .accept(MediaType.APPLICATION_NDJSON)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .returnResult(ProductDetailDto.class)
+        .getResponseBody()
+        .map(ProductDetailDto::getId)
+        .as(StepVerifier::create)
+        .expectNext("603", "602", "604")
+        .verifyComplete();
+  }
+
+  @Test
+  void getSimilarProducts_streamingJsonArray_shouldReturnProductsInSimilarityOrder() {
+    stubOutOfOrderProducts("621");
+
+    webTestClient
+        .get()
+        .uri("/product/621/similar?stream=true")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .contentType(MediaType.APPLICATION_JSON)
+        .expectBody()
+        .jsonPath("$[*].id")
+        .isEqualTo(List.of("603", "602", "604"));
+  }
+
+  @Test
+  void getSimilarProducts_streamingWhenProductNotFound_shouldReturn404() {
+    webTestClient
+        .get()
+        .uri("/product/999/similar")
+        .accept(MediaType.APPLICATION_NDJSON)
+        .exchange()
+        .expectStatus()
+        .isNotFound();
+  }
+
+  @Test
+  void getSimilarProducts_withMatchingETag_shouldReturn304WithoutBody() {
+    stubOutOfOrderProducts("631");
+
+    String eTag =
+        webTestClient
+            .get()
+            .uri("/product/631/similar")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueMatches(HttpHeaders.CACHE_CONTROL, ".*max-age=.*")
+            .returnResult(String.class)
+            .getResponseHeaders()
+            .getETag();
+
+    webTestClient
+        .get()
+        .uri("/product/631/similar")
+        .ifNoneMatch(eTag)
+        .exchange()
+        .expectStatus()
+        .isNotModified()
+        .expectHeader()
+        .valueEquals(HttpHeaders.ETAG, eTag)
+        .expectBody()
+        .isEmpty();
+    webTestClient
+        .get()
+        .uri("/product/631/similar")
+        .ifNoneMatch("\"0\"")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .valueEquals(HttpHeaders.ETAG, eTag);
+  }
+
+  @Test
+  void getSimilarProducts_acceptingCbor_shouldReturnCborArray() throws IOException {
+    stubOutOfOrderProducts("641");
+
+    byte[] body =
+        webTestClient
+            .get()
+            .uri("/product/641/similar")
+            .accept(MediaType.APPLICATION_CBOR)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_CBOR)
+            .expectBody(byte[].class)
+            .returnResult()
+            .getResponseBody();
+
+    assertThat(new CBORMapper().readValue(body, ProductDetailDto[].class))
+        .extracting(ProductDetailDto::getId)
+        .containsExactly("603", "602", "604");
+  }
+
+  @Test
+  void getSimilarProducts_preferringJsonOverCbor_shouldReturnJson() {
+    webTestClient
+        .get()
+        .uri("/product/1/similar")
+        .header(HttpHeaders.ACCEPT, "application/cbor;q=0.1, application/json")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .contentType(MediaType.APPLICATION_JSON);
+  }
+
+  @Test
+  void getSimilarProducts_acceptingProtobuf_shouldReturnSimilarProductsMessage()
+      throws IOException {
+    stubOutOfOrderProducts("651");
+
+    byte[] body =
+        webTestClient
+            .get()
+            .uri("/product/651/similar?stream=true")
+            .accept(ProductDetailProtobufEncoder.PROTOBUF)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(ProductDetailProtobufEncoder.PROTOBUF)
+            .expectBody(byte[].class)
+            .returnResult()
+            .getResponseBody();
+
+    assertThat(SimilarProducts.parseFrom(body).getProductsList())
+        .extracting(ProductDetail::getId)
+        .containsExactly("603", "602", "604");
+  }
+
+  @Test
+  void getSimilarProducts_withLimit_shouldBackfillMissingProductsAndLookUpNoMore() {
+    stubSimilarIds("681", "[\"682\", \"683\", \"684\", \"685\"]");
+    wireMockServer.stubFor(
+        WireMock.get(WireMock.urlEqualTo("/product/682"))
+            .willReturn(WireMock.aResponse().withStatus(404).withBody("Product not found")));
+    stubProduct("683", 0);
+    stubProduct("684", 0);
+    stubProduct("685", 0);
+
+    webTestClient
+        .get()
+        .uri("/product/681/similar?limit=2")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$[*].id")
+        .isEqualTo(List.of("683", "684"));
+
+    wireMockServer.verify(0, WireMock.getRequestedFor(WireMock.urlEqualTo("/product/685")));
+  }
+
+  @Test
+  void getSimilarProducts_withLimitBelowOne_shouldReturn400() {
+    webTestClient.get().uri("/product/1/similar?limit=0").exchange().expectStatus().isBadRequest();
+  }
+
+  @Test
+  void getProductsSimilar_shouldLookUpSharedProductsOnceAndReportUnknownProducts() {
+    stubSimilarIds("661", "[\"671\", \"672\"]");
+    stubSimilarIds("662", "[\"673\", \"672\"]");
+    stubProduct("671", 0);
+    stubProduct("672", 50);
+    stubProduct("673", 0);
+
+    webTestClient
+        .post()
+        .uri("/products/similar")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Map.of("productIds", List.of("661", "999", "662")))
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.661.status")
+        .isEqualTo("ok")
+        .jsonPath("$.661.products[*].id")
+        .isEqualTo(List.of("671", "672"))
+        .jsonPath("$.662.products[*].id")
+        .isEqualTo(List.of("673", "672"))
+        .jsonPath("$.999.status")
+        .isEqualTo("not-found");
+
+    wireMockServer.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/product/672")));
+  }
+
+  @Test
+  void getProductsSimilar_withoutProductIds_shouldReturn400() {
+    webTestClient
+        .post()
+        .uri("/products/similar")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Map.of("productIds", List.of()))
+        .exchange()
+        .expectStatus()
+        .isBadRequest();
+  }
+
+  private void stubOutOfOrderProducts(String productId) {
+    stubSimilarIds(productId, "[\"603\", \"602\", \"603\", \"604\"]");
+    stubProduct("602", 0);
+    stubProduct("603", 300);
+    stubProduct("604", 100);
+  }
+
+  private void stubSimilarIds(String productId, String similarIds) {
+    wireMockServer.stubFor(
+        WireMock.get(WireMock.urlEqualTo("/product/" + productId + "/similarids"))
+            .willReturn(
+                WireMock.aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(similarIds)));
+  }
+
+  private void stubProduct(String id, int delayMillis) {
+    wireMockServer.stubFor(
+        WireMock.get(WireMock.urlEqualTo("/product/" + id))
+            .willReturn(
+                WireMock.aResponse()
+                    .withStatus(200)
+                    .withFixedDelay(delayMillis)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(
+                        "{\"id\":\""
+                            + id
+                            + "\",\"name\":\"Product\",\"price\":1.0,\"availability\":true}")));
+  }
+
+  @Test
+  void prometheusEndpoint_shouldExposeCacheUpstreamAndFanOutMetrics() {
+    webTestClient
+        .get()
+        .uri("/product/1/similar")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus()
+        .isOk();
+
+    webTestClient
+        .get()
+        .uri("/actuator/prometheus")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody(String.class)
+        .value(
+            body ->
+                assertThat(body)
+                    .containsPattern("cache_gets_total\\{[^}]*cache=\"product-detail\"")
+                    .containsPattern("cache_evictions_total\\{[^}]*cache=\"similar-ids\"")
+                    .containsPattern("cache_size\\{[^}]*cache=\"product-detail\"")
+                    .containsPattern("cache_load_total\\{[^}]*cache=\"similar-ids\"")
+                    .containsPattern(
+                        "cache_load_duration_seconds_total\\{[^}]*cache=\"product-detail\"")
+                    .containsPattern(
+                        "http_client_requests_seconds_bucket\\{[^}]*uri=\"/product/\\{productId}/similarids\"")
+                    .contains("resilience4j_circuitbreaker_state{")
+                    .containsPattern("upstream_retries_total\\{[^}]*outcome=\"retried\"")
+                    .contains("upstream_retry_budget{")
+                    .containsPattern("upstream_bulkhead_limit\\{[^}]*name=\"product-detail\"")
+                    .contains("products_similar_fanout_products_count{"));
+  }
 }
@@ -4,25 +4,36 @@ import static com.rubenrbr.products.infrastructure.util.TestUtil.createProductDe
 import static com.rubenrbr.products.infrastructure.util.TestUtil.createProductDetailDto;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
-import java.util.Set;
+import java.util.List;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
 import com.rubenrbr.products.domain.exception.ProductNotFoundException;
 import com.rubenrbr.products.domain.model.ProductDetail;
 import com.rubenrbr.products.domain.port.in.ProductService;
+import com.rubenrbr.products.infrastructure.config.CacheControlProperties;
+import com.rubenrbr.products.infrastructure.config.DeadlineProperties;
+import com.rubenrbr.products.infrastructure.config.DegradationProperties;
 import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+import com.rubenrbr.products.infrastructure.rest.mapper.ProductResponseFragments;
 import com.rubenrbr.products.infrastructure.rest.mapper.ProductResponseMapper;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import reactor.core.publisher.Mono;
 
 @WebFluxTest(ProductController.class)
@@ -35,6 +46,22 @@ class ProductControllerIntegrationTest {
 
   @MockBean private ProductResponseMapper mapper;
 
+  @MockBean private ProductResponseFragments fragments;
+
+  @TestConfiguration
+  @EnableConfigurationProperties({
+    DeadlineProperties.class,
+    DegradationProperties.class,
+    CacheControlProperties.class
+  })
+  static class ControllerTestConfig {
+
+    @Bean
+    MeterRegistry meterRegistry() {
+      return new SimpleMeterRegistry();
+    }
+  }
+
   @Test
   @DisplayName("GET /product/{productId}/similar - Should return 200 with similar products")
   void getSimilarProducts_shouldReturn200WithProducts() {
@@ -44,7 +71,7 @@ class ProductControllerIntegrationTest {
 
     ProductDetail product2 = createProductDetail("2", "Product 2", BigDecimal.valueOf(20.99), true);
 
-    Set<ProductDetail> products = Set.of(product1, product2);
+    List<ProductDetail> products = List.of(product1, product2);
 
     ProductDetailDto dto1 =
         createProductDetailDto("1", "Product 1", BigDecimal.valueOf(10.99), true);
@@ -52,10 +79,11 @@ class ProductControllerIntegrationTest {
     ProductDetailDto dto2 =
         createProductDetailDto("2", "Product 2", BigDecimal.valueOf(20.99), true);
 
-    Set<ProductDetailDto> dtos = Set.of(dto1, dto2);
+    List<ProductDetailDto> dtos = List.of(dto1, dto2);
 
-    when(productService.getSimilarProducts(productId)).thenReturn(Mono.just(products));
-    when(mapper.productDetailToProductDetailDto(products)).thenReturn(dtos);
+    when(productService.getSimilarProducts(productId, null)).thenReturn(Mono.just(products));
+    when(mapper.productDetailToProductDetailDto(product1)).thenReturn(dto1);
+    when(mapper.productDetailToProductDetailDto(product2)).thenReturn(dto2);
 
     webTestClient
         .get()
@@ -81,16 +109,55 @@ class ProductControllerIntegrationTest {
             });
   }
 
+  @Test
+  @DisplayName(
+      "GET /product/{productId}/similar - Should return 304 without a body when the ETag matches")
+  void getSimilarProducts_shouldReturn304WhenETagMatches() {
+    String productId = "100";
+    ProductDetail product = createProductDetail("1", "Product 1", BigDecimal.valueOf(10.99), true);
+    ProductDetailDto dto =
+        createProductDetailDto("1", "Product 1", BigDecimal.valueOf(10.99), true);
+
+    when(productService.getSimilarProducts(productId, null))
+        .thenReturn(Mono.just(List.of(product)));
+    when(mapper.productDetailToProductDetailDto(product)).thenReturn(dto);
+    when(fragments.contentHash(dto)).thenReturn(42L);
+
+    String eTag =
+        webTestClient
+            .get()
+            .uri("/product/{productId}/similar", productId)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .exists(HttpHeaders.CACHE_CONTROL)
+            .returnResult(String.class)
+            .getResponseHeaders()
+            .getETag();
+
+    assertThat(eTag).isNotNull();
+    webTestClient
+        .get()
+        .uri("/product/{productId}/similar", productId)
+        .ifNoneMatch(eTag)
+        .exchange()
+        .expectStatus()
+        .isNotModified()
+        .expectHeader()
+        .valueEquals(HttpHeaders.ETAG, eTag)
+        .expectBody()
+        .isEmpty();
+  }
+
   @Test
   @DisplayName(
       "GET /product/{productId}/similar - Should return 200 with empty array when no similar products")
   void getSimilarProducts_shouldReturn200WithEmptyArray() {
     String productId = "100";
-    Set<ProductDetail> emptySet = Set.of();
-    Set<ProductDetailDto> emptyDtoSet = Set.of();
+    List<ProductDetail> emptySet = List.of();
 
-    when(productService.getSimilarProducts(productId)).thenReturn(Mono.just(emptySet));
-    when(mapper.productDetailToProductDetailDto(emptySet)).thenReturn(emptyDtoSet);
+    when(productService.getSimilarProducts(productId, null)).thenReturn(Mono.just(emptySet));
 
     webTestClient
         .get()
@@ -110,7 +177,7 @@ class ProductControllerIntegrationTest {
   void getSimilarProducts_shouldReturn404WhenProductNotFound() {
     String productId = "999";
 
-    when(productService.getSimilarProducts(productId))
+    when(productService.getSimilarProducts(productId, null))
         .thenReturn(Mono.error(new ProductNotFoundException("Product not found")));
 
     webTestClient
@@ -127,7 +194,7 @@ class ProductControllerIntegrationTest {
   void getSimilarProducts_shouldReturn500OnInternalError() {
     String productId = "100";
 
-    when(productService.getSimilarProducts(productId))
+    when(productService.getSimilarProducts(productId, null))
         .thenReturn(Mono.error(new RuntimeException("Internal error")));
 
     webTestClient
@@ -150,8 +217,9 @@ class ProductControllerIntegrationTest {
     ProductDetailDto dto =
         createProductDetailDto("1", "Test Product", BigDecimal.valueOf(99.99), true);
 
-    when(productService.getSimilarProducts(productId)).thenReturn(Mono.just(Set.of(product)));
-    when(mapper.productDetailToProductDetailDto(Set.of(product))).thenReturn(Set.of(dto));
+    when(productService.getSimilarProducts(productId, null))
+        .thenReturn(Mono.just(List.of(product)));
+    when(mapper.productDetailToProductDetailDto(product)).thenReturn(dto);
 
     webTestClient
         .get()
@@ -175,11 +243,9 @@ class ProductControllerIntegrationTest {
   @DisplayName("GET /product/{productId}/similar - Should handle special characters in productId")
   void getSimilarProducts_shouldHandleSpecialCharactersInProductId() {
     String productId = "ABC-123";
-    Set<ProductDetail> emptySet = Set.of();
-    Set<ProductDetailDto> emptyDtoSet = Set.of();
+    List<ProductDetail> emptySet = List.of();
 
-    when(productService.getSimilarProducts(productId)).thenReturn(Mono.just(emptySet));
-    when(mapper.productDetailToProductDetailDto(emptySet)).thenReturn(emptyDtoSet);
+    when(productService.getSimilarProducts(productId, null)).thenReturn(Mono.just(emptySet));
 
     webTestClient
         .get()
@@ -194,11 +260,9 @@ class ProductControllerIntegrationTest {
   @DisplayName("GET /product/{productId}/similar - Should accept different media types")
   void getSimilarProducts_shouldAcceptDifferentMediaTypes() {
     String productId = "100";
-    Set<ProductDetail> emptySet = Set.of();
-    Set<ProductDetailDto> emptyDtoSet = Set.of();
+    List<ProductDetail> emptySet = List.of();
 
-    when(productService.getSimilarProducts(anyString())).thenReturn(Mono.just(emptySet));
-    when(mapper.productDetailToProductDetailDto(emptySet)).thenReturn(emptyDtoSet);
+    when(productService.getSimilarProducts(anyString(), isNull())).thenReturn(Mono.just(emptySet));
 
     webTestClient
         .get()
@@ -223,8 +287,9 @@ class ProductControllerIntegrationTest {
     ProductDetailDto dto =
         createProductDetailDto("1", "Complete Product", BigDecimal.valueOf(40.99), true);
 
-    when(productService.getSimilarProducts(productId)).thenReturn(Mono.just(Set.of(product)));
-    when(mapper.productDetailToProductDetailDto(Set.of(product))).thenReturn(Set.of(dto));
+    when(productService.getSimilarProducts(productId, null))
+        .thenReturn(Mono.just(List.of(product)));
+    when(mapper.productDetailToProductDetailDto(product)).thenReturn(dto);
 
     webTestClient
         .get()
@@ -3,29 +3,49 @@ package com.rubenrbr.products.infrastructure.adapter.in.controller;
 import static com.rubenrbr.products.infrastructure.util.TestUtil.createProductDetail;
 import static com.rubenrbr.products.infrastructure.util.TestUtil.createProductDetailDto;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
-import java.util.Set;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.web.server.ServerWebExchange;
 
+import com.rubenrbr.products.domain.exception.DeadlineExceededException;
+import com.rubenrbr.products.domain.exception.ExternalApiException;
+import com.rubenrbr.products.domain.exception.ProductNotFoundException;
+import com.rubenrbr.products.domain.model.Deadline;
+import com.rubenrbr.products.domain.model.Degradation;
 import com.rubenrbr.products.domain.model.ProductDetail;
+import com.rubenrbr.products.domain.model.SimilarProductsResult;
 import com.rubenrbr.products.domain.port.in.ProductService;
+import com.rubenrbr.products.infrastructure.config.CacheControlProperties;
+import com.rubenrbr.products.infrastructure.config.DeadlineProperties;
+import com.rubenrbr.products.infrastructure.config.DegradationProperties;
 import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+import com.rubenrbr.products.infrastructure.rest.dto.SimilarProductsRequestDto;
+import com.rubenrbr.products.infrastructure.rest.dto.SimilarProductsResultDto;
+import com.rubenrbr.products.infrastructure.rest.mapper.ProductResponseFragments;
 import com.rubenrbr.products.infrastructure.rest.mapper.ProductResponseMapper;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -38,19 +58,34 @@ class ProductControllerTest {
 
   @Mock private ProductResponseMapper mapper;
 
-  @Mock private ServerWebExchange exchange;
+  @Mock private ProductResponseFragments fragments;
 
-  @InjectMocks private ProductController productController;
+  private final ServerWebExchange exchange =
+      MockServerWebExchange.from(MockServerHttpRequest.get("/product/100/similar"));
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private ProductController productController;
 
   private ProductDetail productDetail1;
   private ProductDetail productDetail2;
   private ProductDetailDto productDetailDto1;
   private ProductDetailDto productDetailDto2;
-  private Set<ProductDetail> productDetails;
-  private Set<ProductDetailDto> productDetailDtos;
+  private List<ProductDetail> productDetails;
 
   @BeforeEach
   void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    productController =
+        new ProductController(
+            productService,
+            mapper,
+            fragments,
+            new DeadlineProperties(null, null),
+            new DegradationProperties(null, null),
+            new CacheControlProperties(Duration.ofSeconds(10), Duration.ofMinutes(1)),
+            meterRegistry);
+
     productDetail1 = createProductDetail("1", "Product 1", BigDecimal.valueOf(10.99), true);
 
     productDetail2 = createProductDetail("2", "Product 2", BigDecimal.valueOf(20.99), true);
@@ -59,8 +94,7 @@ class ProductControllerTest {
 
     productDetailDto2 = createProductDetailDto("2", "Product 2", BigDecimal.valueOf(20.99), true);
 
-    productDetails = Set.of(productDetail1, productDetail2);
-    productDetailDtos = Set.of(productDetailDto1, productDetailDto2);
+    productDetails = List.of(productDetail1, productDetail2);
   }
 
   @Test
@@ -68,11 +102,11 @@ class ProductControllerTest {
   void shouldReturn200WithSimilarProducts() {
     String productId = "100";
 
-    when(productService.getSimilarProducts(productId)).thenReturn(Mono.just(productDetails));
-    when(mapper.productDetailToProductDetailDto(productDetails)).thenReturn(productDetailDtos);
+    when(productService.getSimilarProducts(productId, null)).thenReturn(Mono.just(productDetails));
+    mapsToResponses();
 
     Mono<ResponseEntity<Flux<ProductDetailDto>>> result =
-        productController.getProductSimilar(productId, exchange);
+        productController.getProductSimilar(productId, null, false, null, exchange);
 
     StepVerifier.create(result)
         .assertNext(
@@ -84,22 +118,20 @@ class ProductControllerTest {
             })
         .verifyComplete();
 
-    verify(productService).getSimilarProducts(productId);
-    verify(mapper).productDetailToProductDetailDto(productDetails);
+    verify(productService).getSimilarProducts(productId, null);
+    verify(mapper).productDetailToProductDetailDto(productDetail1);
   }
 
   @Test
   @DisplayName("Should return 200 OK with empty flux when no similar products exist")
   void shouldReturn200WithEmptyFluxWhenNoSimilarProducts() {
     String productId = "100";
-    Set<ProductDetail> emptySet = Set.of();
-    Set<ProductDetailDto> emptyDtoSet = Set.of();
+    List<ProductDetail> emptySet = List.of();
 
-    when(productService.getSimilarProducts(productId)).thenReturn(Mono.just(emptySet));
-    when(mapper.productDetailToProductDetailDto(emptySet)).thenReturn(emptyDtoSet);
+    when(productService.getSimilarProducts(productId, null)).thenReturn(Mono.just(emptySet));
 
     Mono<ResponseEntity<Flux<ProductDetailDto>>> result =
-        productController.getProductSimilar(productId, exchange);
+        productController.getProductSimilar(productId, null, false, null, exchange);
 
     StepVerifier.create(result)
         .assertNext(
@@ -111,8 +143,8 @@ class ProductControllerTest {
             })
         .verifyComplete();
 
-    verify(productService).getSimilarProducts(productId);
-    verify(mapper).productDetailToProductDetailDto(emptySet);
+    verify(productService).getSimilarProducts(productId, null);
+    verifyNoInteractions(mapper);
   }
 
   @Test
@@ -121,31 +153,30 @@ class ProductControllerTest {
     String productId = "100";
     RuntimeException exception = new RuntimeException("Service error");
 
-    when(productService.getSimilarProducts(productId)).thenReturn(Mono.error(exception));
+    when(productService.getSimilarProducts(productId, null)).thenReturn(Mono.error(exception));
 
     Mono<ResponseEntity<Flux<ProductDetailDto>>> result =
-        productController.getProductSimilar(productId, exchange);
+        productController.getProductSimilar(productId, null, false, null, exchange);
 
     StepVerifier.create(result)
         .expectErrorMatches(
             e -> e instanceof RuntimeException && e.getMessage().equals("Service error"))
         .verify();
 
-    verify(productService).getSimilarProducts(productId);
+    verify(productService).getSimilarProducts(productId, null);
   }
 
   @Test
   @DisplayName("Should handle mapper returning single product")
   void shouldHandleMapperReturningSingleProduct() {
     String productId = "100";
-    Set<ProductDetail> singleProduct = Set.of(productDetail1);
-    Set<ProductDetailDto> singleDto = Set.of(productDetailDto1);
+    List<ProductDetail> singleProduct = List.of(productDetail1);
 
-    when(productService.getSimilarProducts(productId)).thenReturn(Mono.just(singleProduct));
-    when(mapper.productDetailToProductDetailDto(singleProduct)).thenReturn(singleDto);
+    when(productService.getSimilarProducts(productId, null)).thenReturn(Mono.just(singleProduct));
+    when(mapper.productDetailToProductDetailDto(productDetail1)).thenReturn(productDetailDto1);
 
     Mono<ResponseEntity<Flux<ProductDetailDto>>> result =
-        productController.getProductSimilar(productId, exchange);
+        productController.getProductSimilar(productId, null, false, null, exchange);
 
     StepVerifier.create(result)
         .assertNext(
@@ -168,11 +199,11 @@ class ProductControllerTest {
   void shouldVerifyAllProductsAreMappedCorrectly() {
     String productId = "100";
 
-    when(productService.getSimilarProducts(productId)).thenReturn(Mono.just(productDetails));
-    when(mapper.productDetailToProductDetailDto(anySet())).thenReturn(productDetailDtos);
+    when(productService.getSimilarProducts(productId, null)).thenReturn(Mono.just(productDetails));
+    mapsToResponses();
 
     Mono<ResponseEntity<Flux<ProductDetailDto>>> result =
-        productController.getProductSimilar(productId, exchange);
+        productController.getProductSimilar(productId, null, false, null, exchange);
 
     StepVerifier.create(result)
         .assertNext(
@@ -185,13 +216,334 @@ class ProductControllerTest {
                         assertThat(products).hasSize(2);
                         assertThat(products)
                             .extracting(ProductDetailDto::getId)
-                            .containsExactlyInAnyOrder("1", "2");
+                            .containsExactly("1", "2");
                       })
                   .verifyComplete();
             })
         .verifyComplete();
 
-    verify(productService).getSimilarProducts(productId);
-    verify(mapper).productDetailToProductDetailDto(anySet());
+    verify(productService).getSimilarProducts(productId, null);
+    verify(mapper).productDetailToProductDetailDto(productDetail2);
+  }
+
+  @Test
+  @DisplayName("Should mark the response as partial when the deadline cut a lookup short")
+  void shouldMarkPartialResponseWhenDeadlineExceeded() {
+    String productId = "100";
+    List<ProductDetail> singleProduct = List.of(productDetail1);
+
+    when(productService.getSimilarProducts(productId, null))
+        .thenReturn(
+            Deadline.bound(Mono.never())
+                .onErrorResume(DeadlineExceededException.class, e -> Mono.empty())
+                .thenReturn(singleProduct));
+    when(mapper.productDetailToProductDetailDto(productDetail1)).thenReturn(productDetailDto1);
+
+    StepVerifier.create(productController.getProductSimilar(productId, 50, false, null, exchange))
+        .assertNext(
+            response -> {
+              assertThat(response.getHeaders().getFirst(ProductController.PARTIAL_RESPONSE))
+                  .isEqualTo("deadline-exceeded");
+              assertThat(response.getHeaders().getETag()).isNull();
+              assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-store");
+            })
+        .expectComplete()
+        .verify(Duration.ofSeconds(5));
+  }
+
+  @Test
+  @DisplayName("Should not mark complete responses as partial")
+  void shouldNotMarkCompleteResponseAsPartial() {
+    String productId = "100";
+
+    when(productService.getSimilarProducts(productId, null)).thenReturn(Mono.just(productDetails));
+    mapsToResponses();
+
+    StepVerifier.create(productController.getProductSimilar(productId, 50, false, null, exchange))
+        .assertNext(
+            response ->
+                assertThat(response.getHeaders())
+                    .doesNotContainKey(ProductController.PARTIAL_RESPONSE))
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should mark degraded responses and count the degraded products")
+  void shouldMarkDegradedResponseAndCountDegradedProducts() {
+    String productId = "100";
+
+    when(productService.getSimilarProducts(productId, null))
+        .thenReturn(
+            Mono.deferContextual(
+                context -> {
+                  Degradation degradation = Degradation.from(context);
+                  degradation.dropped("3");
+                  degradation.servedStale("2");
+                  return Mono.just(productDetails);
+                }));
+    mapsToResponses();
+
+    StepVerifier.create(productController.getProductSimilar(productId, null, false, null, exchange))
+        .assertNext(
+            response -> {
+              assertThat(response.getHeaders().getFirst(ProductController.PARTIAL_RESPONSE))
+                  .isEqualTo("degraded");
+              assertThat(response.getHeaders().getFirst(ProductController.DEGRADED_ITEMS))
+                  .isEqualTo("2");
+            })
+        .verifyComplete();
+
+    assertThat(
+            meterRegistry
+                .get("products.similar.degraded")
+                .tag("outcome", "dropped")
+                .counter()
+                .count())
+        .isEqualTo(1);
+    assertThat(
+            meterRegistry
+                .get("products.similar.degraded")
+                .tag("outcome", "stale")
+                .counter()
+                .count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should stream the products as they resolve when asked to")
+  void shouldStreamProductsWhenAskedTo() {
+    String productId = "100";
+
+    when(productService.streamSimilarProducts(productId, null))
+        .thenReturn(Flux.just(productDetail1, productDetail2));
+    when(mapper.productDetailToProductDetailDto(productDetail1)).thenReturn(productDetailDto1);
+    when(mapper.productDetailToProductDetailDto(productDetail2)).thenReturn(productDetailDto2);
+
+    StepVerifier.create(productController.getProductSimilar(productId, null, true, null, exchange))
+        .assertNext(
+            response -> {
+              assertThat(response.getHeaders())
+                  .doesNotContainKey(ProductController.PARTIAL_RESPONSE);
+              StepVerifier.create(response.getBody())
+                  .expectNext(productDetailDto1, productDetailDto2)
+                  .verifyComplete();
+            })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should stream the products to clients accepting NDJSON")
+  void shouldStreamProductsToNdjsonClients() {
+    ServerWebExchange ndjson =
+        MockServerWebExchange.from(
+            MockServerHttpRequest.get("/product/100/similar").accept(MediaType.APPLICATION_NDJSON));
+
+    when(productService.streamSimilarProducts("100", null)).thenReturn(Flux.just(productDetail1));
+    when(mapper.productDetailToProductDetailDto(productDetail1)).thenReturn(productDetailDto1);
+
+    StepVerifier.create(productController.getProductSimilar("100", null, false, null, ndjson))
+        .assertNext(
+            response ->
+                StepVerifier.create(response.getBody())
+                    .expectNext(productDetailDto1)
+                    .verifyComplete())
+        .verifyComplete();
+
+    verify(productService, never()).getSimilarProducts("100", null);
+  }
+
+  @Test
+  @DisplayName("Should count the products degraded in a streamed response once it completes")
+  void shouldCountDegradedProductsOfStreamedResponse() {
+    when(productService.streamSimilarProducts("100", null))
+        .thenReturn(
+            Flux.deferContextual(
+                context -> {
+                  Degradation.from(context).dropped("3");
+                  return Flux.just(productDetail1);
+                }));
+    when(mapper.productDetailToProductDetailDto(productDetail1)).thenReturn(productDetailDto1);
+
+    StepVerifier.create(
+            productController
+                .getProductSimilar("100", null, true, null, exchange)
+                .flatMapMany(ResponseEntity::getBody))
+        .expectNext(productDetailDto1)
+        .verifyComplete();
+
+    assertThat(
+            meterRegistry
+                .get("products.similar.degraded")
+                .tag("outcome", "dropped")
+                .counter()
+                .count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should pass the limit on to the service, streamed or not")
+  void shouldPassLimitToService() {
+    when(productService.getSimilarProducts("100", 1))
+        .thenReturn(Mono.just(List.of(productDetail1)));
+    when(productService.streamSimilarProducts("100", 1)).thenReturn(Flux.just(productDetail1));
+    when(mapper.productDetailToProductDetailDto(productDetail1)).thenReturn(productDetailDto1);
+
+    StepVerifier.create(
+            productController
+                .getProductSimilar("100", null, false, 1, exchange)
+                .flatMapMany(ResponseEntity::getBody))
+        .expectNext(productDetailDto1)
+        .verifyComplete();
+    StepVerifier.create(
+            productController
+                .getProductSimilar("100", null, true, 1, exchange)
+                .flatMapMany(ResponseEntity::getBody))
+        .expectNext(productDetailDto1)
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should answer with the responses prepared when the products were cached")
+  void shouldAnswerWithPreparedResponses() {
+    when(productService.getSimilarProducts("100", null)).thenReturn(Mono.just(productDetails));
+    when(fragments.response(productDetail1)).thenReturn(productDetailDto1);
+    when(mapper.productDetailToProductDetailDto(productDetail2)).thenReturn(productDetailDto2);
+
+    StepVerifier.create(
+            productController
+                .getProductSimilar("100", null, false, null, exchange)
+                .flatMapMany(ResponseEntity::getBody))
+        .expectNext(productDetailDto1, productDetailDto2)
+        .verifyComplete();
+
+    verify(mapper, never()).productDetailToProductDetailDto(productDetail1);
+  }
+
+  @Test
+  @DisplayName("Should tag complete responses with the hashes of their products, in order")
+  void shouldTagCompleteResponsesWithProductHashes() {
+    when(productService.getSimilarProducts("100", null))
+        .thenReturn(Mono.just(productDetails))
+        .thenReturn(Mono.just(productDetails))
+        .thenReturn(Mono.just(List.of(productDetail2, productDetail1)));
+    mapsToResponses();
+    when(fragments.contentHash(productDetailDto1)).thenReturn(11L);
+    when(fragments.contentHash(productDetailDto2)).thenReturn(22L);
+
+    String eTag = eTag();
+
+    assertThat(eTag).startsWith("\"").endsWith("\"");
+    assertThat(eTag()).isEqualTo(eTag);
+    assertThat(eTag()).isNotEqualTo(eTag);
+  }
+
+  @Test
+  @DisplayName("Should let clients cache complete responses")
+  void shouldLetClientsCacheCompleteResponses() {
+    when(productService.getSimilarProducts("100", null)).thenReturn(Mono.just(productDetails));
+    mapsToResponses();
+
+    StepVerifier.create(productController.getProductSimilar("100", null, false, null, exchange))
+        .assertNext(
+            response -> {
+              assertThat(response.getHeaders().getCacheControl())
+                  .isEqualTo("max-age=10, public, stale-while-revalidate=60");
+              assertThat(response.getHeaders().getVary()).containsExactly("Accept");
+            })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should tag binary responses apart from JSON ones")
+  void shouldTagBinaryResponsesApartFromJson() {
+    when(productService.getSimilarProducts("100", null)).thenReturn(Mono.just(productDetails));
+    mapsToResponses();
+    ServerWebExchange cbor =
+        MockServerWebExchange.from(
+            MockServerHttpRequest.get("/product/100/similar").accept(MediaType.APPLICATION_CBOR));
+    ServerWebExchange json =
+        MockServerWebExchange.from(
+            MockServerHttpRequest.get("/product/100/similar").accept(MediaType.APPLICATION_JSON));
+
+    ServerWebExchange cborWithParameters =
+        MockServerWebExchange.from(
+            MockServerHttpRequest.get("/product/100/similar")
+                .header(HttpHeaders.ACCEPT, "application/cbor;q=0.9, text/plain;q=0.1"));
+
+    assertThat(eTag(cbor)).isNotEqualTo(eTag()).isEqualTo(eTag(cborWithParameters));
+    assertThat(eTag(json)).isEqualTo(eTag());
+  }
+
+  @Test
+  @DisplayName("Should encode in a binary type only when it is accepted with the highest quality")
+  void shouldNegotiateBinaryByQuality() {
+    assertThat(ProductController.acceptsBinary(accepting("application/cbor"))).isTrue();
+    assertThat(
+            ProductController.acceptsBinary(accepting("application/cbor;q=0.1, application/json")))
+        .isFalse();
+    assertThat(ProductController.acceptsBinary(accepting("*/*;q=0.5, application/x-protobuf")))
+        .isTrue();
+    assertThat(ProductController.acceptsBinary(accepting("*/*, application/cbor;q=0.8"))).isFalse();
+    assertThat(ProductController.acceptsBinary(accepting("application/json"))).isFalse();
+  }
+
+  @Test
+  @DisplayName("Should answer a bulk request with a result per product, failed ones included")
+  void shouldAnswerBulkRequestWithResultPerProduct() {
+    when(productService.getBulkSimilarProducts(List.of("100", "404", "500")))
+        .thenReturn(
+            Mono.just(
+                Map.of(
+                    "100",
+                    SimilarProductsResult.found(productDetails),
+                    "404",
+                    SimilarProductsResult.failed(new ProductNotFoundException("404")),
+                    "500",
+                    SimilarProductsResult.failed(new ExternalApiException()))));
+    mapsToResponses();
+
+    StepVerifier.create(
+            productController.getProductsSimilar(
+                Mono.just(new SimilarProductsRequestDto(List.of("100", "404", "500"))),
+                null,
+                exchange))
+        .assertNext(
+            response -> {
+              Map<String, SimilarProductsResultDto> results = response.getBody();
+              assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+              assertThat(results.get("100").getStatus())
+                  .isEqualTo(SimilarProductsResultDto.StatusEnum.OK);
+              assertThat(results.get("100").getProducts())
+                  .containsExactly(productDetailDto1, productDetailDto2);
+              assertThat(results.get("404").getStatus())
+                  .isEqualTo(SimilarProductsResultDto.StatusEnum.NOT_FOUND);
+              assertThat(results.get("404").getProducts()).isEmpty();
+              assertThat(results.get("500").getStatus())
+                  .isEqualTo(SimilarProductsResultDto.StatusEnum.ERROR);
+              assertThat(results.get("500").getError()).isNotBlank();
+            })
+        .verifyComplete();
+  }
+
+  private String eTag() {
+    return eTag(exchange);
+  }
+
+  private String eTag(ServerWebExchange exchange) {
+    return productController
+        .getProductSimilar("100", null, false, null, exchange)
+        .map(response -> response.getHeaders().getETag())
+        .block();
+  }
+
+  private void mapsToResponses() {
+    when(mapper.productDetailToProductDetailDto(productDetail1)).thenReturn(productDetailDto1);
+    when(mapper.productDetailToProductDetailDto(productDetail2)).thenReturn(productDetailDto2);
+  }
+
+  private static ServerHttpRequest accepting(String accept) {
+    return MockServerHttpRequest.get("/product/100/similar")
+        .header(HttpHeaders.ACCEPT, accept)
+        .build();
   }
 }
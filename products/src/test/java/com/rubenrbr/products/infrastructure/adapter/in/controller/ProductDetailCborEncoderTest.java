@@ -0,0 +1,88 @@
+package com.rubenrbr.products.infrastructure.adapter.in.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@DisplayName("ProductDetailCborEncoder Tests")
+class ProductDetailCborEncoderTest {
+
+  private static final ResolvableType PRODUCT = ResolvableType.forClass(ProductDetailDto.class);
+  private static final TypeReference<List<ProductDetailDto>> PRODUCTS = new TypeReference<>() {};
+
+  private final CBORMapper cborMapper = new CBORMapper();
+  private final ProductDetailCborEncoder encoder = new ProductDetailCborEncoder();
+
+  private final ProductDetailDto pants =
+      new ProductDetailDto("2", "Pants", new BigDecimal("19.99"), true);
+  private final ProductDetailDto shoes = new ProductDetailDto("3", null, null, null);
+
+  @Test
+  @DisplayName("Should write an array that reads back as the same products, with exact prices")
+  void shouldWriteArray() throws IOException {
+    assertThat(cborMapper.readValue(encode(Flux.just(pants, shoes), Map.of()), PRODUCTS))
+        .containsExactly(pants, shoes);
+  }
+
+  @Test
+  @DisplayName("Should write a streamed array that reads back as the same products")
+  void shouldWriteStreamedArray() throws IOException {
+    Map<String, Object> streamed = Map.of(ProductDetailEncoder.STREAMED_HINT, true);
+
+    assertThat(cborMapper.readValue(encode(Flux.just(pants, shoes), streamed), PRODUCTS))
+        .containsExactly(pants, shoes);
+    assertThat(cborMapper.readValue(encode(Flux.empty(), streamed), PRODUCTS)).isEmpty();
+    assertThat(cborMapper.readValue(encode(Flux.empty(), Map.of()), PRODUCTS)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Should write a single product as a bare object")
+  void shouldWriteSingleProduct() throws IOException {
+    assertThat(cborMapper.readValue(encode(Mono.just(pants), Map.of()), ProductDetailDto.class))
+        .isEqualTo(pants);
+  }
+
+  @Test
+  @DisplayName("Should only encode product details as CBOR")
+  void shouldOnlyEncodeProductDetailsAsCbor() {
+    assertThat(encoder.canEncode(PRODUCT, MediaType.APPLICATION_CBOR)).isTrue();
+    assertThat(encoder.canEncode(PRODUCT, MediaType.APPLICATION_JSON)).isFalse();
+    assertThat(encoder.canEncode(ResolvableType.forClass(String.class), MediaType.APPLICATION_CBOR))
+        .isFalse();
+  }
+
+  private byte[] encode(Publisher<ProductDetailDto> input, Map<String, Object> hints) {
+    DataBuffer joined =
+        DataBufferUtils.join(
+                encoder.encode(
+                    input,
+                    DefaultDataBufferFactory.sharedInstance,
+                    PRODUCT,
+                    MediaType.APPLICATION_CBOR,
+                    hints))
+            .block();
+    byte[] bytes = new byte[joined.readableByteCount()];
+    joined.read(bytes);
+    DataBufferUtils.release(joined);
+    return bytes;
+  }
+}
@@ -0,0 +1,162 @@
+package com.rubenrbr.products.infrastructure.adapter.in.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+
+import com.rubenrbr.products.domain.model.ProductDetail;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+import com.rubenrbr.products.infrastructure.rest.mapper.ProductResponseFragments;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@DisplayName("ProductDetailJsonEncoder Tests")
+class ProductDetailJsonEncoderTest {
+
+  private static final ResolvableType PRODUCT = ResolvableType.forClass(ProductDetailDto.class);
+
+  private final ProductDetailDto prepared =
+      new ProductDetailDto("2", "Pants", new BigDecimal("19.99"), true);
+  private final ProductDetailDto unprepared =
+      new ProductDetailDto("3", "Shoes", new BigDecimal("29.99"), false);
+
+  private final ProductDetailJsonEncoder encoder =
+      new ProductDetailJsonEncoder(
+          new ProductResponseFragments() {
+            @Override
+            public ProductDetailDto response(ProductDetail product) {
+              return null;
+            }
+
+            @Override
+            public byte[] json(ProductDetailDto response) {
+              return response == prepared
+                  ? "{\"prepared\":2}".getBytes(StandardCharsets.UTF_8)
+                  : null;
+            }
+          });
+
+  @Test
+  @DisplayName("Should splice prepared fragments and written products into one array buffer")
+  void shouldWriteArrayAsOneBuffer() {
+    StepVerifier.create(
+            encoder.encode(
+                Flux.just(prepared, unprepared),
+                DefaultDataBufferFactory.sharedInstance,
+                PRODUCT,
+                MediaType.APPLICATION_JSON,
+                Map.of()))
+        .assertNext(
+            buffer ->
+                assertThat(text(buffer))
+                    .isEqualTo(
+                        "[{\"prepared\":2},"
+                            + "{\"id\":\"3\",\"name\":\"Shoes\",\"price\":29.99,\"availability\":false}]"))
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should write an empty array when there are no products")
+  void shouldWriteEmptyArray() {
+    StepVerifier.create(encode(Flux.empty(), MediaType.APPLICATION_JSON, Map.of()))
+        .expectNext("[]")
+        .verifyComplete();
+    StepVerifier.create(
+            encode(
+                Flux.empty(),
+                MediaType.APPLICATION_JSON,
+                Map.of(ProductDetailJsonEncoder.STREAMED_HINT, true)))
+        .expectNext("[]")
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should write one buffer per product for streamed arrays")
+  void shouldStreamArray() {
+    StepVerifier.create(
+            encode(
+                Flux.just(prepared, prepared),
+                MediaType.APPLICATION_JSON,
+                Map.of(ProductDetailJsonEncoder.STREAMED_HINT, true)))
+        .expectNext("[{\"prepared\":2}", ",{\"prepared\":2}", "]")
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should write one line per product as NDJSON")
+  void shouldWriteNdjsonLines() {
+    StepVerifier.create(
+            encode(Flux.just(prepared, prepared), MediaType.APPLICATION_NDJSON, Map.of()))
+        .expectNext("{\"prepared\":2}\n", "{\"prepared\":2}\n")
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should write a single product as a bare object")
+  void shouldWriteSingleProduct() {
+    StepVerifier.create(encode(Mono.just(prepared), MediaType.APPLICATION_JSON, Map.of()))
+        .expectNext("{\"prepared\":2}")
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should ask for streaming when the request is streamed")
+  void shouldHintStreamingForStreamedRequests() {
+    MockServerHttpResponse response = new MockServerHttpResponse();
+
+    assertThat(
+            encoder.getEncodeHints(
+                PRODUCT,
+                PRODUCT,
+                MediaType.APPLICATION_JSON,
+                MockServerHttpRequest.get("/product/1/similar?stream=true").build(),
+                response))
+        .containsEntry(ProductDetailJsonEncoder.STREAMED_HINT, true);
+    assertThat(
+            encoder.getEncodeHints(
+                PRODUCT,
+                PRODUCT,
+                MediaType.APPLICATION_JSON,
+                MockServerHttpRequest.get("/product/1/similar").build(),
+                response))
+        .containsEntry(ProductDetailJsonEncoder.STREAMED_HINT, false);
+  }
+
+  @Test
+  @DisplayName("Should only encode product details as JSON or NDJSON")
+  void shouldOnlyEncodeProductDetails() {
+    assertThat(encoder.canEncode(PRODUCT, MediaType.APPLICATION_JSON)).isTrue();
+    assertThat(encoder.canEncode(PRODUCT, MediaType.APPLICATION_NDJSON)).isTrue();
+    assertThat(encoder.canEncode(PRODUCT, MediaType.APPLICATION_XML)).isFalse();
+    assertThat(encoder.canEncode(ResolvableType.forClass(String.class), MediaType.APPLICATION_JSON))
+        .isFalse();
+  }
+
+  private Flux<String> encode(
+      Publisher<ProductDetailDto> input, MediaType mediaType, Map<String, Object> hints) {
+    return encoder
+        .encode(input, DefaultDataBufferFactory.sharedInstance, PRODUCT, mediaType, hints)
+        .map(ProductDetailJsonEncoderTest::text);
+  }
+
+  private static String text(DataBuffer buffer) {
+    String text = buffer.toString(StandardCharsets.UTF_8);
+    DataBufferUtils.release(buffer);
+    return text;
+  }
+}
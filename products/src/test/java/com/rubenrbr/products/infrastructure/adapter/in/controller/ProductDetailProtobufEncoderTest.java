@@ -0,0 +1,99 @@
+package com.rubenrbr.products.infrastructure.adapter.in.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+import com.rubenrbr.products.infrastructure.rest.proto.Decimal;
+import com.rubenrbr.products.infrastructure.rest.proto.ProductDetail;
+import com.rubenrbr.products.infrastructure.rest.proto.SimilarProducts;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@DisplayName("ProductDetailProtobufEncoder Tests")
+class ProductDetailProtobufEncoderTest {
+
+  private static final ResolvableType PRODUCT = ResolvableType.forClass(ProductDetailDto.class);
+
+  private final ProductDetailProtobufEncoder encoder = new ProductDetailProtobufEncoder();
+
+  private final ProductDetailDto pants =
+      new ProductDetailDto("2", "Pants", new BigDecimal("19.90"), true);
+  private final ProductDetailDto shoes = new ProductDetailDto("3", null, null, null);
+
+  @Test
+  @DisplayName("Should write a SimilarProducts message with exact prices and unset missing fields")
+  void shouldWriteSimilarProducts() throws InvalidProtocolBufferException {
+    SimilarProducts message = SimilarProducts.parseFrom(encode(Flux.just(pants, shoes), Map.of()));
+
+    assertThat(message.getProductsList())
+        .containsExactly(
+            ProductDetail.newBuilder()
+                .setId("2")
+                .setName("Pants")
+                .setPrice(Decimal.newBuilder().setUnscaled(1990).setScale(2))
+                .setAvailability(true)
+                .build(),
+            ProductDetail.newBuilder().setId("3").build());
+    assertThat(message.getProducts(1).hasAvailability()).isFalse();
+  }
+
+  @Test
+  @DisplayName("Should write a streamed array that parses as the same message")
+  void shouldWriteStreamedArray() throws InvalidProtocolBufferException {
+    Map<String, Object> streamed = Map.of(ProductDetailEncoder.STREAMED_HINT, true);
+
+    assertThat(SimilarProducts.parseFrom(encode(Flux.just(pants, shoes), streamed)))
+        .isEqualTo(SimilarProducts.parseFrom(encode(Flux.just(pants, shoes), Map.of())));
+    assertThat(SimilarProducts.parseFrom(encode(Flux.empty(), streamed)).getProductsCount())
+        .isZero();
+  }
+
+  @Test
+  @DisplayName("Should write a single product as a ProductDetail message")
+  void shouldWriteSingleProduct() throws InvalidProtocolBufferException {
+    assertThat(ProductDetail.parseFrom(encode(Mono.just(pants), Map.of())).getName())
+        .isEqualTo("Pants");
+  }
+
+  @Test
+  @DisplayName("Should refuse prices out of the range of the Decimal message")
+  void shouldRefusePricesOutOfRange() {
+    ProductDetailDto priceless =
+        new ProductDetailDto("4", "Priceless", new BigDecimal("1E+30").setScale(0), true);
+
+    assertThatThrownBy(() -> ProductDetailProtobufEncoder.message(priceless))
+        .isInstanceOf(EncodingException.class);
+  }
+
+  private byte[] encode(Publisher<ProductDetailDto> input, Map<String, Object> hints) {
+    DataBuffer joined =
+        DataBufferUtils.join(
+                encoder.encode(
+                    input,
+                    DefaultDataBufferFactory.sharedInstance,
+                    PRODUCT,
+                    ProductDetailProtobufEncoder.PROTOBUF,
+                    hints))
+            .defaultIfEmpty(DefaultDataBufferFactory.sharedInstance.allocateBuffer(0))
+            .block();
+    byte[] bytes = new byte[joined.readableByteCount()];
+    joined.read(bytes);
+    DataBufferUtils.release(joined);
+    return bytes;
+  }
+}
@@ -0,0 +1,169 @@
+package com.rubenrbr.products.infrastructure.adapter.in.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+
+import com.rubenrbr.products.infrastructure.adapter.in.controller.ProductController;
+import com.rubenrbr.products.infrastructure.adapter.out.ProductApiCache;
+import com.rubenrbr.products.infrastructure.config.CacheControlProperties;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SimilarResponseCacheFilter Tests")
+class SimilarResponseCacheFilterTest {
+
+  private static final byte[] BODY = "[{\"id\":\"2\"}]".getBytes(StandardCharsets.UTF_8);
+  private static final String ETAG = "\"2a\"";
+
+  @Mock private SimilarResponseCache responseCache;
+
+  @Mock private ProductApiCache productApiCache;
+
+  @Mock private WebFilterChain chain;
+
+  private SimilarResponseCacheFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    filter =
+        new SimilarResponseCacheFilter(
+            responseCache,
+            productApiCache,
+            new CacheControlProperties(Duration.ofSeconds(10), Duration.ofMinutes(1)));
+  }
+
+  @Test
+  @DisplayName("Should write cached bodies without calling the controller")
+  void shouldWriteCachedBodyWithoutCallingController() {
+    MockServerWebExchange exchange =
+        MockServerWebExchange.from(MockServerHttpRequest.get("/product/1/similar"));
+    when(responseCache.get("1")).thenReturn(new SimilarResponseCache.Response(BODY, ETAG));
+
+    StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+    HttpHeaders headers = exchange.getResponse().getHeaders();
+    assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(headers.getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+    assertThat(headers.getETag()).isEqualTo(ETAG);
+    assertThat(headers.getCacheControl())
+        .isEqualTo("max-age=10, public, stale-while-revalidate=60");
+    StepVerifier.create(exchange.getResponse().getBodyAsString())
+        .expectNext("[{\"id\":\"2\"}]")
+        .verifyComplete();
+    verify(chain, never()).filter(any());
+  }
+
+  @Test
+  @DisplayName("Should answer 304 without a body when the cached entity tag matches")
+  void shouldAnswerNotModifiedWhenEntityTagMatches() {
+    MockServerWebExchange exchange =
+        MockServerWebExchange.from(
+            MockServerHttpRequest.get("/product/1/similar").ifNoneMatch(ETAG));
+    when(responseCache.get("1")).thenReturn(new SimilarResponseCache.Response(BODY, ETAG));
+
+    StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+    assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo(ETAG);
+    StepVerifier.create(exchange.getResponse().getBodyAsString()).expectNext("").verifyComplete();
+    verify(chain, never()).filter(any());
+  }
+
+  @Test
+  @DisplayName("Should capture the controller body on a miss")
+  void shouldCaptureControllerBodyOnMiss() {
+    MockServerWebExchange exchange =
+        MockServerWebExchange.from(MockServerHttpRequest.get("/product/1/similar"));
+    when(responseCache.version()).thenReturn(7L);
+    when(productApiCache.peekSimilarProductIds("1")).thenReturn(List.of("2"));
+    when(chain.filter(any()))
+        .thenAnswer(
+            invocation -> {
+              ServerWebExchange mutated = invocation.getArgument(0);
+              ServerHttpResponse response = mutated.getResponse();
+              response.setStatusCode(HttpStatus.OK);
+              response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+              response.getHeaders().setETag(ETAG);
+              return response.writeWith(Mono.just(response.bufferFactory().wrap(BODY)));
+            });
+
+    StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+    verify(responseCache).put("1", BODY, ETAG, List.of("2"), 7L);
+  }
+
+  @Test
+  @DisplayName("Should not capture partial responses")
+  void shouldNotCapturePartialResponses() {
+    MockServerWebExchange exchange =
+        MockServerWebExchange.from(MockServerHttpRequest.get("/product/1/similar"));
+    when(chain.filter(any()))
+        .thenAnswer(
+            invocation -> {
+              ServerWebExchange mutated = invocation.getArgument(0);
+              ServerHttpResponse response = mutated.getResponse();
+              response.setStatusCode(HttpStatus.OK);
+              response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+              response.getHeaders().add(ProductController.PARTIAL_RESPONSE, "deadline-exceeded");
+              return response.writeWith(Mono.just(response.bufferFactory().wrap(BODY)));
+            });
+
+    StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+    StepVerifier.create(exchange.getResponse().getBodyAsString())
+        .expectNext("[{\"id\":\"2\"}]")
+        .verifyComplete();
+    verify(responseCache, never()).put(anyString(), any(), any(), any(), anyLong());
+  }
+
+  @Test
+  @DisplayName("Should ignore requests for other paths")
+  void shouldIgnoreOtherPaths() {
+    MockServerWebExchange exchange =
+        MockServerWebExchange.from(MockServerHttpRequest.get("/product/1"));
+    when(chain.filter(exchange)).thenReturn(Mono.empty());
+
+    StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+    verify(responseCache, never()).get(anyString());
+    verify(responseCache, never()).put(anyString(), any(), any(), any(), anyLong());
+  }
+
+  @Test
+  @DisplayName("Should leave requests with a limit to the controller")
+  void shouldIgnoreLimitedRequests() {
+    MockServerWebExchange exchange =
+        MockServerWebExchange.from(MockServerHttpRequest.get("/product/1/similar?limit=4"));
+    when(chain.filter(exchange)).thenReturn(Mono.empty());
+
+    StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+    verify(responseCache, never()).get(anyString());
+  }
+}
@@ -0,0 +1,160 @@
+package com.rubenrbr.products.infrastructure.adapter.in.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import com.rubenrbr.products.infrastructure.cache.CacheChangeNotifier;
+import com.rubenrbr.products.infrastructure.cache.CacheStatistics;
+import com.rubenrbr.products.infrastructure.config.CacheConfig;
+import com.rubenrbr.products.infrastructure.config.CacheProperties;
+
+@DisplayName("SimilarResponseCache Tests")
+class SimilarResponseCacheTest {
+
+  private static final byte[] BODY_1 =
+      "[{\"id\":\"2\"},{\"id\":\"3\"}]".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] BODY_5 = "[{\"id\":\"3\"}]".getBytes(StandardCharsets.UTF_8);
+
+  private CacheChangeNotifier notifier;
+  private SimilarResponseCache responseCache;
+
+  @BeforeEach
+  void setUp() {
+    notifier = new CacheChangeNotifier();
+    responseCache =
+        new SimilarResponseCache(
+            new CacheConfig()
+                .cacheManager(new CacheProperties(null), notifier, new CacheStatistics()),
+            notifier);
+  }
+
+  @Test
+  @DisplayName("Should return stored bodies with their entity tag")
+  void shouldReturnStoredBodies() {
+    responseCache.put("1", BODY_1, "\"1\"", List.of("2", "3"), responseCache.version());
+
+    assertThat(responseCache.get("1").body()).isEqualTo(BODY_1);
+    assertThat(responseCache.get("1").eTag()).isEqualTo("\"1\"");
+    assertThat(responseCache.get("5")).isNull();
+  }
+
+  @Test
+  @DisplayName("Should drop only the bodies that contain a changed product detail")
+  void shouldDropBodiesContainingChangedDetail() {
+    responseCache.put("1", BODY_1, "\"1\"", List.of("2", "3"), responseCache.version());
+    responseCache.put("5", BODY_5, "\"5\"", List.of("3"), responseCache.version());
+
+    notifier.changed(CacheConfig.PRODUCT_DETAIL, "2");
+
+    assertThat(responseCache.get("1")).isNull();
+    assertThat(responseCache.get("5").body()).isEqualTo(BODY_5);
+
+    notifier.changed(CacheConfig.PRODUCT_DETAIL, "3");
+
+    assertThat(responseCache.get("5")).isNull();
+  }
+
+  @Test
+  @DisplayName("Should drop bodies that skipped a product whose not-found entry expired")
+  void shouldDropBodiesWhenNotFoundEntryChanges() {
+    responseCache.put("1", BODY_1, "\"1\"", List.of("2", "3", "999"), responseCache.version());
+
+    notifier.changed(CacheConfig.PRODUCT_DETAIL_NOT_FOUND, "999");
+
+    assertThat(responseCache.get("1")).isNull();
+  }
+
+  @Test
+  @DisplayName("Should drop the body when the product's similar ids change")
+  void shouldDropBodyWhenSimilarIdsChange() {
+    responseCache.put("1", BODY_1, "\"1\"", List.of("2", "3"), responseCache.version());
+    responseCache.put("5", BODY_5, "\"5\"", List.of("3"), responseCache.version());
+
+    notifier.changed(CacheConfig.SIMILAR_IDS, "1");
+
+    assertThat(responseCache.get("1")).isNull();
+    assertThat(responseCache.get("5").body()).isEqualTo(BODY_5);
+  }
+
+  @Test
+  @DisplayName("Should not store a body computed while a dependency changed")
+  void shouldNotStoreBodyComputedDuringChange() {
+    long startedAt = responseCache.version();
+
+    notifier.changed(CacheConfig.PRODUCT_DETAIL, "2");
+    responseCache.put("1", BODY_1, "\"1\"", List.of("2", "3"), startedAt);
+
+    assertThat(responseCache.get("1")).isNull();
+  }
+
+  @Test
+  @DisplayName("Should store a body computed while unrelated entries changed")
+  void shouldStoreBodyComputedDuringUnrelatedChanges() {
+    long startedAt = responseCache.version();
+
+    notifier.changed(CacheConfig.PRODUCT_DETAIL, "7");
+    notifier.changed(CacheConfig.SIMILAR_IDS, "2");
+    responseCache.put("1", BODY_1, "\"1\"", List.of("2", "3"), startedAt);
+
+    assertThat(responseCache.get("1").body()).isEqualTo(BODY_1);
+  }
+
+  @Test
+  @DisplayName("Should not store a body computed while its own similar ids changed")
+  void shouldNotStoreBodyComputedDuringSimilarIdsChange() {
+    long startedAt = responseCache.version();
+
+    notifier.changed(CacheConfig.SIMILAR_IDS, "1");
+    responseCache.put("1", BODY_1, "\"1\"", List.of("2", "3"), startedAt);
+
+    assertThat(responseCache.get("1")).isNull();
+  }
+
+  @Test
+  @DisplayName("Should ignore product details evicted to make room")
+  void shouldIgnoreSizeEvictions() {
+    long startedAt = responseCache.version();
+    RemovalListener<Object, Object> listener = notifier.removalListener(CacheConfig.PRODUCT_DETAIL);
+
+    listener.onRemoval("2", null, RemovalCause.SIZE);
+    responseCache.put("1", BODY_1, "\"1\"", List.of("2", "3"), startedAt);
+    listener.onRemoval("3", null, RemovalCause.SIZE);
+
+    assertThat(responseCache.get("1").body()).isEqualTo(BODY_1);
+
+    listener.onRemoval("3", null, RemovalCause.EXPIRED);
+
+    assertThat(responseCache.get("1")).isNull();
+  }
+
+  @Test
+  @DisplayName("Should bound the dependency index, dropping the bodies of evicted entries")
+  void shouldBoundDependencyIndex() {
+    CacheProperties properties =
+        new CacheProperties(
+            Map.of(
+                CacheConfig.SIMILAR_RESPONSE,
+                new CacheProperties.Spec(1L, null, null, null, null, null, null)));
+    SimilarResponseCache bounded =
+        new SimilarResponseCache(
+            new CacheConfig().cacheManager(properties, notifier, new CacheStatistics()), notifier);
+    List<String> similarIds =
+        IntStream.range(0, 40).mapToObj(String::valueOf).collect(Collectors.toList());
+
+    bounded.put("1", BODY_1, "\"1\"", similarIds, bounded.version());
+
+    assertThat(bounded.dependentCount()).isEqualTo(SimilarResponseCache.PRODUCTS_PER_RESPONSE);
+    assertThat(bounded.get("1")).isNull();
+  }
+}
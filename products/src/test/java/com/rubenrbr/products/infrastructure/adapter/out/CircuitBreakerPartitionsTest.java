@@ -0,0 +1,87 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.rubenrbr.products.infrastructure.adapter.out.CircuitBreakerPartitions.PartitionBy;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+
+@DisplayName("CircuitBreakerPartitions Tests")
+class CircuitBreakerPartitionsTest {
+
+  private CircuitBreakerRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    registry = CircuitBreakerRegistry.ofDefaults();
+    registry.circuitBreaker(
+        "product-detail", CircuitBreakerConfig.custom().slowCallRateThreshold(25).build());
+  }
+
+  @Test
+  @DisplayName("Should use the endpoint's breaker when not partitioned")
+  void shouldUseEndpointBreakerWhenNotPartitioned() {
+    CircuitBreakerPartitions partitions =
+        CircuitBreakerPartitions.unpartitioned(registry, "product-detail");
+
+    assertThat(partitions.forProduct("1")).isSameAs(registry.circuitBreaker("product-detail"));
+    assertThat(partitions.forBatch()).isSameAs(registry.circuitBreaker("product-detail"));
+  }
+
+  @Test
+  @DisplayName("Should spread products over a fixed number of shards with the endpoint's config")
+  void shouldSpreadProductsOverShards() {
+    CircuitBreakerPartitions partitions =
+        new CircuitBreakerPartitions(registry, "product-detail", PartitionBy.ID_SHARD, 4, null);
+
+    Set<String> names = new HashSet<>();
+    IntStream.range(0, 100)
+        .mapToObj(i -> partitions.forProduct(String.valueOf(i)))
+        .forEach(breaker -> names.add(breaker.getName()));
+
+    assertThat(names)
+        .containsExactlyInAnyOrder(
+            "product-detail#0", "product-detail#1", "product-detail#2", "product-detail#3");
+    assertThat(partitions.forProduct("7")).isSameAs(partitions.forProduct("7"));
+    assertThat(partitions.forProduct("7").getCircuitBreakerConfig().getSlowCallRateThreshold())
+        .isEqualTo(25);
+    assertThat(partitions.forBatch().getName()).isEqualTo("product-detail");
+  }
+
+  @Test
+  @DisplayName("Should open one shard without stopping the calls of the others")
+  void shouldOpenOneShardOnly() {
+    CircuitBreakerPartitions partitions =
+        new CircuitBreakerPartitions(registry, "product-detail", PartitionBy.ID_SHARD, 8, null);
+    CircuitBreaker failing = partitions.forProduct("1");
+
+    failing.transitionToOpenState();
+
+    IntStream.range(0, 100)
+        .mapToObj(i -> partitions.forProduct(String.valueOf(i)))
+        .filter(breaker -> breaker != failing)
+        .forEach(breaker -> assertThat(breaker.tryAcquirePermission()).isTrue());
+    assertThat(failing.tryAcquirePermission()).isFalse();
+  }
+
+  @Test
+  @DisplayName("Should use one breaker per host for single and batch calls")
+  void shouldPartitionByHost() {
+    CircuitBreakerPartitions partitions =
+        new CircuitBreakerPartitions(
+            registry, "product-detail", PartitionBy.HOST, 1, "localhost:3001");
+
+    assertThat(partitions.forProduct("1").getName()).isEqualTo("product-detail@localhost:3001");
+    assertThat(partitions.forBatch()).isSameAs(partitions.forProduct("2"));
+  }
+}
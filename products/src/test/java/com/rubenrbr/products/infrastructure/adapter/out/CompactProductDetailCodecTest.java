@@ -0,0 +1,65 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import static com.rubenrbr.products.infrastructure.util.TestUtil.createProductDetailDto;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.openjdk.jol.info.GraphLayout;
+
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+
+@DisplayName("CompactProductDetailCodec Tests")
+class CompactProductDetailCodecTest {
+
+  private final CompactProductDetailCodec codec = new CompactProductDetailCodec();
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {"19.99", "0", "-5.5", "1E+3", "0.000000001", "92233720368547758070.5", "1E-200"})
+  @DisplayName("Should round-trip prices exactly")
+  void shouldRoundTripPricesExactly(String price) {
+    ProductDetailDto product = createProductDetailDto("1", "Shirt", new BigDecimal(price), true);
+
+    ProductDetailDto decoded = codec.decode(codec.encode(product));
+
+    assertThat(decoded.getPrice()).isEqualTo(new BigDecimal(price));
+  }
+
+  @Test
+  @DisplayName("Should round-trip every field")
+  void shouldRoundTripEveryField() {
+    ProductDetailDto product =
+        createProductDetailDto(
+            "PROD-2024-001", "Camiseta de algodón ✓", new BigDecimal("9.95"), false);
+
+    ProductDetailDto decoded = codec.decode(codec.encode(product));
+
+    assertThat(decoded).isEqualTo(product);
+    assertThat(decoded).isNotSameAs(product);
+  }
+
+  @Test
+  @DisplayName("Should round-trip missing fields as null")
+  void shouldRoundTripMissingFieldsAsNull() {
+    ProductDetailDto product = new ProductDetailDto(null, null, null, null);
+
+    assertThat(codec.decode(codec.encode(product))).isEqualTo(product);
+  }
+
+  @Test
+  @DisplayName("Should take a fraction of the heap of the deserialized DTO")
+  void shouldTakeAFractionOfTheHeapOfTheDto() {
+    ProductDetailDto product =
+        createProductDetailDto("12345", "Leather Boots", new BigDecimal("129.99"), true);
+
+    long objectBytes = GraphLayout.parseInstance(product).totalSize();
+    long compactBytes = GraphLayout.parseInstance(codec.encode(product)).totalSize();
+
+    assertThat(compactBytes).isLessThan(objectBytes / 3);
+  }
+}
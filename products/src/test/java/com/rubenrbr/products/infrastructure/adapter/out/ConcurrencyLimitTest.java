@@ -0,0 +1,109 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ConcurrencyLimit Tests")
+class ConcurrencyLimitTest {
+
+  private static final long FAST = Duration.ofMillis(10).toNanos();
+  private static final long SLOW = Duration.ofMillis(100).toNanos();
+
+  @Nested
+  @DisplayName("AimdLimit Tests")
+  class AimdLimitTests {
+
+    private final AimdLimit limit = new AimdLimit(10, 2, 12, 0.5, Duration.ofMillis(50));
+
+    @Test
+    @DisplayName("Should grow by one per fast call while at least half of the limit is used")
+    void shouldGrowAdditively() {
+      limit.onSample(FAST, 5, false);
+      limit.onSample(FAST, 2, false);
+
+      assertThat(limit.limit()).isEqualTo(11);
+    }
+
+    @Test
+    @DisplayName("Should not grow beyond the maximum")
+    void shouldNotGrowBeyondMaximum() {
+      for (int i = 0; i < 10; i++) {
+        limit.onSample(FAST, 10, false);
+      }
+
+      assertThat(limit.limit()).isEqualTo(12);
+    }
+
+    @Test
+    @DisplayName("Should back off on slow or dropped calls, down to the minimum")
+    void shouldBackOffMultiplicatively() {
+      limit.onSample(SLOW, 10, false);
+      assertThat(limit.limit()).isEqualTo(5);
+
+      limit.onSample(FAST, 5, true);
+      assertThat(limit.limit()).isEqualTo(2);
+
+      limit.onSample(FAST, 2, true);
+      assertThat(limit.limit()).isEqualTo(2);
+    }
+  }
+
+  @Nested
+  @DisplayName("GradientLimit Tests")
+  class GradientLimitTests {
+
+    private final GradientLimit limit = new GradientLimit(20, 5, 100, 1.5, 0.9);
+
+    @Test
+    @DisplayName("Should grow while latency stays at its baseline and the limit is used")
+    void shouldGrowWhileLatencyIsSteady() {
+      for (int i = 0; i < 20; i++) {
+        limit.onSample(FAST, limit.limit(), false);
+      }
+
+      assertThat(limit.limit()).isGreaterThan(20);
+    }
+
+    @Test
+    @DisplayName("Should not grow while most of the limit is unused")
+    void shouldNotGrowWhenUnderused() {
+      for (int i = 0; i < 20; i++) {
+        limit.onSample(FAST, 1, false);
+      }
+
+      assertThat(limit.limit()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should shrink when latency rises well above its baseline")
+    void shouldShrinkWhenLatencyRises() {
+      for (int i = 0; i < 50; i++) {
+        limit.onSample(FAST, limit.limit(), false);
+      }
+      int steady = limit.limit();
+
+      for (int i = 0; i < 30; i++) {
+        limit.onSample(SLOW, limit.limit(), false);
+      }
+
+      assertThat(limit.limit()).isLessThan(steady);
+    }
+
+    @Test
+    @DisplayName("Should back off on dropped calls, down to the minimum")
+    void shouldBackOffOnDrops() {
+      limit.onSample(FAST, 20, true);
+      assertThat(limit.limit()).isEqualTo(18);
+
+      for (int i = 0; i < 50; i++) {
+        limit.onSample(FAST, 20, true);
+      }
+      assertThat(limit.limit()).isEqualTo(5);
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.rubenrbr.products.domain.exception.DeadlineExceededException;
+import com.rubenrbr.products.domain.model.Deadline;
+import com.rubenrbr.products.infrastructure.cache.CacheChangeNotifier;
+import com.rubenrbr.products.infrastructure.cache.CacheStatistics;
+import com.rubenrbr.products.infrastructure.cache.SharedCache;
+import com.rubenrbr.products.infrastructure.config.CacheConfig;
+import com.rubenrbr.products.infrastructure.config.CacheProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductApiCache Tests")
+class ProductApiCacheTest {
+
+  @Mock private ProductExistingApiClient client;
+  @Mock private ProductDetailBatcher productDetailBatcher;
+  @Mock private ProductMapper productMapper;
+  @Mock private ObjectProvider<SharedCache> sharedCache;
+
+  private ProductApiCache productApiCache;
+
+  @BeforeEach
+  void setUp() {
+    CacheChangeNotifier notifier = new CacheChangeNotifier();
+    CacheProperties properties = new CacheProperties(null);
+    CacheStatistics statistics = new CacheStatistics();
+    productApiCache =
+        new ProductApiCache(
+            client,
+            productDetailBatcher,
+            productMapper,
+            new CacheConfig().cacheManager(properties, notifier, statistics),
+            properties,
+            notifier,
+            sharedCache,
+            statistics,
+            new SimpleMeterRegistry());
+  }
+
+  @Test
+  @DisplayName("Should load within the latest deadline of the requests waiting for the load")
+  void shouldLoadWithinLatestDeadlineOfWaitingRequests() {
+    AtomicReference<Deadline> loadDeadline = new AtomicReference<>();
+    when(client.getSimilarProductIds("1"))
+        .thenReturn(
+            Mono.deferContextual(
+                context -> {
+                  loadDeadline.set(Deadline.from(context).orElse(null));
+                  return Deadline.bound(Mono.<List<String>>never());
+                }));
+    Deadline hurried = Deadline.after(Duration.ofMillis(50));
+    Deadline patient = Deadline.after(Duration.ofMillis(500));
+
+    CompletableFuture<List<String>> first =
+        productApiCache.getSimilarProductIds("1").contextWrite(hurried::putIn).toFuture();
+    CompletableFuture<List<String>> second =
+        productApiCache.getSimilarProductIds("1").contextWrite(patient::putIn).toFuture();
+
+    StepVerifier.create(Mono.fromFuture(first))
+        .expectError(DeadlineExceededException.class)
+        .verify(Duration.ofSeconds(1));
+    assertThat(hurried.exceeded()).isTrue();
+    assertThat(second).isNotDone();
+    assertThat(loadDeadline.get()).isNotNull();
+    assertThat(loadDeadline.get().remaining()).isPositive();
+
+    assertThat(second)
+        .failsWithin(Duration.ofSeconds(1))
+        .withThrowableOfType(ExecutionException.class)
+        .withCauseInstanceOf(DeadlineExceededException.class);
+    assertThat(patient.exceeded()).isTrue();
+    assertThat(loadDeadline.get().remaining()).isZero();
+    verify(client, times(1)).getSimilarProductIds("1");
+  }
+}
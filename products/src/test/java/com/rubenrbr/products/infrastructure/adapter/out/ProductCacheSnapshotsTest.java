@@ -0,0 +1,81 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.rubenrbr.products.infrastructure.config.CacheSnapshotProperties;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductCacheSnapshots Tests")
+class ProductCacheSnapshotsTest {
+
+  private static final Path DIRECTORY = Path.of("snapshots");
+  private static final Instant NOW = Instant.parse("2024-01-01T12:00:00Z");
+
+  @Mock private ProductApiCache productApiCache;
+
+  private ProductCacheSnapshots snapshots;
+
+  @BeforeEach
+  void setUp() {
+    snapshots =
+        new ProductCacheSnapshots(
+            productApiCache,
+            new CacheSnapshotProperties(
+                true, DIRECTORY, Duration.ofHours(1), Duration.ofMinutes(30)),
+            Clock.fixed(NOW, ZoneOffset.UTC));
+  }
+
+  @Test
+  @DisplayName("Should restore entries within the max staleness on start")
+  void shouldRestoreOnStart() throws IOException {
+    snapshots.start();
+
+    verify(productApiCache)
+        .restoreSnapshots(DIRECTORY, NOW.minus(Duration.ofMinutes(30)).toEpochMilli());
+    assertThat(snapshots.isRunning()).isTrue();
+    snapshots.stop();
+  }
+
+  @Test
+  @DisplayName("Should start even when the snapshot cannot be read")
+  void shouldStartWhenRestoreFails() throws IOException {
+    doThrow(new IOException("unreadable"))
+        .when(productApiCache)
+        .restoreSnapshots(DIRECTORY, NOW.minus(Duration.ofMinutes(30)).toEpochMilli());
+
+    snapshots.start();
+
+    assertThat(snapshots.isRunning()).isTrue();
+    snapshots.stop();
+  }
+
+  @Test
+  @DisplayName("Should write a final snapshot on stop")
+  void shouldSnapshotOnStop() throws IOException {
+    snapshots.start();
+    snapshots.stop();
+
+    verify(productApiCache)
+        .restoreSnapshots(DIRECTORY, NOW.minus(Duration.ofMinutes(30)).toEpochMilli());
+    verify(productApiCache).writeSnapshots(DIRECTORY);
+    verifyNoMoreInteractions(productApiCache);
+    assertThat(snapshots.isRunning()).isFalse();
+  }
+}
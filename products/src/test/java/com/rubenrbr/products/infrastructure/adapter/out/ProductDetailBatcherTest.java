@@ -0,0 +1,184 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import static com.rubenrbr.products.infrastructure.util.TestUtil.createProductDetailDto;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.rubenrbr.products.domain.exception.ExternalApiException;
+import com.rubenrbr.products.domain.exception.ProductNotFoundException;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@DisplayName("ProductDetailBatcher Tests")
+class ProductDetailBatcherTest {
+
+  private final List<String> singleCalls = new ArrayList<>();
+  private final List<List<String>> batchCalls = new ArrayList<>();
+
+  @Test
+  @DisplayName("Should look up the ids of a window in one deduplicated batch call")
+  void shouldBatchLookupsWithinWindow() {
+    ProductDetailBatcher batcher = batcher(found("1", "2"), 10);
+
+    StepVerifier.withVirtualTime(
+            () ->
+                Mono.zip(batcher.load("1"), batcher.load("2"), batcher.load("1"))
+                    .map(t -> t.getT3()))
+        .expectSubscription()
+        .then(() -> assertThat(batchCalls).isEmpty())
+        .thenAwait(Duration.ofMillis(2))
+        .assertNext(detail -> assertThat(detail.getId()).isEqualTo("1"))
+        .verifyComplete();
+
+    assertThat(batchCalls).containsExactly(List.of("1", "2"));
+    assertThat(singleCalls).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Should dispatch a batch at once when it reaches the maximum size")
+  void shouldDispatchFullBatchAtOnce() {
+    ProductDetailBatcher batcher = batcher(found("1", "2", "3"), 2, Duration.ofMinutes(1));
+
+    StepVerifier.create(Mono.zip(batcher.load("1"), batcher.load("2")))
+        .expectNextCount(1)
+        .verifyComplete();
+
+    assertThat(batchCalls).containsExactly(List.of("1", "2"));
+    assertThat(batcher.waitingCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should give the batch after a full one its whole window")
+  void shouldNotFlushNextBatchEarlyAfterFullBatch() {
+    ProductDetailBatcher batcher = batcher(found("1", "2", "3"), 2, Duration.ofMillis(10));
+
+    StepVerifier.withVirtualTime(
+            () ->
+                Mono.zip(batcher.load("1"), batcher.load("2"))
+                    .then(Mono.delay(Duration.ofMillis(5)))
+                    .then(batcher.load("3")))
+        .expectSubscription()
+        .thenAwait(Duration.ofMillis(5))
+        .then(() -> assertThat(batchCalls).containsExactly(List.of("1", "2")))
+        .thenAwait(Duration.ofMillis(5))
+        .then(() -> assertThat(batchCalls).hasSize(1))
+        .thenAwait(Duration.ofMillis(5))
+        .expectNextCount(1)
+        .verifyComplete();
+
+    assertThat(batchCalls).containsExactly(List.of("1", "2"), List.of("3"));
+  }
+
+  @Test
+  @DisplayName("Should fail the ids of a batch call that takes longer than the timeout")
+  void shouldFailBatchCallsThatTimeOut() {
+    ProductDetailBatcher batcher = batcher(ids -> Mono.never(), 1);
+
+    StepVerifier.withVirtualTime(() -> batcher.load("1"))
+        .expectSubscription()
+        .thenAwait(Duration.ofSeconds(1))
+        .expectError(ExternalApiException.class)
+        .verify();
+  }
+
+  @Test
+  @DisplayName("Should fail ids missing from the batch result as not found")
+  void shouldFailMissingIdsAsNotFound() {
+    ProductDetailBatcher batcher = batcher(found("1"), 2);
+
+    Mono<ProductDetailDto> missing = batcher.load("9");
+    StepVerifier.create(Mono.zip(batcher.load("1"), missing.onErrorResume(e -> Mono.empty())))
+        .verifyComplete();
+    StepVerifier.create(missing).expectError(ProductNotFoundException.class).verify();
+  }
+
+  @Test
+  @DisplayName("Should fail every id of a batch whose call fails")
+  void shouldFailWholeBatchOnError() {
+    ProductDetailBatcher batcher = batcher(ids -> Mono.error(new ExternalApiException()), 2);
+
+    Mono<ProductDetailDto> first = batcher.load("1");
+    Mono<ProductDetailDto> second = batcher.load("2");
+
+    StepVerifier.create(first).expectError(ExternalApiException.class).verify();
+    StepVerifier.create(second).expectError(ExternalApiException.class).verify();
+  }
+
+  @Test
+  @DisplayName("Should look up each id of a batch on its own without a batch call")
+  void shouldFallBackToSingleCalls() {
+    ProductDetailBatcher batcher =
+        new ProductDetailBatcher(
+            true, this::single, null, Duration.ofMillis(2), 10, Duration.ofSeconds(1));
+
+    StepVerifier.withVirtualTime(
+            () -> Mono.zip(batcher.load("1"), batcher.load("1"), batcher.load("2")))
+        .expectSubscription()
+        .thenAwait(Duration.ofMillis(2))
+        .expectNextCount(1)
+        .verifyComplete();
+
+    assertThat(singleCalls).containsExactly("1", "2");
+  }
+
+  @Test
+  @DisplayName("Should call straight through when disabled")
+  void shouldCallStraightThroughWhenDisabled() {
+    StepVerifier.create(ProductDetailBatcher.disabled(this::single).load("1"))
+        .expectNextCount(1)
+        .verifyComplete();
+
+    assertThat(singleCalls).containsExactly("1");
+  }
+
+  private ProductDetailBatcher batcher(
+      Function<List<String>, Mono<Map<String, ProductDetailDto>>> call, int maxBatchSize) {
+    return batcher(call, maxBatchSize, Duration.ofMillis(2));
+  }
+
+  private ProductDetailBatcher batcher(
+      Function<List<String>, Mono<Map<String, ProductDetailDto>>> call,
+      int maxBatchSize,
+      Duration window) {
+    return new ProductDetailBatcher(
+        true,
+        this::single,
+        ids -> {
+          batchCalls.add(ids);
+          return call.apply(ids);
+        },
+        window,
+        maxBatchSize,
+        Duration.ofSeconds(1));
+  }
+
+  private Mono<ProductDetailDto> single(String id) {
+    singleCalls.add(id);
+    return Mono.just(detail(id));
+  }
+
+  private static Function<List<String>, Mono<Map<String, ProductDetailDto>>> found(
+      String... available) {
+    return ids ->
+        Mono.just(
+            ids.stream()
+                .filter(List.of(available)::contains)
+                .collect(Collectors.toMap(id -> id, ProductDetailBatcherTest::detail)));
+  }
+
+  private static ProductDetailDto detail(String id) {
+    return createProductDetailDto(id, "Product " + id, BigDecimal.ONE, true);
+  }
+}
@@ -0,0 +1,132 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+
+import io.netty.buffer.UnpooledByteBufAllocator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@DisplayName("ProductDetailJsonDecoder Tests")
+class ProductDetailJsonDecoderTest {
+
+  private static final ResolvableType PRODUCT = ResolvableType.forClass(ProductDetailDto.class);
+
+  private final ProductDetailJsonDecoder decoder = new ProductDetailJsonDecoder(new JsonFactory());
+
+  @Test
+  @DisplayName("Should decode a product split across buffers, mid-token")
+  void shouldDecodeProductSplitAcrossBuffers() {
+    String json = "{\"id\":\"2\",\"name\":\"Pants\",\"price\":19.99,\"availability\":true}";
+
+    StepVerifier.create(decode(chunks(json, 5)))
+        .assertNext(
+            product -> {
+              assertThat(product.getId()).isEqualTo("2");
+              assertThat(product.getName()).isEqualTo("Pants");
+              assertThat(product.getPrice()).isEqualByComparingTo("19.99");
+              assertThat(product.getAvailability()).isTrue();
+            })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should decode like the default JSON decoder: coercions, nulls and unknown fields")
+  void shouldDecodeLikeDefaultDecoder() {
+    String json =
+        "{\"extra\":{\"id\":\"nested\",\"list\":[1,{\"name\":\"x\"}]},\"id\":7,"
+            + "\"name\":null,\"price\":\"1.50\",\"availability\":\"false\",\"tags\":[\"a\"]}";
+
+    StepVerifier.create(decode(chunks(json, 3)))
+        .assertNext(
+            product -> {
+              assertThat(product.getId()).isEqualTo("7");
+              assertThat(product.getName()).isNull();
+              assertThat(product.getPrice()).isEqualTo(new BigDecimal("1.50"));
+              assertThat(product.getAvailability()).isFalse();
+            })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should decode an empty body to nothing")
+  void shouldDecodeEmptyBodyToNothing() {
+    StepVerifier.create(decode(Flux.empty())).verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should fail on malformed, truncated or non-object bodies")
+  void shouldFailOnInvalidBodies() {
+    for (String json :
+        List.of("{\"id\":", "{\"id\":\"1\"", "[1]", "{} {}", "{\"price\":\"abc\"}")) {
+      StepVerifier.create(decode(chunks(json, 4))).expectError(DecodingException.class).verify();
+    }
+  }
+
+  @Test
+  @DisplayName("Should release every buffer it is given, also on errors")
+  void shouldReleaseBuffers() {
+    NettyDataBufferFactory factory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+    List<DataBuffer> buffers = new ArrayList<>();
+    for (String json : List.of("{\"id\":\"1\",\"name\":\"P\"}", "{\"id\":1}}")) {
+      decode(chunks(json, 4, factory).doOnNext(buffers::add)).onErrorComplete().block();
+    }
+
+    assertThat(buffers).hasSizeGreaterThan(2);
+    assertThat(buffers)
+        .allMatch(buffer -> ((NettyDataBuffer) buffer).getNativeBuffer().refCnt() == 0);
+  }
+
+  @Test
+  @DisplayName("Should only decode product details as JSON")
+  void shouldOnlyDecodeProductDetails() {
+    assertThat(decoder.canDecode(PRODUCT, MediaType.APPLICATION_JSON)).isTrue();
+    assertThat(decoder.canDecode(ResolvableType.forClass(Map.class), MediaType.APPLICATION_JSON))
+        .isFalse();
+    assertThat(
+            decoder.canDecode(
+                ResolvableType.forClassWithGenerics(List.class, ProductDetailDto.class),
+                MediaType.APPLICATION_JSON))
+        .isFalse();
+    assertThat(decoder.canDecode(PRODUCT, MediaType.APPLICATION_XML)).isFalse();
+  }
+
+  private Mono<ProductDetailDto> decode(Flux<DataBuffer> body) {
+    return decoder.decodeToMono(body, PRODUCT, MediaType.APPLICATION_JSON, Map.of());
+  }
+
+  private static Flux<DataBuffer> chunks(String json, int size) {
+    return chunks(json, size, DefaultDataBufferFactory.sharedInstance);
+  }
+
+  private static Flux<DataBuffer> chunks(String json, int size, DataBufferFactory factory) {
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    List<DataBuffer> buffers = new ArrayList<>();
+    for (int start = 0; start < bytes.length; start += size) {
+      byte[] chunk = new byte[Math.min(size, bytes.length - start)];
+      System.arraycopy(bytes, start, chunk, 0, chunk.length);
+      buffers.add(factory.wrap(chunk));
+    }
+    return Flux.fromIterable(buffers);
+  }
+}
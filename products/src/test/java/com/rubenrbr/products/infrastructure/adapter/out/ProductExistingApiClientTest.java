@@ -8,7 +8,10 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -18,12 +21,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.rubenrbr.products.domain.exception.DeadlineExceededException;
 import com.rubenrbr.products.domain.exception.ExternalApiException;
 import com.rubenrbr.products.domain.exception.ProductNotFoundException;
+import com.rubenrbr.products.domain.exception.UpstreamUnavailableException;
+import com.rubenrbr.products.domain.model.Deadline;
 import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
 
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -39,11 +48,32 @@ class ProductExistingApiClientTest {
 
   @Mock private WebClient.ResponseSpec responseSpec;
 
+  private ProductNotFoundCache notFoundCache;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private CircuitBreakerPartitions productDetailBreakers;
+
   private ProductExistingApiClient apiClient;
 
   @BeforeEach
   void setUp() {
-    apiClient = new ProductExistingApiClient(webClient);
+    notFoundCache = new ProductNotFoundCache(new ConcurrentMapCacheManager());
+    meterRegistry = new SimpleMeterRegistry();
+    productDetailBreakers =
+        CircuitBreakerPartitions.unpartitioned(
+            CircuitBreakerRegistry.ofDefaults(), "product-detail");
+    apiClient =
+        new ProductExistingApiClient(
+            webClient,
+            notFoundCache,
+            RequestHedger.disabled(),
+            UpstreamBulkhead.disabled(),
+            UpstreamBulkhead.disabled(),
+            UpstreamBulkhead.disabled(),
+            UpstreamRetry.disabled(),
+            UpstreamRetry.disabled(),
+            productDetailBreakers);
   }
 
   @Nested
@@ -157,6 +187,24 @@ class ProductExistingApiClientTest {
   @DisplayName("getProductDetail Tests")
   class GetProductDetailTests {
 
+    @Test
+    @DisplayName("Should cut the call to the deadline in the subscriber context")
+    void shouldCutCallToDeadline() {
+      Deadline deadline = Deadline.after(Duration.ofMillis(50));
+
+      when(webClient.get()).thenReturn(requestHeadersUriSpec);
+      when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpec);
+      when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+      when(responseSpec.onStatus(any(Predicate.class), any())).thenReturn(responseSpec);
+      when(responseSpec.bodyToMono(ProductDetailDto.class)).thenReturn(Mono.never());
+
+      StepVerifier.create(apiClient.getProductDetail("1").contextWrite(deadline::putIn))
+          .expectError(DeadlineExceededException.class)
+          .verify(Duration.ofSeconds(5));
+
+      assertThat(deadline.exceeded()).isTrue();
+    }
+
     @Test
     @DisplayName("Should return product detail on successful request")
     void shouldReturnProductDetail() {
@@ -186,6 +234,53 @@ class ProductExistingApiClientTest {
       verify(requestHeadersUriSpec).uri("/{productId}", productId);
     }
 
+    @Test
+    @DisplayName("Should report each detail call to the product-detail concurrency limit")
+    void shouldReportDetailCallsToConcurrencyLimit() {
+      List<Boolean> samples = new ArrayList<>();
+      ConcurrencyLimit limit =
+          new ConcurrencyLimit() {
+            @Override
+            public int limit() {
+              return 1;
+            }
+
+            @Override
+            public void onSample(long rttNanos, int inFlight, boolean dropped) {
+              samples.add(dropped);
+            }
+          };
+      apiClient =
+          new ProductExistingApiClient(
+              webClient,
+              notFoundCache,
+              RequestHedger.disabled(),
+              UpstreamBulkhead.disabled(),
+              UpstreamBulkhead.disabled(),
+              new UpstreamBulkhead(
+                  "product-detail", true, limit, 10, Duration.ofSeconds(1), meterRegistry),
+              UpstreamRetry.disabled(),
+              UpstreamRetry.disabled(),
+              productDetailBreakers);
+      when(webClient.get()).thenReturn(requestHeadersUriSpec);
+      when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpec);
+      when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+      when(responseSpec.onStatus(any(Predicate.class), any())).thenReturn(responseSpec);
+      when(responseSpec.bodyToMono(ProductDetailDto.class))
+          .thenReturn(Mono.just(createProductDetailDto("1", "P", BigDecimal.ONE, true)));
+
+      StepVerifier.create(apiClient.getProductDetail("1")).expectNextCount(1).verifyComplete();
+
+      assertThat(samples).containsExactly(false);
+      assertThat(
+              meterRegistry
+                  .get("upstream.bulkhead.limit")
+                  .tag("name", "product-detail")
+                  .gauge()
+                  .value())
+          .isEqualTo(1);
+    }
+
     @Test
     @DisplayName("Should throw ProductNotFoundException when product not found (404)")
     void shouldThrowProductNotFoundExceptionWhenProductNotFound() {
@@ -208,6 +303,25 @@ class ProductExistingApiClientTest {
           .verify();
     }
 
+    @Test
+    @DisplayName("Should fail fast as unavailable while the product's circuit is open")
+    void shouldFailFastWhileCircuitIsOpen() {
+      AtomicBoolean called = new AtomicBoolean();
+      productDetailBreakers.forProduct("1").transitionToOpenState();
+      when(webClient.get()).thenReturn(requestHeadersUriSpec);
+      when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpec);
+      when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+      when(responseSpec.onStatus(any(Predicate.class), any())).thenReturn(responseSpec);
+      when(responseSpec.bodyToMono(ProductDetailDto.class))
+          .thenReturn(Mono.<ProductDetailDto>never().doOnSubscribe(s -> called.set(true)));
+
+      StepVerifier.create(apiClient.getProductDetail("1"))
+          .expectError(UpstreamUnavailableException.class)
+          .verify(Duration.ofSeconds(1));
+
+      assertThat(called).isFalse();
+    }
+
     @Test
     @DisplayName("Should throw ExternalApiException on 500 status")
     void shouldThrowExternalApiExceptionOn500() {
@@ -320,4 +434,91 @@ class ProductExistingApiClientTest {
           .verifyComplete();
     }
   }
+
+  @Nested
+  @DisplayName("Negative Caching Tests")
+  class NegativeCachingTests {
+
+    private int subscriptions;
+
+    @Test
+    @DisplayName("Should not call the API again for a product detail that returned 404")
+    void shouldNotCallApiAgainForNotFoundProductDetail() {
+      String productId = "999";
+
+      when(webClient.get()).thenReturn(requestHeadersUriSpec);
+      when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpec);
+      when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+      when(responseSpec.onStatus(any(Predicate.class), any())).thenReturn(responseSpec);
+      when(responseSpec.bodyToMono(ProductDetailDto.class))
+          .thenReturn(
+              Mono.defer(
+                  () -> {
+                    subscriptions++;
+                    return Mono.error(new ProductNotFoundException(productId));
+                  }));
+
+      StepVerifier.create(apiClient.getProductDetail(productId))
+          .expectError(ProductNotFoundException.class)
+          .verify();
+      StepVerifier.create(apiClient.getProductDetail(productId))
+          .expectError(ProductNotFoundException.class)
+          .verify();
+
+      assertThat(subscriptions).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not call the API again for similar ids that returned 404")
+    void shouldNotCallApiAgainForNotFoundSimilarIds() {
+      String productId = "999";
+
+      when(webClient.get()).thenReturn(requestHeadersUriSpec);
+      when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpec);
+      when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+      when(responseSpec.onStatus(any(Predicate.class), any())).thenReturn(responseSpec);
+      when(responseSpec.bodyToMono(any(org.springframework.core.ParameterizedTypeReference.class)))
+          .thenReturn(
+              Mono.defer(
+                  () -> {
+                    subscriptions++;
+                    return Mono.error(new ProductNotFoundException(productId));
+                  }));
+
+      StepVerifier.create(apiClient.getSimilarProductIds(productId))
+          .expectError(ProductNotFoundException.class)
+          .verify();
+      StepVerifier.create(apiClient.getSimilarProductIds(productId))
+          .expectError(ProductNotFoundException.class)
+          .verify();
+
+      assertThat(subscriptions).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should call the API again after the not-found entry is invalidated")
+    void shouldCallApiAgainAfterInvalidation() {
+      String productId = "999";
+      ProductDetailDto product =
+          createProductDetailDto(productId, "Test Product", BigDecimal.valueOf(9.99), true);
+
+      when(webClient.get()).thenReturn(requestHeadersUriSpec);
+      when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpec);
+      when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+      when(responseSpec.onStatus(any(Predicate.class), any())).thenReturn(responseSpec);
+      when(responseSpec.bodyToMono(ProductDetailDto.class))
+          .thenReturn(Mono.error(new ProductNotFoundException(productId)))
+          .thenReturn(Mono.just(product));
+
+      StepVerifier.create(apiClient.getProductDetail(productId))
+          .expectError(ProductNotFoundException.class)
+          .verify();
+
+      notFoundCache.invalidate(productId);
+
+      StepVerifier.create(apiClient.getProductDetail(productId))
+          .assertNext(detail -> assertThat(detail.getId()).isEqualTo(productId))
+          .verifyComplete();
+    }
+  }
 }
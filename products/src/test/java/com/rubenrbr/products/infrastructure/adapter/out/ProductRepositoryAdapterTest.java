@@ -10,6 +10,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 
@@ -24,6 +25,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.rubenrbr.products.domain.exception.ExternalApiException;
 import com.rubenrbr.products.domain.exception.InvalidProductRequestException;
+import com.rubenrbr.products.domain.exception.ProductNotFoundException;
 import com.rubenrbr.products.domain.model.ProductDetail;
 import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
 
@@ -34,7 +36,7 @@ import reactor.test.StepVerifier;
 @DisplayName("ProductRepositoryAdapter Unit Tests")
 class ProductRepositoryAdapterTest {
 
-  @Mock private ProductExistingApiClient productExistingApiClient;
+  @Mock private ProductApiCache productApiCache;
 
   @Mock private ProductMapper productMapper;
 
@@ -59,8 +61,7 @@ class ProductRepositoryAdapterTest {
     void shouldReturnProductDetailWhenApiReturnsData() {
       String productId = "1";
 
-      when(productExistingApiClient.getProductDetail(productId))
-          .thenReturn(Mono.just(productDetailDto));
+      when(productApiCache.getProductDetail(productId)).thenReturn(Mono.just(productDetailDto));
       when(productMapper.productDetailDtoToProductDetail(productDetailDto))
           .thenReturn(productDetail);
 
@@ -77,7 +78,7 @@ class ProductRepositoryAdapterTest {
               })
           .verifyComplete();
 
-      verify(productExistingApiClient).getProductDetail(productId);
+      verify(productApiCache).getProductDetail(productId);
       verify(productMapper).productDetailDtoToProductDetail(productDetailDto);
     }
 
@@ -87,7 +88,7 @@ class ProductRepositoryAdapterTest {
       String productId = "invalid";
       InvalidProductRequestException exception = new InvalidProductRequestException(productId);
 
-      when(productExistingApiClient.getProductDetail(productId)).thenReturn(Mono.error(exception));
+      when(productApiCache.getProductDetail(productId)).thenReturn(Mono.error(exception));
 
       Mono<ProductDetail> result = productRepositoryAdapter.getProductDetail(productId);
 
@@ -98,7 +99,7 @@ class ProductRepositoryAdapterTest {
                       && error.getMessage().contains(productId))
           .verify();
 
-      verify(productExistingApiClient).getProductDetail(productId);
+      verify(productApiCache).getProductDetail(productId);
       verify(productMapper, never()).productDetailDtoToProductDetail(any());
     }
 
@@ -108,13 +109,13 @@ class ProductRepositoryAdapterTest {
       String productId = "1";
       ExternalApiException exception = new ExternalApiException();
 
-      when(productExistingApiClient.getProductDetail(productId)).thenReturn(Mono.error(exception));
+      when(productApiCache.getProductDetail(productId)).thenReturn(Mono.error(exception));
 
       Mono<ProductDetail> result = productRepositoryAdapter.getProductDetail(productId);
 
       StepVerifier.create(result).expectError(ExternalApiException.class).verify();
 
-      verify(productExistingApiClient).getProductDetail(productId);
+      verify(productApiCache).getProductDetail(productId);
       verify(productMapper, never()).productDetailDtoToProductDetail(any());
     }
 
@@ -124,8 +125,7 @@ class ProductRepositoryAdapterTest {
       String productId = "1";
       RuntimeException mapperException = new RuntimeException("Mapping error");
 
-      when(productExistingApiClient.getProductDetail(productId))
-          .thenReturn(Mono.just(productDetailDto));
+      when(productApiCache.getProductDetail(productId)).thenReturn(Mono.just(productDetailDto));
       when(productMapper.productDetailDtoToProductDetail(productDetailDto))
           .thenThrow(mapperException);
 
@@ -137,11 +137,65 @@ class ProductRepositoryAdapterTest {
                   error instanceof RuntimeException && error.getMessage().equals("Mapping error"))
           .verify();
 
-      verify(productExistingApiClient).getProductDetail(productId);
+      verify(productApiCache).getProductDetail(productId);
       verify(productMapper).productDetailDtoToProductDetail(productDetailDto);
     }
   }
 
+  @Nested
+  @DisplayName("getProductDetails Tests")
+  class GetProductDetailsTests {
+
+    @Test
+    @DisplayName("Should look each id up once and leave out products not found, in id order")
+    void shouldLookUpEachIdOnceInOrder() {
+      ProductDetailDto secondDto =
+          createProductDetailDto("2", "Second", BigDecimal.valueOf(5), false);
+      ProductDetail second = createProductDetail("2", "Second", BigDecimal.valueOf(5), false);
+      when(productApiCache.getProductDetail("2"))
+          .thenReturn(Mono.delay(Duration.ofMillis(50)).thenReturn(secondDto));
+      when(productApiCache.getProductDetail("1")).thenReturn(Mono.just(productDetailDto));
+      when(productApiCache.getProductDetail("9"))
+          .thenReturn(Mono.error(new ProductNotFoundException("9")));
+      when(productMapper.productDetailDtoToProductDetail(secondDto)).thenReturn(second);
+      when(productMapper.productDetailDtoToProductDetail(productDetailDto))
+          .thenReturn(productDetail);
+
+      StepVerifier.create(productRepositoryAdapter.getProductDetails(List.of("2", "9", "1", "2")))
+          .expectNext(second, productDetail)
+          .verifyComplete();
+
+      verify(productApiCache).getProductDetail("2");
+    }
+  }
+
+  @Nested
+  @DisplayName("getCachedProductDetail Tests")
+  class GetCachedProductDetailTests {
+
+    @Test
+    @DisplayName("Should return the cached product detail")
+    void shouldReturnCachedProductDetail() {
+      when(productApiCache.peekProductDetail("1")).thenReturn(productDetailDto);
+      when(productMapper.productDetailDtoToProductDetail(productDetailDto))
+          .thenReturn(productDetail);
+
+      StepVerifier.create(productRepositoryAdapter.getCachedProductDetail("1"))
+          .expectNext(productDetail)
+          .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should return empty when the product is not cached")
+    void shouldReturnEmptyWhenNotCached() {
+      when(productApiCache.peekProductDetail("1")).thenReturn(null);
+
+      StepVerifier.create(productRepositoryAdapter.getCachedProductDetail("1")).verifyComplete();
+
+      verify(productMapper, never()).productDetailDtoToProductDetail(any());
+    }
+  }
+
   @Nested
   @DisplayName("getSimilarIds Tests")
   class GetSimilarIdsTests {
@@ -152,8 +206,7 @@ class ProductRepositoryAdapterTest {
       String productId = "100";
       List<String> expectedIds = List.of("1", "2", "3");
 
-      when(productExistingApiClient.getSimilarProductIds(productId))
-          .thenReturn(Mono.just(expectedIds));
+      when(productApiCache.getSimilarProductIds(productId)).thenReturn(Mono.just(expectedIds));
 
       Mono<List<String>> result = productRepositoryAdapter.getSimilarIds(productId);
 
@@ -165,7 +218,7 @@ class ProductRepositoryAdapterTest {
               })
           .verifyComplete();
 
-      verify(productExistingApiClient).getSimilarProductIds(productId);
+      verify(productApiCache).getSimilarProductIds(productId);
     }
 
     @Test
@@ -174,14 +227,13 @@ class ProductRepositoryAdapterTest {
       String productId = "100";
       List<String> emptyList = Collections.emptyList();
 
-      when(productExistingApiClient.getSimilarProductIds(productId))
-          .thenReturn(Mono.just(emptyList));
+      when(productApiCache.getSimilarProductIds(productId)).thenReturn(Mono.just(emptyList));
 
       Mono<List<String>> result = productRepositoryAdapter.getSimilarIds(productId);
 
       StepVerifier.create(result).assertNext(ids -> assertThat(ids).isEmpty()).verifyComplete();
 
-      verify(productExistingApiClient).getSimilarProductIds(productId);
+      verify(productApiCache).getSimilarProductIds(productId);
     }
 
     @Test
@@ -190,8 +242,7 @@ class ProductRepositoryAdapterTest {
       String productId = "invalid";
       InvalidProductRequestException exception = new InvalidProductRequestException(productId);
 
-      when(productExistingApiClient.getSimilarProductIds(productId))
-          .thenReturn(Mono.error(exception));
+      when(productApiCache.getSimilarProductIds(productId)).thenReturn(Mono.error(exception));
 
       Mono<List<String>> result = productRepositoryAdapter.getSimilarIds(productId);
 
@@ -202,7 +253,7 @@ class ProductRepositoryAdapterTest {
                       && error.getMessage().contains(productId))
           .verify();
 
-      verify(productExistingApiClient).getSimilarProductIds(productId);
+      verify(productApiCache).getSimilarProductIds(productId);
     }
 
     @Test
@@ -211,14 +262,13 @@ class ProductRepositoryAdapterTest {
       String productId = "100";
       ExternalApiException exception = new ExternalApiException();
 
-      when(productExistingApiClient.getSimilarProductIds(productId))
-          .thenReturn(Mono.error(exception));
+      when(productApiCache.getSimilarProductIds(productId)).thenReturn(Mono.error(exception));
 
       Mono<List<String>> result = productRepositoryAdapter.getSimilarIds(productId);
 
       StepVerifier.create(result).expectError(ExternalApiException.class).verify();
 
-      verify(productExistingApiClient).getSimilarProductIds(productId);
+      verify(productApiCache).getSimilarProductIds(productId);
     }
 
     @Test
@@ -227,8 +277,7 @@ class ProductRepositoryAdapterTest {
       String productId = "100";
       List<String> singleId = List.of("1");
 
-      when(productExistingApiClient.getSimilarProductIds(productId))
-          .thenReturn(Mono.just(singleId));
+      when(productApiCache.getSimilarProductIds(productId)).thenReturn(Mono.just(singleId));
 
       Mono<List<String>> result = productRepositoryAdapter.getSimilarIds(productId);
 
@@ -253,9 +302,8 @@ class ProductRepositoryAdapterTest {
       String similarProductId = "1";
       List<String> similarIds = List.of(similarProductId);
 
-      when(productExistingApiClient.getSimilarProductIds(mainProductId))
-          .thenReturn(Mono.just(similarIds));
-      when(productExistingApiClient.getProductDetail(similarProductId))
+      when(productApiCache.getSimilarProductIds(mainProductId)).thenReturn(Mono.just(similarIds));
+      when(productApiCache.getProductDetail(similarProductId))
           .thenReturn(Mono.just(productDetailDto));
       when(productMapper.productDetailDtoToProductDetail(productDetailDto))
           .thenReturn(productDetail);
@@ -277,8 +325,8 @@ class ProductRepositoryAdapterTest {
               })
           .verifyComplete();
 
-      verify(productExistingApiClient).getSimilarProductIds(mainProductId);
-      verify(productExistingApiClient).getProductDetail(similarProductId);
+      verify(productApiCache).getSimilarProductIds(mainProductId);
+      verify(productApiCache).getProductDetail(similarProductId);
       verify(productMapper).productDetailDtoToProductDetail(productDetailDto);
     }
 
@@ -287,17 +335,16 @@ class ProductRepositoryAdapterTest {
     void shouldVerifyAdapterDelegatesCorrectly() {
       String productId = "123";
 
-      when(productExistingApiClient.getProductDetail(anyString()))
-          .thenReturn(Mono.just(productDetailDto));
-      when(productExistingApiClient.getSimilarProductIds(anyString()))
+      when(productApiCache.getProductDetail(anyString())).thenReturn(Mono.just(productDetailDto));
+      when(productApiCache.getSimilarProductIds(anyString()))
           .thenReturn(Mono.just(List.of("1", "2")));
       when(productMapper.productDetailDtoToProductDetail(any())).thenReturn(productDetail);
 
       productRepositoryAdapter.getProductDetail(productId).block();
       productRepositoryAdapter.getSimilarIds(productId).block();
 
-      verify(productExistingApiClient).getProductDetail(productId);
-      verify(productExistingApiClient).getSimilarProductIds(productId);
+      verify(productApiCache).getProductDetail(productId);
+      verify(productApiCache).getSimilarProductIds(productId);
       verify(productMapper).productDetailDtoToProductDetail(productDetailDto);
     }
   }
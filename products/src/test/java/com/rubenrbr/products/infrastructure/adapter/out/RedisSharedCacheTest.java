@@ -0,0 +1,146 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.rubenrbr.products.infrastructure.config.SharedCacheProperties;
+
+import reactor.test.StepVerifier;
+
+@DisplayName("RedisSharedCache Tests")
+class RedisSharedCacheTest {
+
+  private RedisServer server;
+  private RedisSharedCache cache;
+  private RedisSharedCache otherNode;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = RedisServer.newRedisServer().start();
+    cache =
+        new RedisSharedCache(
+            properties("redis://" + server.getHost() + ":" + server.getBindPort()));
+    otherNode =
+        new RedisSharedCache(
+            properties("redis://" + server.getHost() + ":" + server.getBindPort()));
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    cache.close();
+    otherNode.close();
+    server.stop();
+  }
+
+  @Test
+  @DisplayName("Should read back stored values and report missing keys as empty")
+  void shouldStoreAndGet() {
+    StepVerifier.create(cache.put("product-detail", "1", new byte[] {1, 2, 3}, null))
+        .verifyComplete();
+
+    StepVerifier.create(otherNode.get("product-detail", "1"))
+        .assertNext(value -> assertThat(value).containsExactly(1, 2, 3))
+        .verifyComplete();
+    StepVerifier.create(otherNode.get("similar-ids", "1")).verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should return only the present keys from a multi-get")
+  void shouldMultiGetPresentKeys() {
+    cache.put("product-detail", "1", new byte[] {1}, null).block();
+    cache.put("product-detail", "3", new byte[] {3}, Duration.ofMinutes(1)).block();
+
+    StepVerifier.create(cache.getAll("product-detail", List.of("1", "2", "3")))
+        .assertNext(
+            values -> {
+              assertThat(values).containsOnlyKeys("1", "3");
+              assertThat(values.get("3")).containsExactly(3);
+            })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should remove evicted keys")
+  void shouldEvict() {
+    cache.put("product-detail", "1", new byte[] {1}, null).block();
+
+    StepVerifier.create(cache.evict("product-detail", "1")).verifyComplete();
+
+    StepVerifier.create(cache.get("product-detail", "1")).verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should announce writes and evictions to other nodes only")
+  void shouldAnnounceChangesToOtherNodes() {
+    List<String> seenByOther = new CopyOnWriteArrayList<>();
+    List<String> seenBySelf = new CopyOnWriteArrayList<>();
+    otherNode.subscribe((cacheName, key) -> seenByOther.add(cacheName + "/" + key));
+    cache.subscribe((cacheName, key) -> seenBySelf.add(cacheName + "/" + key));
+
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(
+            () -> {
+              cache.put("product-detail", "id with spaces", new byte[] {1}, null).block();
+              assertThat(seenByOther).contains("product-detail/id with spaces");
+            });
+    cache.evict("similar-ids", "2").block();
+
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> assertThat(seenByOther).contains("similar-ids/2"));
+    assertThat(seenBySelf).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Should report misses and drop writes while the server is unavailable")
+  void shouldDegradeWhenServerIsDown() {
+    RedisSharedCache unavailable = new RedisSharedCache(properties("redis://localhost:1"));
+
+    try {
+      StepVerifier.create(unavailable.get("product-detail", "1")).verifyComplete();
+      StepVerifier.create(unavailable.getAll("product-detail", List.of("1")))
+          .assertNext(values -> assertThat(values).isEmpty())
+          .verifyComplete();
+      StepVerifier.create(unavailable.put("product-detail", "1", new byte[] {1}, null))
+          .verifyComplete();
+    } finally {
+      unavailable.close();
+    }
+  }
+
+  @Test
+  @DisplayName("Should serve again once the server is back after a restart")
+  void shouldRecoverAfterServerRestart() throws IOException {
+    cache.put("product-detail", "1", new byte[] {1}, null).block();
+    int port = server.getBindPort();
+    server.stop();
+
+    StepVerifier.create(cache.get("product-detail", "1")).verifyComplete();
+
+    server = RedisServer.newRedisServer(port).start();
+
+    await()
+        .atMost(Duration.ofSeconds(10))
+        .untilAsserted(
+            () -> {
+              cache.put("product-detail", "1", new byte[] {2}, null).block();
+              assertThat(cache.get("product-detail", "1").block()).containsExactly(2);
+            });
+  }
+
+  private static SharedCacheProperties properties(String uri) {
+    return new SharedCacheProperties(true, uri, "test:", "test:changes", Duration.ofSeconds(1));
+  }
+}
@@ -0,0 +1,156 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.rubenrbr.products.domain.exception.ProductNotFoundException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@DisplayName("RequestHedger Tests")
+class RequestHedgerTest {
+
+  private static final Duration P95 = Duration.ofMillis(50);
+
+  private SimpleMeterRegistry meterRegistry;
+  private RequestHedger hedger;
+  private AtomicInteger calls;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    hedger = new RequestHedger("test", true, 0.95, 0.05, Duration.ofMillis(10), meterRegistry);
+    calls = new AtomicInteger();
+  }
+
+  @Test
+  @DisplayName("Should not hedge before enough latencies have been observed")
+  void shouldNotHedgeWithoutEnoughSamples() {
+    for (int i = 0; i < RequestHedger.MIN_SAMPLES - 1; i++) {
+      hedger.record(P95.toNanos());
+    }
+
+    assertThat(hedger.thresholdNanos()).isEqualTo(-1);
+  }
+
+  @Test
+  @DisplayName("Should use the observed percentile, bounded below by the minimum delay")
+  void shouldUseObservedPercentile() {
+    observeLatencies(Duration.ofMillis(1), P95);
+    assertThat(hedger.thresholdNanos()).isEqualTo(P95.toNanos());
+
+    for (int i = 0; i < RequestHedger.WINDOW; i++) {
+      hedger.record(Duration.ofMillis(1).toNanos());
+    }
+    assertThat(hedger.thresholdNanos()).isEqualTo(Duration.ofMillis(10).toNanos());
+  }
+
+  @Test
+  @DisplayName("Should return the hedge when the first request is slower than the threshold")
+  void shouldReturnHedgeWhenFirstRequestIsSlow() {
+    observeLatencies(Duration.ofMillis(1), P95);
+    earnOneHedge();
+
+    StepVerifier.withVirtualTime(
+            () -> hedger.execute(call(Mono.delay(Duration.ofSeconds(5)).thenReturn("first"))))
+        .expectSubscription()
+        .thenAwait(P95)
+        .expectNext("hedge")
+        .verifyComplete();
+
+    assertThat(calls).hasValue(2);
+    assertThat(hedges("sent")).isEqualTo(1);
+    assertThat(hedges("won")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should not hedge requests answering within the threshold")
+  void shouldNotHedgeFastRequests() {
+    observeLatencies(Duration.ofMillis(1), P95);
+    earnOneHedge();
+
+    StepVerifier.withVirtualTime(
+            () -> hedger.execute(call(Mono.delay(Duration.ofMillis(20)).thenReturn("first"))))
+        .expectSubscription()
+        .thenAwait(Duration.ofMillis(20))
+        .expectNext("first")
+        .verifyComplete();
+
+    assertThat(calls).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("Should return errors of the first request without waiting for a hedge")
+  void shouldReturnErrorsOfFirstRequest() {
+    observeLatencies(Duration.ofMillis(1), P95);
+    earnOneHedge();
+
+    StepVerifier.create(hedger.execute(call(Mono.error(new ProductNotFoundException("1")))))
+        .expectError(ProductNotFoundException.class)
+        .verify();
+
+    assertThat(calls).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("Should not hedge once the budget is spent")
+  void shouldNotHedgeOnceBudgetIsSpent() {
+    observeLatencies(Duration.ofMillis(1), P95);
+    earnOneHedge();
+    StepVerifier.withVirtualTime(
+            () -> hedger.execute(call(Mono.delay(Duration.ofSeconds(1)).thenReturn("first"))))
+        .thenAwait(P95)
+        .expectNext("hedge")
+        .verifyComplete();
+    calls.set(0);
+
+    StepVerifier.withVirtualTime(
+            () -> hedger.execute(call(Mono.delay(Duration.ofSeconds(1)).thenReturn("first"))))
+        .thenAwait(Duration.ofSeconds(1))
+        .expectNext("first")
+        .verifyComplete();
+
+    assertThat(calls).hasValue(1);
+    assertThat(hedges("denied")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should pass calls through untouched when disabled")
+  void shouldPassThroughWhenDisabled() {
+    Mono<String> call = Mono.just("first");
+
+    assertThat(RequestHedger.disabled().execute(() -> call)).isSameAs(call);
+  }
+
+  /** The first call returns {@code first}, any later call answers "hedge" immediately. */
+  private Supplier<Mono<String>> call(Mono<String> first) {
+    return () -> calls.incrementAndGet() == 1 ? first : Mono.just("hedge");
+  }
+
+  /** 5% of calls take {@code slow}, the rest {@code fast}, so the p95 is {@code slow}. */
+  private void observeLatencies(Duration fast, Duration slow) {
+    for (int i = 0; i < RequestHedger.MIN_SAMPLES; i++) {
+      hedger.record((i % 20 < 18 ? fast : slow).toNanos());
+    }
+  }
+
+  /** A 5% budget earns one hedge every 20 requests. */
+  private void earnOneHedge() {
+    for (int i = 0; i < 19; i++) {
+      hedger.execute(() -> Mono.empty());
+    }
+  }
+
+  private double hedges(String result) {
+    return meterRegistry.get("upstream.hedges").tag("result", result).counter().count();
+  }
+}
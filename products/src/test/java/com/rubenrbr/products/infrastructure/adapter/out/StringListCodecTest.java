@@ -0,0 +1,28 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("StringListCodec Tests")
+class StringListCodecTest {
+
+  private final StringListCodec codec = new StringListCodec();
+
+  @Test
+  @DisplayName("Should round-trip ids in order")
+  void shouldRoundTripIdsInOrder() {
+    List<String> ids = List.of("3", "1", "PROD-2024-001", "camiseta ✓", "");
+
+    assertThat(codec.decode(codec.encode(ids))).containsExactlyElementsOf(ids);
+  }
+
+  @Test
+  @DisplayName("Should round-trip an empty list")
+  void shouldRoundTripEmptyList() {
+    assertThat(codec.decode(codec.encode(List.of()))).isEmpty();
+  }
+}
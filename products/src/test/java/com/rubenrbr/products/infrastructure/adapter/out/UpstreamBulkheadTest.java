@@ -0,0 +1,224 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.rubenrbr.products.domain.exception.ExternalApiException;
+import com.rubenrbr.products.domain.exception.ProductNotFoundException;
+import com.rubenrbr.products.domain.exception.UpstreamOverloadedException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+@DisplayName("UpstreamBulkhead Tests")
+class UpstreamBulkheadTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private UpstreamBulkhead bulkhead;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    bulkhead =
+        new UpstreamBulkhead(
+            "test", true, ConcurrencyLimit.fixed(2), 1, Duration.ofSeconds(1), meterRegistry);
+  }
+
+  @Test
+  @DisplayName("Should queue calls beyond the limit and run them when a slot is freed")
+  void shouldQueueCallsBeyondLimit() {
+    Sinks.One<String> first = Sinks.one();
+    bulkhead.execute(first.asMono()).subscribe();
+    bulkhead.execute(Mono.<String>never()).subscribe();
+
+    StepVerifier.create(bulkhead.execute(Mono.just("queued")))
+        .then(
+            () -> {
+              assertThat(bulkhead.activeCalls()).isEqualTo(2);
+              assertThat(bulkhead.queuedCalls()).isEqualTo(1);
+              first.tryEmitValue("done");
+            })
+        .expectNext("queued")
+        .verifyComplete();
+
+    assertThat(bulkhead.activeCalls()).isEqualTo(1);
+    assertThat(bulkhead.queuedCalls()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should reject calls at once when the queue is full")
+  void shouldRejectWhenQueueIsFull() {
+    bulkhead.execute(Mono.never()).subscribe();
+    bulkhead.execute(Mono.never()).subscribe();
+    bulkhead.execute(Mono.never()).subscribe();
+
+    StepVerifier.create(bulkhead.execute(Mono.just("rejected")))
+        .expectError(UpstreamOverloadedException.class)
+        .verify(Duration.ofMillis(100));
+
+    assertThat(rejected("queue-full")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should reject calls that wait longer than the maximum wait")
+  void shouldRejectCallsWaitingTooLong() {
+    StepVerifier.withVirtualTime(
+            () -> {
+              bulkhead.execute(Mono.never()).subscribe();
+              bulkhead.execute(Mono.never()).subscribe();
+              return bulkhead.execute(Mono.just("late"));
+            })
+        .expectSubscription()
+        .thenAwait(Duration.ofSeconds(1))
+        .expectError(UpstreamOverloadedException.class)
+        .verify();
+
+    assertThat(bulkhead.queuedCalls()).isZero();
+    assertThat(rejected("timeout")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should run a call granted a slot just as its wait times out")
+  void shouldRunCallGrantedAsItsWaitTimesOut() throws Exception {
+    Duration maxWait = Duration.ofMillis(1);
+    UpstreamBulkhead racing =
+        new UpstreamBulkhead("racing", true, ConcurrencyLimit.fixed(1), 1, maxWait, null);
+
+    // Frees the slot ever closer to the end of the wait, on either side of it.
+    for (int i = 0; i < 2_000; i++) {
+      Sinks.One<String> first = Sinks.one();
+      racing.execute(first.asMono()).subscribe();
+      long freeAt = System.nanoTime() + maxWait.toNanos() + (i % 200 - 100) * 1_000L;
+      CompletableFuture<String> queued =
+          racing
+              .execute(Mono.just("run"))
+              .onErrorReturn(UpstreamOverloadedException.class, "rejected")
+              .defaultIfEmpty("lost")
+              .toFuture();
+      while (System.nanoTime() < freeAt) {
+        Thread.onSpinWait();
+      }
+      first.tryEmitValue("done");
+
+      assertThat(queued.get(1, TimeUnit.SECONDS)).isIn("run", "rejected");
+      assertThat(racing.activeCalls()).isZero();
+    }
+  }
+
+  @Test
+  @DisplayName("Should free the slot of a failed or cancelled call")
+  void shouldFreeSlotOfFailedOrCancelledCall() {
+    Disposable running = bulkhead.execute(Mono.never()).subscribe();
+    StepVerifier.create(bulkhead.execute(Mono.error(new IllegalStateException("down"))))
+        .expectError(IllegalStateException.class)
+        .verify();
+
+    assertThat(bulkhead.activeCalls()).isEqualTo(1);
+
+    running.dispose();
+
+    assertThat(bulkhead.activeCalls()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should drop waiting calls that are cancelled")
+  void shouldDropCancelledWaitingCalls() {
+    bulkhead.execute(Mono.never()).subscribe();
+    Sinks.One<String> second = Sinks.one();
+    bulkhead.execute(second.asMono()).subscribe();
+    Disposable waiting = bulkhead.execute(Mono.just("cancelled")).subscribe();
+
+    waiting.dispose();
+    second.tryEmitValue("done");
+
+    assertThat(bulkhead.queuedCalls()).isZero();
+    assertThat(bulkhead.activeCalls()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should admit every waiting call the limit allows once it has grown")
+  void shouldAdmitWaitingCallsWhenLimitGrows() {
+    AtomicInteger limit = new AtomicInteger(1);
+    UpstreamBulkhead adaptive =
+        new UpstreamBulkhead(
+            "adaptive", true, recording(limit, new ArrayList<>()), 2, Duration.ofSeconds(1), null);
+    Sinks.One<String> first = Sinks.one();
+    adaptive.execute(first.asMono()).subscribe();
+    adaptive.execute(Mono.never()).subscribe();
+    adaptive.execute(Mono.never()).subscribe();
+
+    assertThat(adaptive.queuedCalls()).isEqualTo(2);
+
+    limit.set(3);
+    first.tryEmitValue("done");
+
+    assertThat(adaptive.activeCalls()).isEqualTo(2);
+    assertThat(adaptive.queuedCalls()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should report upstream failures as dropped, but not missing products or rejections")
+  void shouldReportCallOutcomesToLimit() {
+    List<Boolean> samples = new ArrayList<>();
+    UpstreamBulkhead adaptive =
+        new UpstreamBulkhead(
+            "adaptive",
+            true,
+            recording(new AtomicInteger(10), samples),
+            0,
+            Duration.ofSeconds(1),
+            null);
+
+    adaptive.execute(Mono.just("ok")).block();
+    adaptive.execute(Mono.error(new ProductNotFoundException("1"))).onErrorComplete().block();
+    adaptive.execute(Mono.error(new ExternalApiException())).onErrorComplete().block();
+    adaptive.execute(Mono.error(new UpstreamOverloadedException())).onErrorComplete().block();
+    adaptive.execute(Mono.never()).subscribe().dispose();
+
+    assertThat(samples).containsExactly(false, false, true);
+  }
+
+  @Test
+  @DisplayName("Should pass calls through untouched when disabled")
+  void shouldPassThroughWhenDisabled() {
+    Mono<String> call = Mono.just("call");
+
+    assertThat(UpstreamBulkhead.disabled().execute(call)).isSameAs(call);
+  }
+
+  private double rejected(String reason) {
+    return meterRegistry
+        .get("upstream.bulkhead.rejected")
+        .tag("name", "test")
+        .tag("reason", reason)
+        .counter()
+        .count();
+  }
+
+  private static ConcurrencyLimit recording(AtomicInteger limit, List<Boolean> samples) {
+    return new ConcurrencyLimit() {
+      @Override
+      public int limit() {
+        return limit.get();
+      }
+
+      @Override
+      public void onSample(long rttNanos, int inFlight, boolean dropped) {
+        samples.add(dropped);
+      }
+    };
+  }
+}
@@ -0,0 +1,182 @@
+package com.rubenrbr.products.infrastructure.adapter.out;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.rubenrbr.products.domain.exception.ExternalApiException;
+import com.rubenrbr.products.domain.exception.ProductNotFoundException;
+import com.rubenrbr.products.domain.model.Deadline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@DisplayName("UpstreamRetry Tests")
+class UpstreamRetryTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private AtomicInteger attempts;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    attempts = new AtomicInteger();
+  }
+
+  @Test
+  @DisplayName("Should retry failed calls after a backoff until one succeeds")
+  void shouldRetryUntilSuccess() {
+    UpstreamRetry retry = retry(3, 0.1, 10);
+
+    StepVerifier.withVirtualTime(() -> retry.execute(failingTimes(2)))
+        .expectSubscription()
+        .thenAwait(Duration.ofSeconds(1))
+        .expectNext("ok")
+        .verifyComplete();
+
+    assertThat(attempts).hasValue(3);
+    assertThat(retries("retried")).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Should give up once the attempts are exhausted")
+  void shouldGiveUpWhenAttemptsExhausted() {
+    UpstreamRetry retry = retry(2, 0.1, 10);
+
+    StepVerifier.withVirtualTime(() -> retry.execute(failingTimes(5)))
+        .expectSubscription()
+        .thenAwait(Duration.ofSeconds(1))
+        .expectError(ExternalApiException.class)
+        .verify();
+
+    assertThat(attempts).hasValue(2);
+    assertThat(retries("attempts-exhausted")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should not retry products not found")
+  void shouldNotRetryNotFound() {
+    UpstreamRetry retry = retry(3, 0.1, 10);
+
+    StepVerifier.create(
+            retry.execute(
+                Mono.defer(
+                    () -> {
+                      attempts.incrementAndGet();
+                      return Mono.error(new ProductNotFoundException("1"));
+                    })))
+        .expectError(ProductNotFoundException.class)
+        .verify();
+
+    assertThat(attempts).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("Should stop retrying once the retry budget is spent")
+  void shouldStopRetryingWhenBudgetSpent() {
+    UpstreamRetry retry = retry(2, 0, 1);
+
+    StepVerifier.withVirtualTime(() -> retry.execute(failingTimes(1)))
+        .expectSubscription()
+        .thenAwait(Duration.ofSeconds(1))
+        .expectNext("ok")
+        .verifyComplete();
+    StepVerifier.create(retry.execute(failingTimes(1)))
+        .expectError(ExternalApiException.class)
+        .verify();
+
+    assertThat(retries("retried")).isEqualTo(1);
+    assertThat(retries("budget-exhausted")).isEqualTo(1);
+    assertThat(retry.availableRetries()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should earn a share of a retry for every call, up to the burst")
+  void shouldEarnBudgetPerCall() {
+    UpstreamRetry retry = retry(2, 0.5, 1);
+    retry.execute(failingTimes(1)).block(Duration.ofSeconds(1));
+
+    assertThat(retry.availableRetries()).isZero();
+
+    retry.execute(Mono.just("ok")).block();
+
+    assertThat(retry.availableRetries()).isEqualTo(0.5);
+
+    retry.execute(Mono.just("ok")).block();
+    retry.execute(Mono.just("ok")).block();
+
+    assertThat(retry.availableRetries()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should not retry when the deadline leaves no time for it")
+  void shouldNotRetryPastDeadline() {
+    UpstreamRetry retry = retry(3, 0.1, 10);
+
+    StepVerifier.create(
+            retry.execute(failingTimes(1)).contextWrite(Deadline.after(Duration.ZERO)::putIn))
+        .expectError(ExternalApiException.class)
+        .verify();
+
+    assertThat(attempts).hasValue(1);
+    assertThat(retries("deadline")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should wait a random time up to the exponential backoff, capped")
+  void shouldJitterBackoffUpToExponentialCeiling() {
+    UpstreamRetry retry = retry(5, 0.1, 10);
+
+    for (int i = 0; i < 1000; i++) {
+      assertThat(retry.jitteredBackoffNanos(1)).isBetween(0L, 100_000_000L);
+      assertThat(retry.jitteredBackoffNanos(3)).isBetween(0L, 400_000_000L);
+      assertThat(retry.jitteredBackoffNanos(10)).isBetween(0L, 1_000_000_000L);
+    }
+  }
+
+  @Test
+  @DisplayName("Should pass calls through untouched when disabled")
+  void shouldPassThroughWhenDisabled() {
+    Mono<String> call = Mono.just("call");
+
+    assertThat(UpstreamRetry.disabled().execute(call)).isSameAs(call);
+  }
+
+  private UpstreamRetry retry(int maxAttempts, double budget, int maxBurst) {
+    return new UpstreamRetry(
+        "test",
+        true,
+        maxAttempts,
+        Duration.ofMillis(100),
+        Duration.ofSeconds(1),
+        budget,
+        maxBurst,
+        meterRegistry);
+  }
+
+  private Mono<String> failingTimes(int failures) {
+    AtomicInteger calls = new AtomicInteger();
+    return Mono.defer(
+        () -> {
+          attempts.incrementAndGet();
+          return calls.incrementAndGet() <= failures
+              ? Mono.error(new ExternalApiException())
+              : Mono.just("ok");
+        });
+  }
+
+  private double retries(String outcome) {
+    return meterRegistry
+        .get("upstream.retries")
+        .tag("endpoint", "test")
+        .tag("outcome", outcome)
+        .counter()
+        .count();
+  }
+}
@@ -0,0 +1,124 @@
+package com.rubenrbr.products.infrastructure.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import reactor.core.publisher.Mono;
+
+@DisplayName("CacheSnapshots Tests")
+class CacheSnapshotsTest {
+
+  private static final CacheValueCodec<String> UTF8 =
+      new CacheValueCodec<>() {
+        @Override
+        public Object encode(String value) {
+          return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(Object stored) {
+          return new String((byte[]) stored, StandardCharsets.UTF_8);
+        }
+      };
+
+  @TempDir private Path directory;
+
+  private Path file;
+  private Cache<String, CacheEntry<Object>> source;
+  private Cache<String, CacheEntry<Object>> target;
+
+  @BeforeEach
+  void setUp() {
+    file = directory.resolve("test.snapshot");
+    source = Caffeine.newBuilder().build();
+    target = Caffeine.newBuilder().build();
+  }
+
+  @Test
+  @DisplayName("Should restore every entry with its original write time")
+  void shouldRestoreEntriesWithWriteTime() throws IOException {
+    source.put("1", new CacheEntry<>("one", 1_000));
+    source.put("camiseta ✓", new CacheEntry<>("two", 2_000));
+
+    assertThat(CacheSnapshots.write(file, revalidating(source), UTF8)).isEqualTo(2);
+    assertThat(CacheSnapshots.restore(file, revalidating(target), UTF8, 0)).isEqualTo(2);
+
+    assertThat(target.asMap())
+        .containsEntry("1", new CacheEntry<>("one", 1_000))
+        .containsEntry("camiseta ✓", new CacheEntry<>("two", 2_000));
+    assertThat(directory.resolve("test.snapshot.tmp")).doesNotExist();
+  }
+
+  @Test
+  @DisplayName("Should skip entries older than the oldest accepted write time")
+  void shouldSkipStaleEntries() throws IOException {
+    source.put("old", new CacheEntry<>("old", 1_000));
+    source.put("recent", new CacheEntry<>("recent", 5_000));
+    CacheSnapshots.write(file, revalidating(source), UTF8);
+
+    CacheSnapshots.restore(file, revalidating(target), UTF8, 2_000);
+
+    assertThat(target.asMap()).containsOnlyKeys("recent");
+  }
+
+  @Test
+  @DisplayName("Should keep newer local entries")
+  void shouldKeepNewerLocalEntries() throws IOException {
+    source.put("1", new CacheEntry<>("snapshot", 1_000));
+    CacheSnapshots.write(file, revalidating(source), UTF8);
+    target.put("1", new CacheEntry<>("local", 2_000));
+
+    CacheSnapshots.restore(file, revalidating(target), UTF8, 0);
+
+    assertThat(target.getIfPresent("1").value()).isEqualTo("local");
+  }
+
+  @Test
+  @DisplayName("Should restore the complete records of a truncated snapshot")
+  void shouldRestoreCompleteRecordsOfTruncatedSnapshot() throws IOException {
+    source.put("1", new CacheEntry<>("one", 1_000));
+    source.put("2", new CacheEntry<>("two", 1_000));
+    CacheSnapshots.write(file, revalidating(source), UTF8);
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 2));
+
+    assertThat(CacheSnapshots.restore(file, revalidating(target), UTF8, 0)).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should restore nothing from a missing or foreign file")
+  void shouldRestoreNothingFromMissingOrForeignFile() throws IOException {
+    assertThat(CacheSnapshots.restore(file, revalidating(target), UTF8, 0)).isZero();
+
+    Files.writeString(file, "not a snapshot");
+    assertThat(CacheSnapshots.restore(file, revalidating(target), UTF8, 0)).isZero();
+    assertThat(target.asMap()).isEmpty();
+  }
+
+  private static RevalidatingCache<String> revalidating(Cache<String, CacheEntry<Object>> cache) {
+    return new RevalidatingCache<>(
+        cache,
+        key -> Mono.error(new IllegalStateException("no loads expected")),
+        CacheValueCodec.identity(),
+        Duration.ofMinutes(1),
+        Duration.ofMinutes(10),
+        Clock.systemUTC(),
+        key -> {},
+        null);
+  }
+}
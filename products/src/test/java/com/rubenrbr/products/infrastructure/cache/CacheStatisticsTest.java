@@ -0,0 +1,47 @@
+package com.rubenrbr.products.infrastructure.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.function.Function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@DisplayName("CacheStatistics Tests")
+class CacheStatisticsTest {
+
+  private final CacheStatistics statistics = new CacheStatistics();
+
+  @Test
+  @DisplayName("Should record timed loads in the counter shared with the cache")
+  void shouldRecordLoadsInSharedCounter() {
+    Cache<String, String> cache =
+        Caffeine.newBuilder().recordStats(() -> statistics.counter("test")).build();
+    Function<String, Mono<String>> loader =
+        statistics.timed(
+            "test", key -> key.equals("ok") ? Mono.just("v") : Mono.error(new RuntimeException()));
+
+    cache.getIfPresent("ok");
+    StepVerifier.create(loader.apply("ok")).expectNext("v").verifyComplete();
+    StepVerifier.create(loader.apply("ko")).expectError().verify();
+
+    CacheStats stats = cache.stats();
+    assertThat(stats.missCount()).isEqualTo(1);
+    assertThat(stats.loadSuccessCount()).isEqualTo(1);
+    assertThat(stats.loadFailureCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should keep one counter per cache name")
+  void shouldKeepOneCounterPerCacheName() {
+    assertThat(statistics.counter("a")).isSameAs(statistics.counter("a"));
+    assertThat(statistics.counter("a")).isNotSameAs(statistics.counter("b"));
+  }
+}
@@ -0,0 +1,158 @@
+package com.rubenrbr.products.infrastructure.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.rubenrbr.products.domain.exception.ExternalApiException;
+import com.rubenrbr.products.domain.model.Deadline;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+@DisplayName("RequestCoalescer Tests")
+class RequestCoalescerTest {
+
+  private RequestCoalescer<String, String> coalescer;
+  private AtomicInteger subscriptions;
+
+  @BeforeEach
+  void setUp() {
+    coalescer = new RequestCoalescer<>();
+    subscriptions = new AtomicInteger();
+  }
+
+  private Mono<String> upstream(String value, Duration delay) {
+    return Mono.just(value).delayElement(delay).doOnSubscribe(s -> subscriptions.incrementAndGet());
+  }
+
+  @Test
+  @DisplayName("Should share one upstream call between concurrent callers of the same key")
+  void shouldShareOneUpstreamCallForSameKey() {
+    Mono<String> first = coalescer.execute("1", upstream("a", Duration.ofMillis(100)));
+    Mono<String> second = coalescer.execute("1", upstream("b", Duration.ofMillis(100)));
+
+    StepVerifier.create(Mono.zip(first, second))
+        .assertNext(
+            tuple -> {
+              assertThat(tuple.getT1()).isEqualTo("a");
+              assertThat(tuple.getT2()).isEqualTo("a");
+            })
+        .verifyComplete();
+
+    assertThat(subscriptions).hasValue(1);
+    assertThat(coalescer.inFlightCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should not share calls between different keys")
+  void shouldNotShareCallsBetweenDifferentKeys() {
+    Mono<String> first = coalescer.execute("1", upstream("a", Duration.ofMillis(50)));
+    Mono<String> second = coalescer.execute("2", upstream("b", Duration.ofMillis(50)));
+
+    StepVerifier.create(Mono.zip(first, second))
+        .assertNext(
+            tuple -> {
+              assertThat(tuple.getT1()).isEqualTo("a");
+              assertThat(tuple.getT2()).isEqualTo("b");
+            })
+        .verifyComplete();
+
+    assertThat(subscriptions).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Should start a new call once the previous one has completed")
+  void shouldStartNewCallAfterCompletion() {
+    StepVerifier.create(coalescer.execute("1", upstream("a", Duration.ZERO)))
+        .expectNext("a")
+        .verifyComplete();
+    StepVerifier.create(coalescer.execute("1", upstream("b", Duration.ZERO)))
+        .expectNext("b")
+        .verifyComplete();
+
+    assertThat(subscriptions).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Should propagate errors to every caller and clean up the failed call")
+  void shouldPropagateErrorsAndCleanUp() {
+    Mono<String> failing =
+        Mono.delay(Duration.ofMillis(50))
+            .doOnSubscribe(s -> subscriptions.incrementAndGet())
+            .then(Mono.error(new ExternalApiException()));
+
+    Mono<String> first = coalescer.execute("1", failing);
+    Mono<String> second = coalescer.execute("1", failing);
+
+    StepVerifier.create(
+            Mono.zip(
+                first.onErrorResume(ExternalApiException.class, e -> Mono.just("failed")),
+                second.onErrorResume(ExternalApiException.class, e -> Mono.just("failed"))))
+        .assertNext(
+            tuple -> {
+              assertThat(tuple.getT1()).isEqualTo("failed");
+              assertThat(tuple.getT2()).isEqualTo("failed");
+            })
+        .verifyComplete();
+
+    assertThat(subscriptions).hasValue(1);
+    assertThat(coalescer.inFlightCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should keep the shared call alive when only one of the callers cancels")
+  void shouldKeepSharedCallAliveWhenOneCallerCancels() {
+    Disposable cancelled =
+        coalescer.execute("1", upstream("a", Duration.ofMillis(100))).subscribe();
+    Mono<String> remaining = coalescer.execute("1", upstream("b", Duration.ofMillis(100)));
+
+    StepVerifier.create(remaining).then(cancelled::dispose).expectNext("a").verifyComplete();
+
+    assertThat(subscriptions).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("Should lift the deadline of a shared call once a caller without one joins")
+  void shouldLiftSharedDeadlineForCallerWithoutOne() {
+    AtomicReference<Deadline> shared = new AtomicReference<>();
+    Mono<String> call =
+        Mono.deferContextual(
+            context -> {
+              shared.set(Deadline.from(context).orElseThrow());
+              return Mono.<String>never();
+            });
+    coalescer
+        .execute("1", call)
+        .contextWrite(Deadline.after(Duration.ofMillis(1))::putIn)
+        .subscribe();
+
+    assertThat(shared.get().remaining()).isLessThanOrEqualTo(Duration.ofMillis(1));
+
+    coalescer.execute("1", call).subscribe();
+
+    assertThat(shared.get().remaining()).isGreaterThan(Duration.ofDays(365));
+  }
+
+  @Test
+  @DisplayName("Should not let a finished call that is started again remove a newer call")
+  void shouldNotRemoveNewerCallForSameKey() {
+    Sinks.One<String> first = Sinks.one();
+    coalescer.execute("1", first.asMono()).subscribe();
+    Mono<String> finished = coalescer.inFlight("1");
+    first.tryEmitValue("a");
+    coalescer.execute("1", Mono.never()).subscribe();
+
+    StepVerifier.create(finished).expectNext("a").verifyComplete();
+
+    assertThat(coalescer.inFlightCount()).isEqualTo(1);
+  }
+}
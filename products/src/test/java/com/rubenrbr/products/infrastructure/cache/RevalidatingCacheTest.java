@@ -0,0 +1,382 @@
+package com.rubenrbr.products.infrastructure.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rubenrbr.products.domain.exception.DeadlineExceededException;
+import com.rubenrbr.products.domain.exception.ExternalApiException;
+import com.rubenrbr.products.domain.exception.ProductNotFoundException;
+import com.rubenrbr.products.domain.model.Deadline;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@DisplayName("RevalidatingCache Tests")
+class RevalidatingCacheTest {
+
+  private static final Duration SOFT_TTL = Duration.ofMinutes(1);
+  private static final Duration HARD_TTL = Duration.ofMinutes(10);
+
+  private MutableClock clock;
+  private Cache<String, CacheEntry<Object>> store;
+  private AtomicInteger loads;
+  private Mono<String> nextLoad;
+  private RevalidatingCache<String> cache;
+
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock();
+    store = Caffeine.newBuilder().build();
+    loads = new AtomicInteger();
+    nextLoad = Mono.just("v1");
+    cache =
+        new RevalidatingCache<>(
+            store,
+            key -> {
+              loads.incrementAndGet();
+              return nextLoad;
+            },
+            SOFT_TTL,
+            HARD_TTL,
+            clock);
+  }
+
+  @Test
+  @DisplayName("Should load on miss and serve fresh entries from cache")
+  void shouldLoadOnMissAndServeFreshEntries() {
+    StepVerifier.create(cache.get("1")).expectNext("v1").verifyComplete();
+    clock.advance(Duration.ofSeconds(30));
+    StepVerifier.create(cache.get("1")).expectNext("v1").verifyComplete();
+
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("Should serve the cached value and refresh it in the background after the soft TTL")
+  void shouldServeStaleValueAndRefreshAfterSoftTtl() {
+    StepVerifier.create(cache.get("1")).expectNext("v1").verifyComplete();
+    nextLoad = Mono.just("v2");
+    clock.advance(Duration.ofMinutes(2));
+
+    StepVerifier.create(cache.get("1")).expectNext("v1").verifyComplete();
+
+    assertThat(loads).hasValue(2);
+    assertThat(store.getIfPresent("1").value()).isEqualTo("v2");
+    StepVerifier.create(cache.get("1")).expectNext("v2").verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should keep the cached value when a background refresh fails")
+  void shouldKeepCachedValueWhenRefreshFails() {
+    StepVerifier.create(cache.get("1")).expectNext("v1").verifyComplete();
+    nextLoad = Mono.error(new ExternalApiException());
+    clock.advance(Duration.ofMinutes(2));
+
+    StepVerifier.create(cache.get("1")).expectNext("v1").verifyComplete();
+
+    assertThat(store.getIfPresent("1").value()).isEqualTo("v1");
+  }
+
+  @Test
+  @DisplayName("Should report values stored for a key not cached, or different from the cached one")
+  void shouldReportNewAndChangedValues() {
+    List<String> changes = new CopyOnWriteArrayList<>();
+    cache =
+        new RevalidatingCache<>(
+            store,
+            key -> nextLoad,
+            CacheValueCodec.identity(),
+            SOFT_TTL,
+            HARD_TTL,
+            clock,
+            changes::add,
+            null);
+
+    StepVerifier.create(cache.get("1")).expectNext("v1").verifyComplete();
+    clock.advance(Duration.ofMinutes(11));
+    StepVerifier.create(cache.get("1")).expectNext("v1").verifyComplete();
+    nextLoad = Mono.just("v2");
+    clock.advance(Duration.ofMinutes(11));
+    StepVerifier.create(cache.get("1")).expectNext("v2").verifyComplete();
+
+    assertThat(changes).containsExactly("1", "1");
+  }
+
+  @Test
+  @DisplayName("Should bound each caller of a shared load by its own deadline only")
+  void shouldBoundEachCallerByItsOwnDeadline() {
+    nextLoad = Deadline.bound(Mono.delay(Duration.ofMillis(200)).thenReturn("v1"));
+
+    Mono<String> hurried =
+        cache.get("1").contextWrite(Deadline.after(Duration.ofMillis(50))::putIn);
+    Mono<String> patient =
+        cache.get("1").contextWrite(Deadline.after(Duration.ofSeconds(5))::putIn);
+
+    StepVerifier.create(
+            Mono.zip(
+                hurried.onErrorReturn(DeadlineExceededException.class, "expired"),
+                patient.delaySubscription(Duration.ofMillis(10))))
+        .assertNext(
+            results -> {
+              assertThat(results.getT1()).isEqualTo("expired");
+              assertThat(results.getT2()).isEqualTo("v1");
+            })
+        .expectComplete()
+        .verify(Duration.ofSeconds(5));
+
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("Should reload after the hard TTL")
+  void shouldReloadAfterHardTtl() {
+    StepVerifier.create(cache.get("1")).expectNext("v1").verifyComplete();
+    nextLoad = Mono.just("v2");
+    clock.advance(Duration.ofMinutes(11));
+
+    StepVerifier.create(cache.get("1")).expectNext("v2").verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should serve the stale value when the reload after the hard TTL fails")
+  void shouldServeStaleValueWhenReloadFails() {
+    StepVerifier.create(cache.get("1")).expectNext("v1").verifyComplete();
+    nextLoad = Mono.error(new ExternalApiException());
+    clock.advance(Duration.ofMinutes(11));
+
+    StepVerifier.create(cache.get("1")).expectNext("v1").verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should drop the entry when the reload reports the product as not found")
+  void shouldDropEntryWhenProductNotFound() {
+    StepVerifier.create(cache.get("1")).expectNext("v1").verifyComplete();
+    nextLoad = Mono.error(new ProductNotFoundException("1"));
+    clock.advance(Duration.ofMinutes(11));
+
+    StepVerifier.create(cache.get("1")).expectError(ProductNotFoundException.class).verify();
+
+    assertThat(store.getIfPresent("1")).isNull();
+  }
+
+  @Test
+  @DisplayName("Should propagate load errors when nothing is cached")
+  void shouldPropagateErrorsWhenNothingIsCached() {
+    nextLoad = Mono.error(new ExternalApiException());
+
+    StepVerifier.create(cache.get("1")).expectError(ExternalApiException.class).verify();
+  }
+
+  @Nested
+  @DisplayName("With a shared tier")
+  class SharedTierTests {
+
+    private InMemorySharedCache shared;
+    private SharedTier<String> tier;
+
+    @BeforeEach
+    void setUp() {
+      shared = new InMemorySharedCache();
+      tier = new SharedTier<>(shared, "test", new Utf8Codec(), null);
+      cache =
+          new RevalidatingCache<>(
+              store,
+              key -> {
+                loads.incrementAndGet();
+                return nextLoad;
+              },
+              CacheValueCodec.identity(),
+              SOFT_TTL,
+              HARD_TTL,
+              clock,
+              key -> {},
+              tier);
+    }
+
+    @Test
+    @DisplayName("Should serve local misses from the shared tier without loading")
+    void shouldServeLocalMissesFromSharedTier() {
+      tier.put("1", new CacheEntry<>("shared", clock.millis()));
+
+      StepVerifier.create(cache.get("1")).expectNext("shared").verifyComplete();
+
+      assertThat(loads).hasValue(0);
+      assertThat(store.getIfPresent("1").value()).isEqualTo("shared");
+    }
+
+    @Test
+    @DisplayName("Should apply the TTLs from the time the shared entry was written")
+    void shouldKeepSharedWriteTime() {
+      tier.put("1", new CacheEntry<>("shared", clock.millis()));
+      clock.advance(Duration.ofMinutes(2));
+
+      StepVerifier.create(cache.get("1")).expectNext("shared").verifyComplete();
+
+      assertThat(loads).hasValue(1);
+      assertThat(store.getIfPresent("1").value()).isEqualTo("v1");
+    }
+
+    @Test
+    @DisplayName("Should write loaded values through to the shared tier")
+    void shouldWriteLoadedValuesThrough() {
+      StepVerifier.create(cache.get("1")).expectNext("v1").verifyComplete();
+
+      StepVerifier.create(tier.get("1"))
+          .assertNext(entry -> assertThat(entry.value()).isEqualTo("v1"))
+          .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should evict from the shared tier when the product is not found")
+    void shouldEvictSharedEntryWhenProductNotFound() {
+      StepVerifier.create(cache.get("1")).expectNext("v1").verifyComplete();
+      nextLoad = Mono.error(new ProductNotFoundException("1"));
+      clock.advance(Duration.ofMinutes(11));
+
+      StepVerifier.create(cache.get("1")).expectError(ProductNotFoundException.class).verify();
+
+      assertThat(shared.values).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should drop the local entry when another instance changes it")
+    void shouldDropLocalEntryOnRemoteChange() {
+      StepVerifier.create(cache.get("1")).expectNext("v1").verifyComplete();
+
+      shared.announce("other", "1");
+      assertThat(store.getIfPresent("1")).isNotNull();
+      shared.announce("test", "1");
+
+      assertThat(store.getIfPresent("1")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should prefetch only the locally missing keys in one round trip")
+    void shouldPrefetchMissingKeysInOneRoundTrip() {
+      StepVerifier.create(cache.get("1")).expectNext("v1").verifyComplete();
+      tier.put("2", new CacheEntry<>("two", clock.millis()));
+      tier.put("3", new CacheEntry<>("three", clock.millis()));
+
+      StepVerifier.create(cache.prefetch(List.of("1", "2", "3", "4"))).verifyComplete();
+
+      assertThat(shared.requestedKeys).containsExactly(List.of("2", "3", "4"));
+      assertThat(store.asMap()).containsOnlyKeys("1", "2", "3");
+      assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should treat undecodable shared entries as misses")
+    void shouldTreatUndecodableEntriesAsMisses() {
+      shared.values.put("1", new byte[] {1, 2});
+
+      StepVerifier.create(cache.get("1")).expectNext("v1").verifyComplete();
+
+      assertThat(loads).hasValue(1);
+    }
+  }
+
+  private static final class Utf8Codec implements CacheValueCodec<String> {
+
+    @Override
+    public Object encode(String value) {
+      return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String decode(Object stored) {
+      return new String((byte[]) stored, StandardCharsets.UTF_8);
+    }
+  }
+
+  /** Single-namespace stand-in; writes are applied synchronously. */
+  private static final class InMemorySharedCache implements SharedCache {
+
+    private final Map<String, byte[]> values = new ConcurrentHashMap<>();
+    private final List<Collection<String>> requestedKeys = new CopyOnWriteArrayList<>();
+    private final List<BiConsumer<String, String>> listeners = new CopyOnWriteArrayList<>();
+
+    void announce(String cacheName, String key) {
+      listeners.forEach(listener -> listener.accept(cacheName, key));
+    }
+
+    @Override
+    public Mono<byte[]> get(String cacheName, String key) {
+      return Mono.justOrEmpty(values.get(key));
+    }
+
+    @Override
+    public Mono<Map<String, byte[]>> getAll(String cacheName, Collection<String> keys) {
+      requestedKeys.add(List.copyOf(keys));
+      Map<String, byte[]> found = new HashMap<>();
+      keys.forEach(
+          key -> {
+            if (values.containsKey(key)) {
+              found.put(key, values.get(key));
+            }
+          });
+      return Mono.just(found);
+    }
+
+    @Override
+    public Mono<Void> put(String cacheName, String key, byte[] value, Duration ttl) {
+      values.put(key, value);
+      return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> evict(String cacheName, String key) {
+      values.remove(key);
+      return Mono.empty();
+    }
+
+    @Override
+    public void subscribe(BiConsumer<String, String> listener) {
+      listeners.add(listener);
+    }
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
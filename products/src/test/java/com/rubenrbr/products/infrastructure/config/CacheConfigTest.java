@@ -0,0 +1,105 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import com.rubenrbr.products.infrastructure.cache.CacheChangeNotifier;
+import com.rubenrbr.products.infrastructure.cache.CacheEntry;
+import com.rubenrbr.products.infrastructure.cache.CacheStatistics;
+
+@DisplayName("CacheConfig Tests")
+class CacheConfigTest {
+
+  private final CacheConfig cacheConfig = new CacheConfig();
+
+  @Test
+  @DisplayName("Should build bounded caches with the configured expiry")
+  void shouldBuildBoundedCachesWithConfiguredExpiry() {
+    CacheProperties properties =
+        new CacheProperties(
+            Map.of(
+                "product-detail",
+                new CacheProperties.Spec(
+                    100L, null, Duration.ofMinutes(1), Duration.ofSeconds(30), null, null, null),
+                "similar-ids",
+                new CacheProperties.Spec(
+                    null,
+                    500L,
+                    Duration.ofMinutes(2),
+                    null,
+                    Duration.ofSeconds(30),
+                    Duration.ofMinutes(5),
+                    null)));
+
+    CacheManager cacheManager =
+        cacheConfig.cacheManager(properties, new CacheChangeNotifier(), new CacheStatistics());
+
+    Policy<Object, Object> detailPolicy = policy(cacheManager, "product-detail");
+    assertThat(detailPolicy.eviction().orElseThrow().getMaximum()).isEqualTo(100L);
+    assertThat(detailPolicy.expireAfterWrite().orElseThrow().getExpiresAfter())
+        .isEqualTo(Duration.ofMinutes(1));
+    assertThat(detailPolicy.expireAfterAccess().orElseThrow().getExpiresAfter())
+        .isEqualTo(Duration.ofSeconds(30));
+
+    Policy<Object, Object> similarPolicy = policy(cacheManager, "similar-ids");
+    assertThat(similarPolicy.eviction().orElseThrow().isWeighted()).isTrue();
+    assertThat(similarPolicy.eviction().orElseThrow().getMaximum()).isEqualTo(500L);
+    assertThat(similarPolicy.expireAfterAccess()).isEmpty();
+    assertThat(similarPolicy.expireAfterWrite().orElseThrow().getExpiresAfter())
+        .isEqualTo(Duration.ofMinutes(7));
+  }
+
+  @Test
+  @DisplayName("Should weigh similar-ids entries by number of ids")
+  void shouldWeighSimilarIdsByNumberOfIds() {
+    CacheProperties properties =
+        new CacheProperties(
+            Map.of(
+                "similar-ids", new CacheProperties.Spec(null, 500L, null, null, null, null, null)));
+
+    CaffeineCache cache =
+        (CaffeineCache)
+            cacheConfig
+                .cacheManager(properties, new CacheChangeNotifier(), new CacheStatistics())
+                .getCache("similar-ids");
+    cache.put("1", new CacheEntry<>(List.of("2", "3", "4"), 0L));
+    cache.getNativeCache().cleanUp();
+
+    assertThat(
+            cache.getNativeCache().policy().eviction().orElseThrow().weightedSize().orElseThrow())
+        .isEqualTo(4L);
+  }
+
+  @Test
+  @DisplayName("Should apply default bounds and not create unknown caches")
+  void shouldApplyDefaultsAndNotCreateUnknownCaches() {
+    CacheManager cacheManager =
+        cacheConfig.cacheManager(
+            new CacheProperties(null), new CacheChangeNotifier(), new CacheStatistics());
+
+    assertThat(cacheManager.getCacheNames())
+        .containsExactlyInAnyOrder(
+            "product-detail",
+            "similar-ids",
+            "product-detail-not-found",
+            "similar-ids-not-found",
+            "similar-response");
+    assertThat(cacheManager.getCache("unknown")).isNull();
+    assertThat(policy(cacheManager, "product-detail").eviction().orElseThrow().getMaximum())
+        .isEqualTo(10_000L);
+  }
+
+  private static Policy<Object, Object> policy(CacheManager cacheManager, String name) {
+    CaffeineCache cache = (CaffeineCache) cacheManager.getCache(name);
+    return cache.getNativeCache().policy();
+  }
+}
@@ -0,0 +1,47 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("MetricsConfig Tests")
+class MetricsConfigTest {
+
+  private final MetricsConfig metricsConfig = new MetricsConfig();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  @DisplayName("Should count circuit breaker state transitions by source and target state")
+  void shouldCountStateTransitions() {
+    CircuitBreakerRegistry registry =
+        CircuitBreakerRegistry.of(
+            CircuitBreakerConfig.ofDefaults(),
+            metricsConfig.circuitBreakerTransitionMetrics(meterRegistry));
+    CircuitBreaker circuitBreaker = registry.circuitBreaker("product-similar-ids");
+
+    circuitBreaker.transitionToOpenState();
+    circuitBreaker.transitionToHalfOpenState();
+    circuitBreaker.transitionToOpenState();
+
+    assertThat(
+            meterRegistry
+                .get("resilience4j.circuitbreaker.transitions")
+                .tags("name", "product-similar-ids", "from", "CLOSED", "to", "OPEN")
+                .counter()
+                .count())
+        .isEqualTo(1);
+    assertThat(
+            meterRegistry
+                .get("resilience4j.circuitbreaker.transitions")
+                .tags("from", "HALF_OPEN", "to", "OPEN")
+                .counter()
+                .count())
+        .isEqualTo(1);
+  }
+}
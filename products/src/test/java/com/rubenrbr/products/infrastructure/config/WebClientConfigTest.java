@@ -0,0 +1,136 @@
+package com.rubenrbr.products.infrastructure.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.test.StepVerifier;
+
+@DisplayName("WebClientConfig Tests")
+class WebClientConfigTest {
+
+  private DisposableServer server;
+  private ConnectionProvider connectionProvider;
+
+  @BeforeEach
+  void setUp() {
+    server =
+        HttpServer.create()
+            .port(0)
+            .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+            .handle((request, response) -> response.sendString(Mono.just(request.protocol())))
+            .bindNow();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (connectionProvider != null) {
+      connectionProvider.disposeLater().block(Duration.ofSeconds(5));
+    }
+    server.disposeNow();
+  }
+
+  @Test
+  @DisplayName("Should send similar-ids requests and detail requests to their own connectors")
+  void shouldRouteRequestsByPath() {
+    List<String> routed = new ArrayList<>();
+    ClientHttpConnector connector =
+        WebClientConfig.routeByPath(
+            path -> path.endsWith("/similarids"),
+            recording("similar-ids", routed),
+            recording("detail", routed));
+
+    connector.connect(HttpMethod.GET, URI.create("http://api/product/1/similarids"), r -> null);
+    connector.connect(HttpMethod.GET, URI.create("http://api/product/1"), r -> null);
+
+    assertThat(routed).containsExactly("similar-ids", "detail");
+  }
+
+  @Test
+  @DisplayName("Should speak HTTP/1.1 by default")
+  void shouldUseHttp11ByDefault() {
+    StepVerifier.create(get(properties(null), "product-detail"))
+        .expectNext("HTTP/1.1")
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should speak cleartext HTTP/2 when configured with h2c")
+  void shouldUseH2c() {
+    StepVerifier.create(get(properties(List.of(HttpProtocol.H2C)), "product-detail"))
+        .expectNext("HTTP/2.0")
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Should publish connection pool metrics tagged by pool name")
+  void shouldPublishPoolMetrics() {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    Metrics.addRegistry(meterRegistry);
+    try {
+      get(properties(null), "product-similar-ids").block(Duration.ofSeconds(5));
+
+      assertThat(
+              meterRegistry
+                  .find("reactor.netty.connection.provider.total.connections")
+                  .tag("name", "product-similar-ids")
+                  .gauge())
+          .isNotNull();
+    } finally {
+      Metrics.removeRegistry(meterRegistry);
+    }
+  }
+
+  @Test
+  @DisplayName("Should apply pool defaults to endpoints without configuration")
+  void shouldApplyPoolDefaults() {
+    UpstreamConnectionProperties properties = properties(null);
+
+    assertThat(properties.pool("product-detail").maxConnections()).isEqualTo(100);
+    assertThat(properties.pool("product-detail").pendingAcquireTimeout())
+        .isEqualTo(Duration.ofSeconds(5));
+    assertThat(properties.keepAlive()).isTrue();
+  }
+
+  private Mono<String> get(UpstreamConnectionProperties properties, String pool) {
+    connectionProvider = WebClientConfig.connectionProvider(pool, properties.pool(pool));
+    return WebClient.builder()
+        .clientConnector(
+            WebClientConfig.connector(connectionProvider, properties, Duration.ofSeconds(5)))
+        .build()
+        .get()
+        .uri("http://localhost:" + server.port() + "/product/1")
+        .retrieve()
+        .bodyToMono(String.class);
+  }
+
+  private static UpstreamConnectionProperties properties(List<HttpProtocol> protocols) {
+    return new UpstreamConnectionProperties(protocols, null, null, Map.of());
+  }
+
+  private static ClientHttpConnector recording(String name, List<String> routed) {
+    return (method, uri, requestCallback) -> {
+      routed.add(name);
+      return Mono.empty();
+    };
+  }
+}
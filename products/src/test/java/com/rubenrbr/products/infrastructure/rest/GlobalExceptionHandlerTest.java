@@ -3,14 +3,22 @@ package com.rubenrbr.products.infrastructure.rest;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
+import java.util.Set;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ServerWebInputException;
 
+import com.rubenrbr.products.domain.exception.DeadlineExceededException;
 import com.rubenrbr.products.domain.exception.ProductNotFoundException;
+import com.rubenrbr.products.domain.exception.UpstreamOverloadedException;
+import com.rubenrbr.products.domain.exception.UpstreamUnavailableException;
 import com.rubenrbr.products.infrastructure.rest.exception.GlobalExceptionHandler;
 
+import jakarta.validation.ConstraintViolationException;
+
 class GlobalExceptionHandlerTest {
 
   private GlobalExceptionHandler exceptionHandler;
@@ -32,6 +40,57 @@ class GlobalExceptionHandlerTest {
     assertEquals("Product 123 not found.", response.getBody());
   }
 
+  @Test
+  void handleDeadlineExceededException_shouldReturnGatewayTimeoutStatus() {
+    ResponseEntity<String> response =
+        exceptionHandler.handleDeadlineExceededException(new DeadlineExceededException());
+
+    assertNotNull(response);
+    assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getStatusCode());
+    assertEquals("The request deadline was exceeded.", response.getBody());
+  }
+
+  @Test
+  void handleUpstreamOverloadedException_shouldReturnServiceUnavailableStatus() {
+    ResponseEntity<String> response =
+        exceptionHandler.handleUpstreamOverloadedException(new UpstreamOverloadedException());
+
+    assertNotNull(response);
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+  }
+
+  @Test
+  void handleUpstreamUnavailableException_shouldReturnServiceUnavailableStatus() {
+    ResponseEntity<String> response =
+        exceptionHandler.handleUpstreamUnavailableException(new UpstreamUnavailableException());
+
+    assertNotNull(response);
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+  }
+
+  @Test
+  void handleServerWebInputException_shouldReturnBadRequestStatus() {
+    ResponseEntity<String> response =
+        exceptionHandler.handleServerWebInputException(
+            new ServerWebInputException("productIds: size must be between 1 and 100"));
+
+    assertNotNull(response);
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("productIds: size must be between 1 and 100", response.getBody());
+  }
+
+  @Test
+  void handleConstraintViolationException_shouldReturnBadRequestStatus() {
+    ResponseEntity<String> response =
+        exceptionHandler.handleConstraintViolationException(
+            new ConstraintViolationException(
+                "getProductSimilar.limit: must be greater than or equal to 1", Set.of()));
+
+    assertNotNull(response);
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("getProductSimilar.limit: must be greater than or equal to 1", response.getBody());
+  }
+
   @Test
   void handleGeneralException_shouldReturnInternalServerErrorStatus() {
     String errorMessage = "Unexpected error occurred";
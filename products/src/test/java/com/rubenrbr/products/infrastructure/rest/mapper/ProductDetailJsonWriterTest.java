@@ -0,0 +1,36 @@
+package com.rubenrbr.products.infrastructure.rest.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rubenrbr.products.infrastructure.rest.dto.ProductDetailDto;
+
+@DisplayName("ProductDetailJsonWriter Tests")
+class ProductDetailJsonWriterTest {
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+  static Stream<ProductDetailDto> products() {
+    return Stream.of(
+        new ProductDetailDto("2", "Pants", new BigDecimal("19.99"), true),
+        new ProductDetailDto("3", "Shoes", new BigDecimal("30.0"), false),
+        new ProductDetailDto("4", "\"Quoted\" \\ café ☃\n", new BigDecimal("1E+3"), true),
+        new ProductDetailDto("5", null, null, null));
+  }
+
+  @ParameterizedTest
+  @MethodSource("products")
+  @DisplayName("Should write the same bytes as Jackson data binding")
+  void shouldWriteLikeJackson(ProductDetailDto product) throws Exception {
+    assertThat(ProductDetailJsonWriter.write(product))
+        .isEqualTo(objectMapper.writeValueAsBytes(product));
+  }
+}